@@ -2,6 +2,7 @@ package uk.gov.hmcts.reform.sscs;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,7 +30,11 @@ import uk.gov.hmcts.reform.sscs.exception.TribunalsEventProcessingException;
 import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.CaseLaneDispatcher;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.HearingUpdateDebouncer;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.MessageLedger;
 import uk.gov.hmcts.reform.sscs.jms.listener.TribunalsHearingsEventQueueListener;
+import uk.gov.hmcts.reform.sscs.jms.retry.HearingRequestRequeuer;
 import uk.gov.hmcts.reform.sscs.model.VenueDetails;
 import uk.gov.hmcts.reform.sscs.model.hearings.HearingRequest;
 import uk.gov.hmcts.reform.sscs.model.multi.hearing.HearingsGetResponse;
@@ -100,7 +105,9 @@ public class HearingsListenerTest {
 
     @Test
     public void testHearingsUpdateCaseV2() throws UpdateCaseException, TribunalsEventProcessingException, GetCaseException {
-        tribunalsHearingsEventQueueListener = new TribunalsHearingsEventQueueListener(hearingsService, ccdCaseService);
+        tribunalsHearingsEventQueueListener = new TribunalsHearingsEventQueueListener(hearingsService, ccdCaseService,
+            CaseLaneDispatcher.inline("test", new SimpleMeterRegistry()), MessageLedger.disabled(),
+            HearingRequestRequeuer.disabled(), new HearingUpdateDebouncer(false, new SimpleMeterRegistry()));
         IdamTokens idamTokens = IdamTokens.builder().build();
         when(idamService.getIdamTokens()).thenReturn(idamTokens);
         when(ccdCaseService.getStartEventResponse(anyLong(), any())).thenReturn(SscsCaseDetails.builder().data(
@@ -145,7 +152,7 @@ public class HearingsListenerTest {
             + "  \"hearingRoute\": \"LIST_ASSIST\",\n"
             + "  \"hearingState\": \"adjournCreateHearing\"\n"
             + "}\n";
-        tribunalsHearingsEventQueueListener.handleIncomingMessage(deserialize(message));
+        tribunalsHearingsEventQueueListener.handleIncomingMessage(deserialize(message), null, null, null, null);
 
         verify(updateCcdCaseService).updateCaseV2(
             eq(Long.parseLong(CASE_ID)), any(), any(), any(), any(), any());
@@ -0,0 +1,82 @@
+package uk.gov.hmcts.reform.sscs.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import uk.gov.hmcts.reform.authorisation.validators.AuthTokenValidator;
+import uk.gov.hmcts.reform.sscs.service.bulk.BulkHearingsService;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+    "feature.bulk-hearings.enabled=true",
+    "bulk-hearings.authorised-services=sscs"
+})
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("integration")
+class BulkHearingsControllerTest {
+
+    private static final String SERVICE_TOKEN = "Bearer service-token";
+    private static final String JOB_ID = "job-id";
+
+    @MockBean
+    private AuthTokenValidator authTokenValidator;
+    @MockBean
+    private BulkHearingsService bulkHearingsService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DisplayName("When the calling service is not authorised for bulk hearings the job is rejected with a 403 response code")
+    @Test
+    void testBulkHearingsForbidden() throws Exception {
+        given(authTokenValidator.getServiceName(SERVICE_TOKEN)).willReturn("xui_webapp");
+
+        mockMvc.perform(post("/bulkHearings")
+                .header("ServiceAuthorization", SERVICE_TOKEN)
+                .contentType(APPLICATION_JSON)
+                .content("{\"caseIds\":[\"1234\"],\"hearingState\":\"updateHearing\"}"))
+            .andExpect(status().isForbidden());
+
+        verifyNoInteractions(bulkHearingsService);
+    }
+
+    @DisplayName("When the calling service is not authorised for bulk hearings the job status is rejected with a 403 response code")
+    @Test
+    void testBulkHearingJobStatusForbidden() throws Exception {
+        given(authTokenValidator.getServiceName(SERVICE_TOKEN)).willReturn("xui_webapp");
+
+        mockMvc.perform(get("/bulkHearings/" + JOB_ID).header("ServiceAuthorization", SERVICE_TOKEN))
+            .andExpect(status().isForbidden());
+
+        verifyNoInteractions(bulkHearingsService);
+    }
+
+    @DisplayName("When the calling service is authorised for bulk hearings the job status is looked up")
+    @Test
+    void testBulkHearingJobStatusAuthorised() throws Exception {
+        given(authTokenValidator.getServiceName(SERVICE_TOKEN)).willReturn("sscs");
+        given(bulkHearingsService.getJob(any())).willReturn(Optional.empty());
+
+        mockMvc.perform(get("/bulkHearings/" + JOB_ID).header("ServiceAuthorization", SERVICE_TOKEN))
+            .andExpect(status().isNotFound());
+
+        verify(bulkHearingsService).getJob(JOB_ID);
+    }
+}
@@ -2,6 +2,7 @@ package uk.gov.hmcts.reform.sscs;
 
 import com.microsoft.applicationinsights.web.internal.ApplicationInsightsServletContextListener;
 import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -18,6 +19,7 @@ import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 import uk.gov.hmcts.reform.sscs.ccd.config.CcdRequestDetails;
+import uk.gov.hmcts.reform.sscs.config.http.DownstreamHttpPools;
 
 import java.util.concurrent.TimeUnit;
 import javax.servlet.ServletContextListener;
@@ -53,8 +55,10 @@ public class HearingsApiApplication {
     }
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(ObjectProvider<DownstreamHttpPools> downstreamHttpPools) {
+        RestTemplate restTemplate = new RestTemplate();
+        downstreamHttpPools.ifAvailable(pools -> pools.configure(restTemplate));
+        return restTemplate;
     }
 
     @Bean
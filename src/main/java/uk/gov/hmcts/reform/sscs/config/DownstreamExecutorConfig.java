@@ -0,0 +1,18 @@
+package uk.gov.hmcts.reform.sscs.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.sscs.service.DownstreamExecutor;
+
+@Configuration
+public class DownstreamExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public DownstreamExecutor downstreamExecutor(@Value("${downstream-executor.threads:8}") int threads,
+                                                 @Value("${downstream-executor.queue-capacity:100}") int queueCapacity,
+                                                 MeterRegistry meterRegistry) {
+        return new DownstreamExecutor("hearings-downstream", threads, queueCapacity, meterRegistry);
+    }
+}
@@ -1,22 +1,34 @@
 package uk.gov.hmcts.reform.sscs.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Client;
 import feign.Retryer;
 import feign.codec.Decoder;
 import feign.codec.ErrorDecoder;
 import feign.jackson.JacksonDecoder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
+import uk.gov.hmcts.reform.sscs.config.http.DownstreamFeignClient;
+import uk.gov.hmcts.reform.sscs.config.http.DownstreamHttpPools;
+import uk.gov.hmcts.reform.sscs.config.http.Http2FeignClient;
 import uk.gov.hmcts.reform.sscs.service.AppInsightsService;
+import uk.gov.hmcts.reform.sscs.service.IdamTokenProvider;
 import uk.gov.hmcts.reform.sscs.service.exceptions.FeignClientErrorDecoder;
 
+import java.time.Duration;
+
 public class FeignClientConfig {
 
     private final AppInsightsService appInsightsService;
 
-    public FeignClientConfig(AppInsightsService appInsightsService) {
+    private final IdamTokenProvider idamTokenProvider;
+
+    public FeignClientConfig(AppInsightsService appInsightsService, IdamTokenProvider idamTokenProvider) {
         this.appInsightsService = appInsightsService;
+        this.idamTokenProvider = idamTokenProvider;
     }
 
     @Bean
@@ -27,7 +39,7 @@ public class FeignClientConfig {
 
     @Bean
     public ErrorDecoder errorDecoder(ObjectMapper objectMapper) {
-        return new FeignClientErrorDecoder(appInsightsService, objectMapper);
+        return new FeignClientErrorDecoder(appInsightsService, objectMapper, idamTokenProvider);
     }
 
     @Bean
@@ -37,4 +49,17 @@ public class FeignClientConfig {
         return new Retryer.Default(period, maxPeriod, maxAttempts);
     }
 
+    /**
+     * Sends HMC requests over HTTP/2 in place of the shared HTTP client, still within the HMC in-flight limit when the
+     * downstream pools are enabled.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "feature.hmc-http2.enabled", havingValue = "true")
+    public Client hmcHttp2Client(@Value("${feign.client.config.default.connectTimeout}") long connectTimeoutMs,
+                                 ObjectProvider<DownstreamHttpPools> downstreamHttpPools) {
+        Http2FeignClient client = new Http2FeignClient(Duration.ofMillis(connectTimeoutMs));
+        DownstreamHttpPools pools = downstreamHttpPools.getIfAvailable();
+        return pools == null ? client : new DownstreamFeignClient(pools, client);
+    }
+
 }
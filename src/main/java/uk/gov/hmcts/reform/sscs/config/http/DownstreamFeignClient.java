@@ -0,0 +1,54 @@
+package uk.gov.hmcts.reform.sscs.config.http;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.httpclient.ApacheHttpClient;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign client sending each request through the pool of its downstream service, with that downstream's timeouts in
+ * place of the Feign defaults. A client given its own delegate keeps the in-flight limits and timeouts of the pools
+ * but sends requests with the delegate rather than the pooled connections.
+ */
+public class DownstreamFeignClient implements Client {
+
+    private final DownstreamHttpPools pools;
+
+    private final Client delegate;
+
+    private final Map<DownstreamHttpPool, Client> delegates = new IdentityHashMap<>();
+
+    public DownstreamFeignClient(DownstreamHttpPools pools) {
+        this(pools, null);
+    }
+
+    public DownstreamFeignClient(DownstreamHttpPools pools, Client delegate) {
+        this.pools = pools;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        DownstreamHttpPool pool = pools.forUrl(request.url());
+        Client client = delegate(pool);
+        Request.Options poolOptions = new Request.Options(
+            pool.getSettings().getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS,
+            pool.getSettings().getReadTimeout().toMillis(), TimeUnit.MILLISECONDS,
+            options.isFollowRedirects());
+        return pool.execute(() -> client.execute(request, poolOptions));
+    }
+
+    private Client delegate(DownstreamHttpPool pool) {
+        if (delegate != null) {
+            return delegate;
+        }
+        synchronized (delegates) {
+            return delegates.computeIfAbsent(pool, p -> new ApacheHttpClient(p.getHttpClient()));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package uk.gov.hmcts.reform.sscs.config.http;
+
+import feign.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Replaces the default Feign HTTP client with {@link DownstreamFeignClient}, giving HMC, CCD, IDAM and judicial
+ * reference data their own connection pools. Each setting under {@code downstream-http.<downstream>} falls back to the
+ * same setting directly under {@code downstream-http}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "feature.downstream-http-pools.enabled", havingValue = "true")
+public class DownstreamHttpConfig {
+
+    static final List<String> DOWNSTREAMS = List.of("hmc", "ccd", "idam", "judicial-ref");
+
+    static final String FALLBACK = "other";
+
+    private static final String PREFIX = "downstream-http.";
+
+    @Bean(destroyMethod = "close")
+    public DownstreamHttpPools downstreamHttpPools(Environment environment, MeterRegistry meterRegistry) {
+        List<DownstreamHttpPool> pools = DOWNSTREAMS.stream()
+            .map(name -> new DownstreamHttpPool(settings(environment, name), meterRegistry))
+            .collect(Collectors.toList());
+        return new DownstreamHttpPools(pools, new DownstreamHttpPool(settings(environment, FALLBACK), meterRegistry));
+    }
+
+    @Bean
+    public Client feignClient(DownstreamHttpPools downstreamHttpPools) {
+        return new DownstreamFeignClient(downstreamHttpPools);
+    }
+
+    static DownstreamHttpSettings settings(Environment environment, String name) {
+        return DownstreamHttpSettings.builder()
+            .name(name)
+            .urls(Arrays.asList(environment.getProperty(PREFIX + name + ".urls", String[].class, new String[0])))
+            .maxConnections(Math.toIntExact(setting(environment, name, "max-connections", 20)))
+            .maxInFlight(Math.toIntExact(setting(environment, name, "max-in-flight", 20)))
+            .inFlightWait(Duration.ofMillis(setting(environment, name, "in-flight-wait-ms", 5000)))
+            .connectTimeout(Duration.ofMillis(setting(environment, name, "connect-timeout-ms", 10000)))
+            .readTimeout(Duration.ofMillis(setting(environment, name, "read-timeout-ms", 10000)))
+            .keepAlive(Duration.ofMillis(setting(environment, name, "keep-alive-ms", 60000)))
+            .idleTimeout(Duration.ofMillis(setting(environment, name, "idle-timeout-ms", 30000)))
+            .build();
+    }
+
+    private static long setting(Environment environment, String name, String key, long defaultValue) {
+        Long shared = environment.getProperty(PREFIX + key, Long.class, defaultValue);
+        return environment.getProperty(PREFIX + name + "." + key, Long.class, shared);
+    }
+}
@@ -0,0 +1,188 @@
+package uk.gov.hmcts.reform.sscs.config.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool, timeouts and in-flight limit for one downstream service.
+ *
+ * <p>Requests beyond the in-flight limit wait for up to the configured time and then fail with an {@link IOException},
+ * which Feign treats as retryable. Connections are kept alive for the shorter of the server's keep-alive and the
+ * configured keep-alive, and idle connections are closed in the background.
+ */
+@Slf4j
+public class DownstreamHttpPool implements Closeable {
+
+    public static final String REQUESTS_METRIC = "hearings.http.requests";
+    public static final String IN_FLIGHT_METRIC = "hearings.http.in-flight";
+    public static final String IN_FLIGHT_WAIT_METRIC = "hearings.http.in-flight.wait";
+    public static final String REJECTED_METRIC = "hearings.http.in-flight.rejected";
+    public static final String CONNECTIONS_OPENED_METRIC = "hearings.http.connections.opened";
+    public static final String CONNECTION_REUSE_METRIC = "hearings.http.connections.reuse";
+    public static final String DOWNSTREAM_TAG = "downstream";
+
+    private final DownstreamHttpSettings settings;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final CloseableHttpClient httpClient;
+
+    private final Semaphore inFlight;
+
+    private final Counter requests;
+
+    private final Counter connectionsOpened;
+
+    private final Counter rejected;
+
+    private final Timer inFlightWait;
+
+    public DownstreamHttpPool(DownstreamHttpSettings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.inFlight = new Semaphore(settings.getMaxInFlight(), true);
+
+        Tags tags = Tags.of(DOWNSTREAM_TAG, settings.getName());
+        this.requests = Counter.builder(REQUESTS_METRIC)
+            .tags(tags)
+            .register(meterRegistry);
+        this.connectionsOpened = Counter.builder(CONNECTIONS_OPENED_METRIC)
+            .tags(tags)
+            .register(meterRegistry);
+        this.rejected = Counter.builder(REJECTED_METRIC)
+            .tags(tags)
+            .register(meterRegistry);
+        this.inFlightWait = Timer.builder(IN_FLIGHT_WAIT_METRIC)
+            .tags(tags)
+            .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, this, pool -> pool.settings.getMaxInFlight() - pool.inFlight.availablePermits())
+            .tags(tags)
+            .register(meterRegistry);
+        Gauge.builder(CONNECTION_REUSE_METRIC, this, DownstreamHttpPool::connectionReuse)
+            .tags(tags)
+            .register(meterRegistry);
+
+        HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> connectionFactory = (route, config) -> {
+            connectionsOpened.increment();
+            return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+        };
+        this.connectionManager = new PoolingHttpClientConnectionManager(
+            RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                .build(),
+            connectionFactory);
+        connectionManager.setMaxTotal(settings.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(settings.getMaxConnections());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, settings.getName(), tags)
+            .bindTo(meterRegistry);
+
+        long keepAliveMs = settings.getKeepAlive().toMillis();
+        this.httpClient = HttpClients.custom()
+            .useSystemProperties()
+            .disableCookieManagement()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectTimeout(toMillis(settings.getConnectTimeout()))
+                .setSocketTimeout(toMillis(settings.getReadTimeout()))
+                .setConnectionRequestTimeout(toMillis(settings.getInFlightWait()))
+                .build())
+            .setKeepAliveStrategy((response, context) -> {
+                long serverKeepAliveMs = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return serverKeepAliveMs > 0 ? Math.min(serverKeepAliveMs, keepAliveMs) : keepAliveMs;
+            })
+            .evictExpiredConnections()
+            .evictIdleConnections(settings.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    public String getName() {
+        return settings.getName();
+    }
+
+    public DownstreamHttpSettings getSettings() {
+        return settings;
+    }
+
+    public CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Runs a request against this downstream once it is within the in-flight limit.
+     */
+    public <T> T execute(HttpCall<T> call) throws IOException {
+        acquire();
+        try {
+            requests.increment();
+            return call.call();
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private void acquire() throws IOException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = inFlight.tryAcquire(settings.getInFlightWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format("Interrupted waiting to call %s", settings.getName()));
+        } finally {
+            inFlightWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejected.increment();
+            log.warn("Rejected request to {} after waiting {} with {} requests in flight",
+                settings.getName(), settings.getInFlightWait(), settings.getMaxInFlight());
+            throw new IOException(String.format("Too many requests in flight to %s", settings.getName()));
+        }
+    }
+
+    private double connectionReuse() {
+        double requestCount = requests.count();
+        if (requestCount == 0) {
+            return 0;
+        }
+        return Math.max(0, 1 - connectionsOpened.count() / requestCount);
+    }
+
+    private static int toMillis(Duration duration) {
+        return (int) Math.min(Integer.MAX_VALUE, duration.toMillis());
+    }
+
+    @FunctionalInterface
+    public interface HttpCall<T> {
+        T call() throws IOException;
+    }
+}
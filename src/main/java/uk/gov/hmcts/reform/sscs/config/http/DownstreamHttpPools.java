@@ -0,0 +1,80 @@
+package uk.gov.hmcts.reform.sscs.config.http;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The HTTP engine shared by every downstream call, routing each request to the pool of the downstream service whose
+ * configured URL has the same host and port. Requests to any other host use the fallback pool.
+ */
+@Slf4j
+public class DownstreamHttpPools implements Closeable {
+
+    private final List<DownstreamHttpPool> pools;
+
+    private final DownstreamHttpPool fallback;
+
+    private final Map<String, DownstreamHttpPool> poolsByHost = new HashMap<>();
+
+    private final Map<DownstreamHttpPool, ClientHttpRequestFactory> requestFactories = new IdentityHashMap<>();
+
+    public DownstreamHttpPools(List<DownstreamHttpPool> pools, DownstreamHttpPool fallback) {
+        this.pools = pools;
+        this.fallback = fallback;
+        for (DownstreamHttpPool pool : pools) {
+            for (String url : pool.getSettings().getUrls()) {
+                DownstreamHttpPool existing = poolsByHost.putIfAbsent(hostKey(URI.create(url)), pool);
+                if (existing != null && existing != pool) {
+                    log.warn("{} shares a host with {}, requests to {} will use the {} pool",
+                        pool.getName(), existing.getName(), url, existing.getName());
+                }
+            }
+            requestFactories.put(pool, new HttpComponentsClientHttpRequestFactory(pool.getHttpClient()));
+        }
+        requestFactories.put(fallback, new HttpComponentsClientHttpRequestFactory(fallback.getHttpClient()));
+    }
+
+    public DownstreamHttpPool forUrl(String url) {
+        return forUri(URI.create(url));
+    }
+
+    public DownstreamHttpPool forUri(URI uri) {
+        return poolsByHost.getOrDefault(hostKey(uri), fallback);
+    }
+
+    /**
+     * Sends the requests made by a {@link RestTemplate} through the downstream pools.
+     */
+    public void configure(RestTemplate restTemplate) {
+        restTemplate.setRequestFactory((uri, method) -> requestFactories.get(forUri(uri)).createRequest(uri, method));
+        restTemplate.getInterceptors().add((request, body, execution) ->
+            forUri(request.getURI()).execute(() -> execution.execute(request, body)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DownstreamHttpPool pool : pools) {
+            pool.close();
+        }
+        fallback.close();
+    }
+
+    static String hostKey(URI uri) {
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return String.valueOf(uri.getHost()).toLowerCase(Locale.ROOT) + ":" + port;
+    }
+}
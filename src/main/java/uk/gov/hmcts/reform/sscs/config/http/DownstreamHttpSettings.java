@@ -0,0 +1,30 @@
+package uk.gov.hmcts.reform.sscs.config.http;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+
+@Getter
+@Builder
+public class DownstreamHttpSettings {
+
+    private final String name;
+
+    private final List<String> urls;
+
+    private final int maxConnections;
+
+    private final int maxInFlight;
+
+    private final Duration inFlightWait;
+
+    private final Duration connectTimeout;
+
+    private final Duration readTimeout;
+
+    private final Duration keepAlive;
+
+    private final Duration idleTimeout;
+}
@@ -0,0 +1,87 @@
+package uk.gov.hmcts.reform.sscs.config.http;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Feign client backed by the JDK {@link HttpClient}, which multiplexes concurrent requests to a host over a single
+ * HTTP/2 connection instead of opening an HTTP/1.1 connection for each of them.
+ *
+ * <p>HTTP/2 is negotiated with ALPN over TLS and with an h2c upgrade over cleartext. When the server does not agree to
+ * HTTP/2 the client carries on with HTTP/1.1, so it can be pointed at servers that only speak HTTP/1.1.
+ */
+public class Http2FeignClient implements Client {
+
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+        "upgrade");
+
+    private final HttpClient httpClient;
+
+    public Http2FeignClient(Duration connectTimeout) {
+        this(HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build());
+    }
+
+    Http2FeignClient(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(toHttpRequest(request, options), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format("Interrupted calling %s", request.url()));
+        }
+
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        response.headers().map().forEach((name, values) -> headers.put(name, new ArrayList<>(values)));
+        return Response.builder()
+            .request(request)
+            .status(response.statusCode())
+            .headers(headers)
+            .body(response.body(), contentLength(response))
+            .build();
+    }
+
+    private static HttpRequest toHttpRequest(Request request, Request.Options options) {
+        HttpRequest.BodyPublisher body = request.body() == null
+            ? HttpRequest.BodyPublishers.noBody()
+            : HttpRequest.BodyPublishers.ofByteArray(request.body());
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.url()))
+            .timeout(Duration.ofMillis(options.readTimeoutMillis()))
+            .method(request.httpMethod().name(), body);
+        request.headers().forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        return builder.build();
+    }
+
+    private static Integer contentLength(HttpResponse<InputStream> response) {
+        long length = response.headers().firstValueAsLong("content-length").orElse(-1);
+        return length >= 0 && length <= Integer.MAX_VALUE ? (int) length : null;
+    }
+}
@@ -1,5 +1,6 @@
 package uk.gov.hmcts.reform.sscs.config.jms;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.qpid.jms.JmsConnectionFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,10 +8,11 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
 import org.springframework.jms.config.JmsListenerContainerFactory;
 import org.springframework.jms.connection.CachingConnectionFactory;
 import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.CaseLaneDispatcher;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.HearingUpdateConflator;
 
 import javax.jms.ConnectionFactory;
 import javax.jms.Session;
@@ -38,6 +40,30 @@ public class HearingsJmsConfig {
     @Value("${azure.service-bus.hmc-to-hearings-api.idleTimeout}")
     private Long idleTimeout;
 
+    @Value("${azure.service-bus.hmc-to-hearings-api.lanes:1}")
+    private int lanes;
+
+    @Value("${azure.service-bus.hmc-to-hearings-api.lane-capacity:10}")
+    private int laneCapacity;
+
+    @Value("${hmc.conflation.enabled:false}")
+    private boolean conflationEnabled;
+
+    @Value("${hmc.message-selector.enabled:false}")
+    private boolean messageSelectorEnabled;
+
+    @Value("${hmc.message-selector.service-code-property:hmctsServiceId}")
+    private String serviceCodeProperty;
+
+    @Value("${sscs.serviceCode}")
+    private String sscsServiceCode;
+
+    @Value("${hmc.deployment-id}")
+    private String hmctsDeploymentId;
+
+    @Value("${flags.deployment-filter.enabled}")
+    private boolean isDeploymentFilterEnabled;
+
     @Bean
     @ConditionalOnExpression("!${flags.bypass-hearing-api-service.enabled} && ${flags.hmc-to-hearings-api.enabled}")
     public ConnectionFactory hmcHearingJmsConnectionFactory(@Value("${spring.application.name}") final String clientId) {
@@ -55,7 +81,7 @@ public class HearingsJmsConfig {
     public JmsListenerContainerFactory<DefaultMessageListenerContainer> hmcHearingsEventTopicContainerFactory(
         ConnectionFactory hmcHearingJmsConnectionFactory,
         DefaultJmsListenerContainerFactoryConfigurer configurer) {
-        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        SelectingJmsListenerContainerFactory factory = new SelectingJmsListenerContainerFactory();
         factory.setConnectionFactory(hmcHearingJmsConnectionFactory);
         factory.setReceiveTimeout(receiveTimeout);
         factory.setSubscriptionDurable(Boolean.TRUE);
@@ -63,6 +89,40 @@ public class HearingsJmsConfig {
         factory.setSessionAcknowledgeMode(Session.SESSION_TRANSACTED);
 
         configurer.configure(factory, hmcHearingJmsConnectionFactory);
+        if (messageSelectorEnabled) {
+            String selector = HmcMessageSelector.build(serviceCodeProperty, sscsServiceCode,
+                isDeploymentFilterEnabled, hmctsDeploymentId);
+            log.info("Filtering HMC hearings topic messages on the broker with selector: {}", selector);
+            factory.setMessageSelector(selector);
+        }
+        if (isLaned()) {
+            // A single consumer receives in the order the broker delivers and the lanes acknowledge each message
+            factory.setSessionTransacted(Boolean.FALSE);
+            factory.setSessionAcknowledgeMode(CaseLaneDispatcher.ACKNOWLEDGE_MODE);
+            factory.setConcurrency("1");
+        }
         return factory;
     }
+
+    @Bean
+    @ConditionalOnExpression("!${flags.bypass-hearing-api-service.enabled} && ${flags.hmc-to-hearings-api.enabled}")
+    public CaseLaneDispatcher hmcHearingsEventLaneDispatcher(MeterRegistry meterRegistry) {
+        if (!isLaned()) {
+            return CaseLaneDispatcher.inline("hmc-hearings-event", meterRegistry);
+        }
+        return new CaseLaneDispatcher("hmc-hearings-event", lanes, laneCapacity, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnExpression("!${flags.bypass-hearing-api-service.enabled} && ${flags.hmc-to-hearings-api.enabled}")
+    public HearingUpdateConflator hmcHearingUpdateConflator(MeterRegistry meterRegistry) {
+        return new HearingUpdateConflator(conflationEnabled, meterRegistry);
+    }
+
+    /**
+     * Conflation needs messages queued on a lane behind each other, so it dispatches to lanes even with only one.
+     */
+    private boolean isLaned() {
+        return lanes > 1 || conflationEnabled;
+    }
 }
@@ -0,0 +1,41 @@
+package uk.gov.hmcts.reform.sscs.config.jms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+public final class HmcMessageSelector {
+
+    public static final String HMCTS_DEPLOYMENT_ID = "hmctsDeploymentId";
+
+    private HmcMessageSelector() {
+    }
+
+    /**
+     * Builds the selector matching the in-process service and deployment filters of the HMC topic listener.
+     *
+     * @return the selector, or null when there is nothing to filter on
+     */
+    public static String build(String serviceCodeProperty, String serviceCode,
+                               boolean deploymentFilterEnabled, String deploymentId) {
+        List<String> clauses = new ArrayList<>();
+
+        if (isNotBlank(serviceCodeProperty) && isNotBlank(serviceCode)) {
+            clauses.add(String.format("%s = '%s'", serviceCodeProperty, escape(serviceCode)));
+        }
+
+        if (deploymentFilterEnabled) {
+            clauses.add(isBlank(deploymentId)
+                ? HMCTS_DEPLOYMENT_ID + " IS NULL"
+                : String.format("%s = '%s'", HMCTS_DEPLOYMENT_ID, escape(deploymentId)));
+        }
+
+        return clauses.isEmpty() ? null : String.join(" AND ", clauses);
+    }
+
+    private static String escape(String value) {
+        return value.replace("'", "''");
+    }
+}
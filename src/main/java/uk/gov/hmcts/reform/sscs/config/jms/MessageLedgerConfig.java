@@ -0,0 +1,41 @@
+package uk.gov.hmcts.reform.sscs.config.jms;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.MessageLedger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * The message ledger is held in a file on the pod, so each replica has its own ledger and, on the default path under
+ * {@code /tmp}, it is lost whenever the pod is replaced. Point {@code message-ledger.path} at a persistent volume for
+ * it to outlive the pod.
+ */
+@Configuration
+public class MessageLedgerConfig {
+
+    @Value("${message-ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${message-ledger.path:/tmp/hearings-api-message-ledger.dat}")
+    private String path;
+
+    @Value("${message-ledger.capacity:65536}")
+    private int capacity;
+
+    @Value("${message-ledger.ttl-hours:24}")
+    private long ttlHours;
+
+    @Bean(destroyMethod = "close")
+    public MessageLedger messageLedger(MeterRegistry meterRegistry) throws IOException {
+        if (!enabled) {
+            return MessageLedger.disabled();
+        }
+        return MessageLedger.open(Path.of(path), capacity, Duration.ofHours(ttlHours), Clock.systemUTC(), meterRegistry);
+    }
+}
@@ -0,0 +1,29 @@
+package uk.gov.hmcts.reform.sscs.config.jms;
+
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+/**
+ * Listener container factory that applies a default JMS message selector to every container it creates, so that
+ * messages not matching the selector stay on the broker. A selector set on the listener endpoint itself wins.
+ */
+public class SelectingJmsListenerContainerFactory extends DefaultJmsListenerContainerFactory {
+
+    private String messageSelector;
+
+    public void setMessageSelector(String messageSelector) {
+        this.messageSelector = messageSelector;
+    }
+
+    public String getMessageSelector() {
+        return messageSelector;
+    }
+
+    @Override
+    protected void initializeContainer(DefaultMessageListenerContainer container) {
+        super.initializeContainer(container);
+        if (container.getMessageSelector() == null && messageSelector != null) {
+            container.setMessageSelector(messageSelector);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package uk.gov.hmcts.reform.sscs.config.jms;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.qpid.jms.JmsConnectionFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,9 +11,15 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
 import org.springframework.jms.config.JmsListenerContainerFactory;
 import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.listener.DefaultMessageListenerContainer;
 import uk.gov.hmcts.reform.sscs.converter.JsonMessageConverter;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.CaseLaneDispatcher;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.HearingUpdateDebouncer;
+import uk.gov.hmcts.reform.sscs.jms.retry.HearingRequestRequeuer;
 
+import java.time.Clock;
+import java.time.Duration;
 import javax.jms.ConnectionFactory;
 import javax.jms.Session;
 
@@ -39,6 +46,27 @@ public class TribunalsHearingsJmsConfig {
     @Value("${azure.service-bus.tribunals-to-hearings-api.idleTimeout}")
     private Long idleTimeout;
 
+    @Value("${azure.service-bus.tribunals-to-hearings-api.lanes:1}")
+    private int lanes;
+
+    @Value("${azure.service-bus.tribunals-to-hearings-api.lane-capacity:10}")
+    private int laneCapacity;
+
+    @Value("${azure.service-bus.tribunals-to-hearings-api.update-debounce.enabled:false}")
+    private boolean updateDebounceEnabled;
+
+    @Value("${azure.service-bus.tribunals-to-hearings-api.queueName}")
+    private String queueName;
+
+    @Value("${retry.hearing-response-update.max-retries}")
+    private int maxRetries;
+
+    @Value("${retry.hearing-response-update.backoff}")
+    private String backoff;
+
+    @Value("${retry.hearing-response-update.requeue.enabled:false}")
+    private boolean requeueEnabled;
+
     @Value("${azure.service-bus.amqp-connection-string-template:amqps://%1s?amqp.idleTimeout=%2d}")
     public String amqpConnectionStringTemplate;
 
@@ -63,6 +91,45 @@ public class TribunalsHearingsJmsConfig {
         factory.setSessionAcknowledgeMode(Session.SESSION_TRANSACTED);
         factory.setMessageConverter(new JsonMessageConverter());
         defaultJmsListenerContainerFactoryConfigurer.configure(factory, tribunalsHearingsJmsConnectionFactory);
+        if (isLaned()) {
+            // A single consumer receives in the order the broker delivers and the lanes acknowledge each message
+            factory.setSessionTransacted(Boolean.FALSE);
+            factory.setSessionAcknowledgeMode(CaseLaneDispatcher.ACKNOWLEDGE_MODE);
+            factory.setConcurrency("1");
+        }
         return factory;
     }
+
+    @Bean
+    public HearingRequestRequeuer hearingRequestRequeuer(ConnectionFactory tribunalsHearingsJmsConnectionFactory,
+                                                         MeterRegistry meterRegistry) {
+        if (!requeueEnabled) {
+            return HearingRequestRequeuer.disabled();
+        }
+        JmsTemplate jmsTemplate = new JmsTemplate(tribunalsHearingsJmsConnectionFactory);
+        jmsTemplate.setMessageConverter(new JsonMessageConverter());
+        jmsTemplate.setSessionTransacted(true);
+        return new HearingRequestRequeuer(jmsTemplate, queueName, maxRetries, Duration.ofMillis(Long.parseLong(backoff.replace("_", ""))),
+            Clock.systemUTC(), meterRegistry);
+    }
+
+    @Bean
+    public CaseLaneDispatcher tribunalsHearingsEventLaneDispatcher(MeterRegistry meterRegistry) {
+        if (!isLaned()) {
+            return CaseLaneDispatcher.inline("tribunals-hearings-event", meterRegistry);
+        }
+        return new CaseLaneDispatcher("tribunals-hearings-event", lanes, laneCapacity, meterRegistry);
+    }
+
+    @Bean
+    public HearingUpdateDebouncer tribunalsHearingUpdateDebouncer(MeterRegistry meterRegistry) {
+        return new HearingUpdateDebouncer(updateDebounceEnabled, meterRegistry);
+    }
+
+    /**
+     * Debouncing needs requests queued on a lane behind each other, so it dispatches to lanes even with only one.
+     */
+    private boolean isLaned() {
+        return lanes > 1 || updateDebounceEnabled;
+    }
 }
@@ -0,0 +1,154 @@
+package uk.gov.hmcts.reform.sscs.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import uk.gov.hmcts.reform.authorisation.validators.AuthTokenValidator;
+import uk.gov.hmcts.reform.sscs.exception.AuthorisationException;
+import uk.gov.hmcts.reform.sscs.exception.InvalidHearingDataException;
+import uk.gov.hmcts.reform.sscs.model.bulk.BulkHearingJobStatus;
+import uk.gov.hmcts.reform.sscs.model.bulk.BulkHearingRequest;
+import uk.gov.hmcts.reform.sscs.model.bulk.BulkHearingResult;
+import uk.gov.hmcts.reform.sscs.service.bulk.BulkHearingJob;
+import uk.gov.hmcts.reform.sscs.service.bulk.BulkHearingsService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static io.swagger.v3.oas.annotations.enums.ParameterIn.HEADER;
+import static java.util.Objects.isNull;
+import static org.springframework.http.ResponseEntity.status;
+
+/**
+ * Bulk hearing jobs can relist thousands of cases, so beyond the service authorisation filter they are only available
+ * to the services in {@code bulk-hearings.authorised-services} and only when {@code feature.bulk-hearings.enabled} is
+ * set.
+ */
+@RestController
+@Slf4j
+@ConditionalOnProperty(name = "feature.bulk-hearings.enabled", havingValue = "true")
+public class BulkHearingsController {
+
+    public static final String JOB_ID_HEADER = "Bulk-Hearing-Job-Id";
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private static final String SERVICE_AUTHORIZATION = "ServiceAuthorization";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType(NDJSON_VALUE);
+
+    private final BulkHearingsService bulkHearingsService;
+
+    private final AuthTokenValidator authTokenValidator;
+
+    private final List<String> authorisedServices;
+
+    private final Duration streamTimeout;
+
+    private final ObjectWriter resultWriter;
+
+    public BulkHearingsController(BulkHearingsService bulkHearingsService, AuthTokenValidator authTokenValidator,
+                                  @Value("${bulk-hearings.authorised-services:sscs}") List<String> authorisedServices,
+                                  @Value("${bulk-hearings.stream-timeout-minutes:60}") long streamTimeoutMinutes,
+                                  ObjectMapper objectMapper) {
+        this.bulkHearingsService = bulkHearingsService;
+        this.authTokenValidator = authTokenValidator;
+        this.authorisedServices = authorisedServices;
+        this.streamTimeout = Duration.ofMinutes(streamTimeoutMinutes);
+        this.resultWriter = objectMapper.writerFor(BulkHearingResult.class);
+    }
+
+    @PostMapping(value = "/bulkHearings", produces = NDJSON_VALUE)
+    @Operation(description = "Send the same hearing request for many cases, streaming each case result as a line of JSON")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bulk hearing job started", content = {
+            @Content(mediaType = NDJSON_VALUE, schema = @Schema(implementation = BulkHearingResult.class)) }),
+        @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content),
+        @ApiResponse(responseCode = "403", description = "Incorrect authorisation", content = @Content),
+    })
+    @Parameter(name = "ServiceAuthorization", description = "Service authorisation token to authorise access, must be prefixed with 'Bearer '", in = HEADER, example = "Bearer eyJhbGciOiJIUzUxMiJ9.eyJzdW", required = true)
+    public ResponseEntity<ResponseBodyEmitter> bulkHearings(
+            @RequestHeader(SERVICE_AUTHORIZATION) String serviceAuthorization,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "CCD Case IDs and the Hearing State (CREATE_HEARING or UPDATE_HEARING) to send for each of them", required = true,
+                    content = @Content(schema = @Schema(implementation = BulkHearingRequest.class, example = "{ \n  \"caseIds\": [\"1234123412341234\"],\n  \"hearingState\": \"updateHearing\"\n}")))
+            @RequestBody BulkHearingRequest request)
+        throws InvalidHearingDataException, AuthorisationException {
+        authorise(serviceAuthorization);
+        BulkHearingJob job = bulkHearingsService.submit(request);
+        log.info("Streaming results of bulk hearing job {}", job.getId());
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeout.toMillis());
+        bulkHearingsService.streamResults(job, result -> send(emitter, result))
+            .whenComplete((ignored, error) -> {
+                if (isNull(error)) {
+                    emitter.complete();
+                } else {
+                    emitter.completeWithError(error);
+                }
+            });
+
+        return status(HttpStatus.OK)
+            .header(JOB_ID_HEADER, job.getId())
+            .contentType(NDJSON)
+            .body(emitter);
+    }
+
+    @GetMapping("/bulkHearings/{jobId}")
+    @Operation(description = "Get the progress, throughput and failures of a bulk hearing job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bulk hearing job status returned", content = {
+            @Content(mediaType = "application/json", schema = @Schema(implementation = BulkHearingJobStatus.class)) }),
+        @ApiResponse(responseCode = "403", description = "Incorrect authorisation", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Bulk hearing job not found", content = @Content),
+    })
+    @Parameter(name = "ServiceAuthorization", description = "Service authorisation token to authorise access, must be prefixed with 'Bearer '", in = HEADER, example = "Bearer eyJhbGciOiJIUzUxMiJ9.eyJzdW", required = true)
+    public ResponseEntity<BulkHearingJobStatus> bulkHearingJobStatus(
+            @RequestHeader(SERVICE_AUTHORIZATION) String serviceAuthorization,
+            @PathVariable String jobId)
+        throws AuthorisationException {
+        authorise(serviceAuthorization);
+        return bulkHearingsService.getJob(jobId)
+            .map(job -> status(HttpStatus.OK).body(job.getStatus()))
+            .orElseGet(() -> status(HttpStatus.NOT_FOUND).build());
+    }
+
+    private void authorise(String serviceAuthorization) throws AuthorisationException {
+        String bearerToken = serviceAuthorization.startsWith(BEARER_PREFIX)
+            ? serviceAuthorization
+            : BEARER_PREFIX + serviceAuthorization;
+        String serviceName = authTokenValidator.getServiceName(bearerToken);
+        if (!authorisedServices.contains(serviceName)) {
+            log.warn("Service {} is not authorised to run bulk hearing jobs", serviceName);
+            throw new AuthorisationException(String.format("Service %s is not authorised to run bulk hearing jobs", serviceName));
+        }
+    }
+
+    private void send(ResponseBodyEmitter emitter, BulkHearingResult result) throws IOException {
+        try {
+            emitter.send(resultWriter.writeValueAsString(result) + "\n", NDJSON);
+        } catch (IllegalStateException e) {
+            throw new IOException("Bulk hearing result stream has already completed", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package uk.gov.hmcts.reform.sscs.converter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import uk.gov.hmcts.reform.sscs.model.hmc.message.HmcMessage;
+
+import java.io.IOException;
+
+/**
+ * Decodes HMC topic messages directly from the message body bytes.
+ *
+ * <p>The service code can be peeked with the streaming parser so messages for other services can be dropped
+ * without binding the rest of the payload.
+ */
+public class HmcMessageReader {
+
+    public static final String SERVICE_CODE_FIELD = "hmctsServiceCode";
+
+    private final JsonFactory jsonFactory;
+
+    private final ObjectReader hmcMessageReader;
+
+    public HmcMessageReader(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.hmcMessageReader = objectMapper.readerFor(HmcMessage.class);
+    }
+
+    public String peekServiceCode(byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (SERVICE_CODE_FIELD.equals(fieldName)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+    public HmcMessage read(byte[] body) throws IOException {
+        return hmcMessageReader.readValue(body);
+    }
+}
@@ -12,4 +12,8 @@ public class AuthorisationException extends Exception  {
     public AuthorisationException(Exception ex) {
         super(ex);
     }
+
+    public AuthorisationException(String message) {
+        super(message);
+    }
 }
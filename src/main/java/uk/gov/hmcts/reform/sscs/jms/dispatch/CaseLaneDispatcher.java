@@ -0,0 +1,269 @@
+package uk.gov.hmcts.reform.sscs.jms.dispatch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.qpid.jms.JmsSession;
+import org.apache.qpid.jms.message.JmsMessageSupport;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+/**
+ * Hands the messages a listener receives to a fixed set of lanes, so that messages for different cases are processed
+ * in parallel while the messages for each case are processed one at a time, in the order they were received.
+ *
+ * <p>An inline dispatcher runs the work on the consumer thread itself, so the transacted JMS session is committed or
+ * rolled back exactly as before. Otherwise the listener container must run a single consumer whose session uses
+ * {@link #ACKNOWLEDGE_MODE}. Each case is mapped to a lane by the hash of its ID and each lane is a single thread, so
+ * the messages for a case keep the order the broker delivered them in. A message is acknowledged only when its lane
+ * has finished with it: it is accepted when the work completes and handed back to the broker as failed when the work
+ * throws, so it is redelivered and in the end dead-lettered as before. Messages for the same case that were already
+ * queued behind a failed message are released unprocessed, so that they are redelivered after it rather than overtaking
+ * it. The number of messages in flight is capped, so the consumer stops receiving while the lanes are full.
+ */
+@Slf4j
+public class CaseLaneDispatcher implements AutoCloseable {
+
+    public static final String LANE_DEPTH_METRIC = "hearings.dispatch.lane.depth";
+    public static final String LANE_WAIT_METRIC = "hearings.dispatch.lane.wait";
+
+    /**
+     * The session acknowledge mode a listener container needs for a dispatcher that is not inline, in which each
+     * message is acknowledged on its own.
+     */
+    public static final int ACKNOWLEDGE_MODE = JmsSession.INDIVIDUAL_ACKNOWLEDGE;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final String name;
+
+    private final Lane[] lanes;
+
+    private final Semaphore capacity;
+
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final Timer waitTimer;
+
+    /**
+     * Creates a dispatcher that processes messages on its own lanes.
+     *
+     * @param laneCapacity the number of messages each lane may have in flight before the consumer stops receiving
+     */
+    public CaseLaneDispatcher(String name, int laneCount, int laneCapacity, MeterRegistry meterRegistry) {
+        this(name, createLanes(name, laneCount, laneCapacity), laneCount * laneCapacity, meterRegistry);
+        log.info("Created case lane dispatcher {} with {} lanes of {} messages", name, laneCount, laneCapacity);
+    }
+
+    private CaseLaneDispatcher(String name, Lane[] lanes, int capacity, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.lanes = lanes;
+        this.capacity = new Semaphore(capacity);
+        this.waitTimer = Timer.builder(LANE_WAIT_METRIC)
+            .tag("dispatcher", name)
+            .register(meterRegistry);
+        Gauge.builder(LANE_DEPTH_METRIC, depth, AtomicInteger::get)
+            .tag("dispatcher", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Creates a dispatcher that processes each message on the consumer thread that received it.
+     */
+    public static CaseLaneDispatcher inline(String name, MeterRegistry meterRegistry) {
+        log.info("Created inline case lane dispatcher {}", name);
+        return new CaseLaneDispatcher(name, new Lane[0], 0, meterRegistry);
+    }
+
+    private static Lane[] createLanes(String name, int laneCount, int laneCapacity) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException(String.format("Dispatcher %s must have at least one lane", name));
+        }
+        if (laneCapacity < 1) {
+            throw new IllegalArgumentException(String.format("Dispatcher %s must let each lane hold a message", name));
+        }
+        return IntStream.range(0, laneCount)
+            .mapToObj(index -> new Lane(Executors.newSingleThreadExecutor(
+                new CustomizableThreadFactory(String.format("%s-lane-%d-", name, index)))))
+            .toArray(Lane[]::new);
+    }
+
+    public boolean isInline() {
+        return lanes.length == 0;
+    }
+
+    /**
+     * Processes a message on its case's lane. An inline dispatcher runs the work straight away and lets any exception
+     * through; otherwise this waits only for room in the lanes, and the lane acknowledges the message once the work has
+     * finished.
+     *
+     * @param ticket the message's registration with a {@link SupersededMessageTracker}, closed when the message leaves
+     *               its lane
+     */
+    public <E extends Exception> void dispatch(String caseId, Message message, SupersededMessageTracker.Ticket ticket,
+                                               Work<E> work) throws E {
+        if (isInline()) {
+            depth.incrementAndGet();
+            try (ticket) {
+                work.run();
+            } finally {
+                depth.decrementAndGet();
+            }
+            return;
+        }
+
+        Lane lane = lanes[Math.floorMod(String.valueOf(caseId).hashCode(), lanes.length)];
+        try {
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ticket.close();
+            log.warn("Interrupted dispatching message for Case ID {} on dispatcher {}, leaving it to be redelivered",
+                caseId, name);
+            return;
+        }
+        depth.incrementAndGet();
+        lane.queued(caseId);
+        long queuedAt = System.nanoTime();
+        try {
+            lane.executor.execute(() -> process(lane, caseId, message, ticket, work, queuedAt));
+        } catch (RejectedExecutionException e) {
+            finished(lane, caseId, false);
+            ticket.close();
+            log.warn("Dispatcher {} is shut down, leaving message for Case ID {} to be redelivered", name, caseId);
+        }
+    }
+
+    /**
+     * Acknowledges a message the listener has finished with without dispatching it.
+     */
+    public void acknowledge(Message message) {
+        if (!isInline()) {
+            settle(message, JmsMessageSupport.ACCEPTED);
+        }
+    }
+
+    /**
+     * Hands a message the listener failed to dispatch back to the broker, to be redelivered.
+     */
+    public void abandon(Message message) {
+        if (!isInline()) {
+            settle(message, JmsMessageSupport.MODIFIED_FAILED);
+        }
+    }
+
+    /**
+     * Stops taking messages and waits for the lanes to finish the messages they already hold. Messages still
+     * unacknowledged when the consumer's session closes are redelivered by the broker.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+        for (Lane lane : lanes) {
+            if (!lane.executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Dispatcher {} shut down with messages still in its lanes", name);
+                lane.executor.shutdownNow();
+            }
+        }
+    }
+
+    int depth() {
+        return depth.get();
+    }
+
+    private void process(Lane lane, String caseId, Message message, SupersededMessageTracker.Ticket ticket,
+                         Work<?> work, long queuedAt) {
+        waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+        boolean failed = false;
+        try (ticket) {
+            if (lane.hasFailed(caseId)) {
+                log.info("Releasing message for Case ID {} queued behind a failed message on dispatcher {}", caseId, name);
+                settle(message, JmsMessageSupport.RELEASED);
+            } else {
+                work.run();
+                settle(message, JmsMessageSupport.ACCEPTED);
+            }
+        } catch (Exception e) {
+            failed = true;
+            log.error("Failed to process message for Case ID {} on dispatcher {}", caseId, name, e);
+            settle(message, JmsMessageSupport.MODIFIED_FAILED);
+        } finally {
+            finished(lane, caseId, failed);
+        }
+    }
+
+    private void finished(Lane lane, String caseId, boolean failed) {
+        lane.finished(caseId, failed);
+        depth.decrementAndGet();
+        capacity.release();
+    }
+
+    private static void settle(Message message, int outcome) {
+        if (message == null) {
+            return;
+        }
+        try {
+            message.setIntProperty(JmsMessageSupport.JMS_AMQP_ACK_TYPE, outcome);
+            message.acknowledge();
+        } catch (JMSException e) {
+            log.error("Unable to settle message with outcome {}, leaving it to be redelivered", outcome, e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Work<E extends Exception> {
+
+        void run() throws E;
+    }
+
+    private static final class Lane {
+
+        private final ExecutorService executor;
+
+        private final Map<String, Integer> queuedByCase = new HashMap<>();
+
+        private final Set<String> failedCases = new HashSet<>();
+
+        private Lane(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        private synchronized void queued(String caseId) {
+            queuedByCase.merge(caseId, 1, Integer::sum);
+        }
+
+        private synchronized boolean hasFailed(String caseId) {
+            return failedCases.contains(caseId);
+        }
+
+        /**
+         * Marks a message as finished. A failure is remembered until every message queued for the case has left the
+         * lane.
+         */
+        private synchronized void finished(String caseId, boolean failed) {
+            if (failed) {
+                failedCases.add(caseId);
+            }
+            if (queuedByCase.merge(caseId, -1, Integer::sum) <= 0) {
+                queuedByCase.remove(caseId);
+                failedCases.remove(caseId);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package uk.gov.hmcts.reform.sscs.jms.dispatch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conflates HMC status updates for the same hearing that are queued behind each other on the hearing's case lane.
+ *
+ * <p>Messages are ordered by their {@code hearingEventBroadcastDateTime}. A message is skipped only when the next
+ * message for the hearing re-reads the hearing from HMC and updates the case, as that message then applies the
+ * latest state of the hearing. As the lane processes a case's messages one at a time, that message is still queued on
+ * the lane and is processed after the one it supersedes. Messages routed without a hearing read never supersede the
+ * messages before them.
+ */
+public class HearingUpdateConflator extends SupersededMessageTracker {
+
+    public static final String CONFLATED_METRIC = "hearings.hmc.conflated";
+
+    public HearingUpdateConflator(boolean enabled, MeterRegistry meterRegistry) {
+        super(enabled, "HMC message for Hearing ID", CONFLATED_METRIC,
+            "HMC messages skipped because a newer message for the same hearing was received", meterRegistry);
+    }
+
+    /**
+     * Registers a received message.
+     *
+     * @param rereadsHearing whether processing the message reads the hearing from HMC and updates the case
+     */
+    public Ticket register(String hearingId, LocalDateTime broadcastDateTime, boolean rereadsHearing) {
+        Long position = broadcastDateTime == null
+            ? null
+            : broadcastDateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + broadcastDateTime.getNano();
+        return register(hearingId, position, true, rereadsHearing);
+    }
+}
@@ -0,0 +1,31 @@
+package uk.gov.hmcts.reform.sscs.jms.dispatch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import uk.gov.hmcts.reform.sscs.ccd.domain.HearingState;
+
+/**
+ * Debounces UPDATE_HEARING requests for the same case that are queued behind each other on the case's lane.
+ *
+ * <p>Requests are ordered by the order the lane dispatcher's single consumer received them in, which is the order
+ * Service Bus delivered them in. An update request is skipped when the next request queued for the case is another
+ * update, as the update payload is always built from the latest case data, so only the update at the tail of the
+ * lane's queue is sent. Any other hearing request acts as a barrier, so creates and cancellations keep their order
+ * relative to the updates around them.
+ */
+public class HearingUpdateDebouncer extends SupersededMessageTracker {
+
+    public static final String DEBOUNCED_METRIC = "hearings.tribunals.debounced";
+
+    public HearingUpdateDebouncer(boolean enabled, MeterRegistry meterRegistry) {
+        super(enabled, "UPDATE_HEARING request for case ID", DEBOUNCED_METRIC,
+            "UPDATE_HEARING requests skipped because a later update for the same case was received", meterRegistry);
+    }
+
+    /**
+     * Registers a received request, in the order the requests are received in.
+     */
+    public Ticket register(String caseId, HearingState hearingState) {
+        boolean update = hearingState == HearingState.UPDATE_HEARING;
+        return register(caseId, update, update);
+    }
+}
@@ -0,0 +1,186 @@
+package uk.gov.hmcts.reform.sscs.jms.dispatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Idempotent-consumer ledger of messages that have already been processed successfully.
+ *
+ * <p>Entries are kept in a fixed size open-addressed table of 64-bit key hashes and expiry times held in a memory
+ * mapped file, so the ledger is bounded and costs no downstream calls to consult. Expired slots are reused and, when
+ * no slot within the probe window is free, the entry closest to expiry is evicted.
+ *
+ * <p>The ledger is local to the instance that holds the file. It only survives a restart when the file is on a volume
+ * that outlives the container; on the default path in the container's filesystem it is ephemeral, and each replica
+ * keeps its own ledger, so a message redelivered to another replica is not recognised as a duplicate.
+ */
+@Slf4j
+public class MessageLedger implements Closeable {
+
+    public static final String DUPLICATE_METRIC = "hearings.ledger.duplicates";
+
+    private static final long MAGIC = 0x5353435348524E47L;
+    private static final int HEADER_BYTES = 16;
+    private static final int SLOT_BYTES = 16;
+    private static final int MAX_PROBES = 32;
+    private static final long EMPTY = 0L;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int capacity;
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    private final MeterRegistry meterRegistry;
+
+    private MessageLedger(FileChannel channel, MappedByteBuffer buffer, int capacity, Duration ttl, Clock clock,
+                          MeterRegistry meterRegistry) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static MessageLedger disabled() {
+        return new MessageLedger(null, null, 0, Duration.ZERO, Clock.systemUTC(), null);
+    }
+
+    public static MessageLedger open(Path path, int capacity, Duration ttl, Clock clock, MeterRegistry meterRegistry)
+        throws IOException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Message ledger capacity must be at least one");
+        }
+        long size = HEADER_BYTES + (long) capacity * SLOT_BYTES;
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        boolean compatible = channel.size() == size;
+        if (!compatible) {
+            channel.truncate(0);
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (!compatible || buffer.getLong(0) != MAGIC || buffer.getInt(8) != capacity) {
+            log.info("Initialising message ledger {} with {} slots", path, capacity);
+            for (int offset = 0; offset < size; offset += Long.BYTES) {
+                buffer.putLong(offset, EMPTY);
+            }
+            buffer.putLong(0, MAGIC);
+            buffer.putInt(8, capacity);
+        }
+        return new MessageLedger(channel, buffer, capacity, ttl, clock, meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return buffer != null;
+    }
+
+    /**
+     * Checks whether the message has already been processed, counting it as a duplicate if so.
+     */
+    public synchronized boolean isDuplicate(String source, String key) {
+        if (!isEnabled() || key == null) {
+            return false;
+        }
+        long hash = hash(source, key);
+        int start = Math.floorMod(hash, capacity);
+        for (int probe = 0; probe < MAX_PROBES && probe < capacity; probe++) {
+            int offset = slotOffset((start + probe) % capacity);
+            long slotHash = buffer.getLong(offset);
+            if (slotHash == EMPTY) {
+                return false;
+            }
+            if (slotHash == hash) {
+                boolean duplicate = buffer.getLong(offset + Long.BYTES) > clock.millis();
+                if (duplicate) {
+                    Counter.builder(DUPLICATE_METRIC)
+                        .tag("source", source)
+                        .register(meterRegistry)
+                        .increment();
+                }
+                return duplicate;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void record(String source, String key) {
+        if (!isEnabled() || key == null) {
+            return;
+        }
+        long hash = hash(source, key);
+        long now = clock.millis();
+        int start = Math.floorMod(hash, capacity);
+        int reusable = -1;
+        int oldest = -1;
+        long oldestExpiry = Long.MAX_VALUE;
+        for (int probe = 0; probe < MAX_PROBES && probe < capacity; probe++) {
+            int offset = slotOffset((start + probe) % capacity);
+            long slotHash = buffer.getLong(offset);
+            long expiry = buffer.getLong(offset + Long.BYTES);
+            if (slotHash == hash) {
+                write(offset, hash, now);
+                return;
+            }
+            if (slotHash == EMPTY) {
+                write(reusable >= 0 ? reusable : offset, hash, now);
+                return;
+            }
+            if (expiry <= now && reusable < 0) {
+                reusable = offset;
+            }
+            if (expiry < oldestExpiry) {
+                oldestExpiry = expiry;
+                oldest = offset;
+            }
+        }
+        write(reusable >= 0 ? reusable : oldest, hash, now);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (isEnabled()) {
+            buffer.force();
+            channel.close();
+        }
+    }
+
+    private void write(int offset, long hash, long now) {
+        buffer.putLong(offset, hash);
+        buffer.putLong(offset + Long.BYTES, now + ttl.toMillis());
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private static long hash(String source, String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(source.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            long hash = ByteBuffer.wrap(digest.digest(key.getBytes(StandardCharsets.UTF_8))).getLong();
+            return hash == EMPTY ? 1L : hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package uk.gov.hmcts.reform.sscs.jms.dispatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Tracks the messages for each key, such as a hearing or a case, that this instance has received and not yet finished
+ * with, so that a message can be skipped when a later message for the same key makes it redundant.
+ *
+ * <p>Messages are registered by the consumer as it receives them, before they are queued on their case's
+ * {@link CaseLaneDispatcher} lane, and are ordered by the order they were received in or by a position taken from the
+ * message itself. A message is superseded when the next registered message for its key is one that covers it. Any
+ * other message in between acts as a barrier. Nothing is held back to wait for later messages: only a message that
+ * already has a covering message queued behind it on its lane is skipped, so the last message in a lane's queue is
+ * always processed, and a message without a position is always processed.
+ */
+@Slf4j
+public class SupersededMessageTracker {
+
+    private static final Comparator<Registration> MESSAGE_ORDER = Comparator
+        .comparingLong((Registration registration) -> registration.position)
+        .thenComparingLong(registration -> registration.sequence);
+
+    private final boolean enabled;
+
+    private final String subject;
+
+    private final Counter supersededCounter;
+
+    private final Map<String, NavigableSet<Registration>> pendingByKey = new HashMap<>();
+
+    private long sequence;
+
+    protected SupersededMessageTracker(boolean enabled, String subject, String metricName, String description,
+                                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.subject = subject;
+        this.supersededCounter = Counter.builder(metricName)
+            .description(description)
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registers a received message.
+     *
+     * @param position the message's place in the order the messages were sent, or null if it is not known
+     * @param supersedable whether the message may be skipped for a later message that covers it
+     * @param covering whether processing the message makes the earlier messages for the key redundant
+     */
+    protected synchronized Ticket register(String key, Long position, boolean supersedable, boolean covering) {
+        if (!enabled || key == null || position == null) {
+            return new Ticket(key, null);
+        }
+        Registration registration = new Registration(position, sequence++, supersedable, covering);
+        pendingByKey.computeIfAbsent(key, id -> new TreeSet<>(MESSAGE_ORDER)).add(registration);
+        return new Ticket(key, registration);
+    }
+
+    /**
+     * Registers a received message in the order the messages are received in.
+     */
+    protected Ticket register(String key, boolean supersedable, boolean covering) {
+        return register(key, 0L, supersedable, covering);
+    }
+
+    private synchronized boolean isSuperseded(String key, Registration registration) {
+        NavigableSet<Registration> pending = pendingByKey.get(key);
+        Registration next = pending == null ? null : pending.higher(registration);
+        return next != null && next.covering;
+    }
+
+    private synchronized void release(String key, Registration registration) {
+        NavigableSet<Registration> pending = pendingByKey.get(key);
+        if (pending != null) {
+            pending.remove(registration);
+            if (pending.isEmpty()) {
+                pendingByKey.remove(key);
+            }
+        }
+    }
+
+    private static final class Registration {
+
+        private final long position;
+
+        private final long sequence;
+
+        private final boolean supersedable;
+
+        private final boolean covering;
+
+        private Registration(long position, long sequence, boolean supersedable, boolean covering) {
+            this.position = position;
+            this.sequence = sequence;
+            this.supersedable = supersedable;
+            this.covering = covering;
+        }
+    }
+
+    public final class Ticket implements AutoCloseable {
+
+        private final String key;
+
+        private final Registration registration;
+
+        private Ticket(String key, Registration registration) {
+            this.key = key;
+            this.registration = registration;
+        }
+
+        /**
+         * Checks whether the next registered message for the key covers this one, counting this message as
+         * superseded if so.
+         */
+        public boolean isSuperseded() {
+            if (registration == null || !registration.supersedable) {
+                return false;
+            }
+            if (SupersededMessageTracker.this.isSuperseded(key, registration)) {
+                log.info("Skipping {} {}, superseded by a later message", subject, key);
+                supersededCounter.increment();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void close() {
+            if (registration != null) {
+                release(key, registration);
+            }
+        }
+    }
+}
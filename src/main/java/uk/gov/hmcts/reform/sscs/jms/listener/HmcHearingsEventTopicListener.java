@@ -1,6 +1,5 @@
 package uk.gov.hmcts.reform.sscs.jms.listener;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.extern.slf4j.Slf4j;
@@ -9,13 +8,20 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.sscs.converter.HmcMessageReader;
 import uk.gov.hmcts.reform.sscs.exception.CaseException;
 import uk.gov.hmcts.reform.sscs.exception.HmcEventProcessingException;
 import uk.gov.hmcts.reform.sscs.exception.MessageProcessingException;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.CaseLaneDispatcher;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.HearingUpdateConflator;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.MessageLedger;
 import uk.gov.hmcts.reform.sscs.model.hmc.message.HmcMessage;
+import uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcStatus;
 import uk.gov.hmcts.reform.sscs.service.hmc.topic.ProcessHmcMessageService;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import javax.jms.JMSException;
 
 @Slf4j
@@ -23,12 +29,18 @@ import javax.jms.JMSException;
 @ConditionalOnExpression("!${flags.bypass-hearing-api-service.enabled} && ${flags.hmc-to-hearings-api.enabled}")
 public class HmcHearingsEventTopicListener {
 
-    private final ObjectMapper objectMapper;
+    private final HmcMessageReader hmcMessageReader;
 
     private final String sscsServiceCode;
 
     private final ProcessHmcMessageService processHmcMessageService;
 
+    private final CaseLaneDispatcher laneDispatcher;
+
+    private final HearingUpdateConflator conflator;
+
+    private final MessageLedger messageLedger;
+
     @Value("${hmc.deployment-id}")
     private String hmctsDeploymentId;
 
@@ -37,12 +49,21 @@ public class HmcHearingsEventTopicListener {
 
     private static final String HMCTS_DEPLOYMENT_ID = "hmctsDeploymentId";
 
+    private static final String LEDGER_SOURCE = "hmc";
+
     public HmcHearingsEventTopicListener(@Value("${sscs.serviceCode}") String sscsServiceCode,
-                                         ProcessHmcMessageService processHmcMessageService) {
+                                         ProcessHmcMessageService processHmcMessageService,
+                                         CaseLaneDispatcher hmcHearingsEventLaneDispatcher,
+                                         HearingUpdateConflator hmcHearingUpdateConflator,
+                                         MessageLedger messageLedger) {
         this.sscsServiceCode = sscsServiceCode;
         this.processHmcMessageService = processHmcMessageService;
-        this.objectMapper = new ObjectMapper();
+        this.laneDispatcher = hmcHearingsEventLaneDispatcher;
+        this.conflator = hmcHearingUpdateConflator;
+        this.messageLedger = messageLedger;
+        ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
+        this.hmcMessageReader = new HmcMessageReader(objectMapper);
     }
 
     @JmsListener(
@@ -51,37 +72,93 @@ public class HmcHearingsEventTopicListener {
         containerFactory = "hmcHearingsEventTopicContainerFactory"
     )
     public void onMessage(JmsBytesMessage message) throws JMSException, HmcEventProcessingException {
+        try {
+            if (!dispatch(message)) {
+                laneDispatcher.acknowledge(message);
+            }
+        } catch (JMSException | HmcEventProcessingException | RuntimeException ex) {
+            laneDispatcher.abandon(message);
+            throw ex;
+        }
+    }
+
+    /**
+     * Hands the message to its case's lane, returning false if the message is not for this service or deployment.
+     */
+    private boolean dispatch(JmsBytesMessage message) throws JMSException, HmcEventProcessingException {
 
         if (isDeploymentFilterEnabled && !isMessageReleventForDeployment(message)) {
-            return;
+            return false;
         }
         byte[] messageBytes = new byte[(int) message.getBodyLength()];
         message.readBytes(messageBytes);
-        String convertedMessage = new String(messageBytes, StandardCharsets.UTF_8);
 
+        HmcMessage hmcMessage;
         try {
-            HmcMessage hmcMessage = objectMapper.readValue(convertedMessage, HmcMessage.class);
+            String serviceCode = hmcMessageReader.peekServiceCode(messageBytes);
+            if (serviceCode != null && !sscsServiceCode.equals(serviceCode)) {
+                return false;
+            }
 
-            if (isMessageRelevantForService(hmcMessage)) {
-                Long caseId = hmcMessage.getCaseId();
-                String hearingId = hmcMessage.getHearingId();
+            hmcMessage = hmcMessageReader.read(messageBytes);
+        } catch (IOException ex) {
+            throw processingFailure(messageBytes, ex);
+        }
 
-                log.info(
-                    "Attempting to process message from HMC hearings topic for event {}, Case ID {}, and Hearing ID {}.",
-                    hmcMessage.getHearingUpdate().getHmcStatus(),
-                    caseId,
-                    hearingId
-                );
+        if (!isMessageRelevantForService(hmcMessage)) {
+            return false;
+        }
+        Long caseId = hmcMessage.getCaseId();
+        String hearingId = hmcMessage.getHearingId();
+
+        log.info(
+            "Attempting to process message from HMC hearings topic for event {}, Case ID {}, and Hearing ID {}.",
+            hmcMessage.getHearingUpdate().getHmcStatus(),
+            caseId,
+            hearingId
+        );
+
+        HmcStatus hmcStatus = hmcMessage.getHearingUpdate().getHmcStatus();
+        HearingUpdateConflator.Ticket ticket = conflator.register(hearingId,
+            hmcMessage.getHearingUpdate().getHearingEventBroadcastDateTime(),
+            processHmcMessageService.rereadsHearing(hmcStatus));
+        laneDispatcher.dispatch(String.valueOf(caseId), message, ticket,
+            () -> process(hmcMessage, ticket, messageBytes));
+        return true;
+    }
 
+    private void process(HmcMessage hmcMessage, HearingUpdateConflator.Ticket ticket, byte[] messageBytes)
+        throws HmcEventProcessingException {
+        String ledgerKey = ledgerKey(hmcMessage);
+        if (messageLedger.isDuplicate(LEDGER_SOURCE, ledgerKey)) {
+            log.info("Skipping duplicate HMC message for Case ID {} and Hearing ID {}",
+                hmcMessage.getCaseId(), hmcMessage.getHearingId());
+        } else if (!ticket.isSuperseded()) {
+            try {
                 processHmcMessageService.processEventMessage(hmcMessage);
+            } catch (CaseException | MessageProcessingException ex) {
+                throw processingFailure(messageBytes, ex);
             }
-        } catch (JsonProcessingException | CaseException | MessageProcessingException ex) {
-            throw new HmcEventProcessingException(String.format(
-                "Unable to successfully deliver HMC message: %s",
-                convertedMessage
-            ), ex);
+            messageLedger.record(LEDGER_SOURCE, ledgerKey);
         }
+    }
+
+    private static HmcEventProcessingException processingFailure(byte[] messageBytes, Exception ex) {
+        return new HmcEventProcessingException(String.format(
+            "Unable to successfully deliver HMC message: %s",
+            new String(messageBytes, StandardCharsets.UTF_8)
+        ), ex);
+    }
 
+    private static String ledgerKey(HmcMessage hmcMessage) {
+        LocalDateTime broadcastDateTime = hmcMessage.getHearingUpdate().getHearingEventBroadcastDateTime();
+        if (broadcastDateTime == null) {
+            return null;
+        }
+        return String.join("|",
+            hmcMessage.getHearingId(),
+            String.valueOf(hmcMessage.getHearingUpdate().getHmcStatus()),
+            broadcastDateTime.toString());
     }
 
     private boolean isMessageRelevantForService(HmcMessage hmcMessage) {
@@ -4,19 +4,28 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.support.JmsHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.retry.ExhaustedRetryException;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.sscs.ccd.domain.HearingState;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
 import uk.gov.hmcts.reform.sscs.ccd.domain.State;
+import uk.gov.hmcts.reform.sscs.exception.CaseException;
 import uk.gov.hmcts.reform.sscs.exception.GetCaseException;
 import uk.gov.hmcts.reform.sscs.exception.ListingException;
 import uk.gov.hmcts.reform.sscs.exception.TribunalsEventProcessingException;
 import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.CaseLaneDispatcher;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.HearingUpdateDebouncer;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.MessageLedger;
+import uk.gov.hmcts.reform.sscs.jms.retry.HearingRequestRequeuer;
 import uk.gov.hmcts.reform.sscs.model.hearings.HearingRequest;
 import uk.gov.hmcts.reform.sscs.service.CcdCaseService;
 import uk.gov.hmcts.reform.sscs.service.HearingsService;
 
+import javax.jms.Message;
+
 import static java.util.Objects.isNull;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.LISTING_ERROR;
 
@@ -30,11 +39,36 @@ public class TribunalsHearingsEventQueueListener {
 
     private final CcdCaseService ccdCaseService;
 
+    private final CaseLaneDispatcher tribunalsHearingsEventLaneDispatcher;
+
+    private final MessageLedger messageLedger;
+
+    private final HearingRequestRequeuer hearingRequestRequeuer;
+
+    private final HearingUpdateDebouncer tribunalsHearingUpdateDebouncer;
+
+    private static final String LEDGER_SOURCE = "tribunals";
+
     @JmsListener(
         destination = "${azure.service-bus.tribunals-to-hearings-api.queueName}",
         containerFactory = "tribunalsHearingsEventQueueContainerFactory"
     )
-    public void handleIncomingMessage(HearingRequest message) throws TribunalsEventProcessingException, GetCaseException, UpdateCaseException {
+    public void handleIncomingMessage(HearingRequest message,
+                                      @Header(name = JmsHeaders.MESSAGE_ID, required = false) String messageId,
+                                      @Header(name = HearingRequestRequeuer.ATTEMPT_PROPERTY, required = false) Integer attempt,
+                                      @Header(name = HearingRequestRequeuer.REQUEST_ID_PROPERTY, required = false) String requestId,
+                                      Message jmsMessage)
+        throws TribunalsEventProcessingException {
+        try {
+            dispatch(message, messageId, attempt, requestId, jmsMessage);
+        } catch (TribunalsEventProcessingException | RuntimeException e) {
+            tribunalsHearingsEventLaneDispatcher.abandon(jmsMessage);
+            throw e;
+        }
+    }
+
+    private void dispatch(HearingRequest message, String messageId, Integer attempt, String requestId, Message jmsMessage)
+        throws TribunalsEventProcessingException {
         if (isNull(message)) {
             throw new TribunalsEventProcessingException("An exception occurred as message did not match format");
         }
@@ -43,9 +77,41 @@ public class TribunalsHearingsEventQueueListener {
 
         log.info("Attempting to process hearing event {} from hearings event queue for case ID {}",
                  event, caseId);
+        HearingUpdateDebouncer.Ticket ticket = tribunalsHearingUpdateDebouncer.register(caseId, event);
+        tribunalsHearingsEventLaneDispatcher.dispatch(caseId, jmsMessage, ticket, () -> {
+            if (messageLedger.isDuplicate(LEDGER_SOURCE, messageId)) {
+                log.info("Skipping duplicate hearing event {} with message ID {} for case ID {}", event, messageId, caseId);
+                return;
+            }
+            if (ticket.isSuperseded()) {
+                return;
+            }
+            try {
+                processHearingRequest(message, isNull(requestId) ? messageId : requestId, isNull(attempt) ? 1 : attempt);
+            } catch (CaseException e) {
+                throw new TribunalsEventProcessingException("An exception occurred whilst recording a listing error", e);
+            }
+            messageLedger.record(LEDGER_SOURCE, messageId);
+        });
+    }
+
+    private void processHearingRequest(HearingRequest message, String requestId, int attempt)
+        throws GetCaseException, UpdateCaseException, TribunalsEventProcessingException {
+        String caseId = message.getCcdCaseId();
+        HearingState event = message.getHearingState();
         try {
-            hearingsService.processHearingRequest(message);
+            if (hearingRequestRequeuer.isEnabled()) {
+                hearingsService.processHearingRequestOnce(message, requestId);
+            } else {
+                hearingsService.processHearingRequest(message, requestId);
+            }
             log.info("Hearing event {} for case ID {} successfully processed", event, caseId);
+        } catch (UpdateCaseException e) {
+            if (hearingRequestRequeuer.canRequeue(attempt)) {
+                hearingRequestRequeuer.requeue(message, attempt, requestId);
+            } else {
+                handleException(e, caseId);
+            }
         } catch (ExhaustedRetryException e) {
             handleException(e.getCause(), caseId);
         } catch (Exception e) {
@@ -0,0 +1,88 @@
+package uk.gov.hmcts.reform.sscs.jms.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.qpid.jms.message.JmsMessage;
+import org.apache.qpid.jms.provider.amqp.message.AmqpJmsMessageFacade;
+import org.apache.qpid.proton.amqp.Symbol;
+import org.springframework.jms.core.JmsTemplate;
+import uk.gov.hmcts.reform.sscs.model.hearings.HearingRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Re-queues a failed hearing request as a scheduled message so the listener thread is free to process other cases
+ * while the request backs off, instead of sleeping through the backoff while holding its session and message lock.
+ *
+ * <p>The attempt number travels in the {@value #ATTEMPT_PROPERTY} message property and the ID of the message that
+ * first carried the request in the {@value #REQUEST_ID_PROPERTY} message property.
+ */
+@Slf4j
+public class HearingRequestRequeuer {
+
+    public static final String ATTEMPT_PROPERTY = "hearingRequestAttempt";
+    public static final String REQUEST_ID_PROPERTY = "hearingRequestId";
+    public static final String REQUEUED_METRIC = "hearings.tribunals.requeued";
+
+    static final Symbol SCHEDULED_ENQUEUE_TIME = Symbol.valueOf("x-opt-scheduled-enqueue-time");
+
+    private final JmsTemplate jmsTemplate;
+
+    private final String queueName;
+
+    private final int maxAttempts;
+
+    private final Duration backoff;
+
+    private final Clock clock;
+
+    private final Counter requeuedCounter;
+
+    public HearingRequestRequeuer(JmsTemplate jmsTemplate, String queueName, int maxAttempts, Duration backoff,
+                                  Clock clock, MeterRegistry meterRegistry) {
+        this.jmsTemplate = jmsTemplate;
+        this.queueName = queueName;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.clock = clock;
+        this.requeuedCounter = meterRegistry == null ? null : Counter.builder(REQUEUED_METRIC)
+            .description("Hearing requests re-queued with a delay after a failed attempt")
+            .register(meterRegistry);
+    }
+
+    public static HearingRequestRequeuer disabled() {
+        return new HearingRequestRequeuer(null, null, 0, Duration.ZERO, Clock.systemUTC(), null);
+    }
+
+    public boolean isEnabled() {
+        return jmsTemplate != null;
+    }
+
+    public boolean canRequeue(int attempt) {
+        return isEnabled() && attempt < maxAttempts;
+    }
+
+    public void requeue(HearingRequest hearingRequest, int attempt, String requestId) {
+        int nextAttempt = attempt + 1;
+        Date scheduledEnqueueTime = Date.from(clock.instant().plus(backoff));
+        log.info("Re-queuing hearing event {} for case ID {} as attempt {} of {}, scheduled for {}",
+            hearingRequest.getHearingState(), hearingRequest.getCcdCaseId(), nextAttempt, maxAttempts,
+            scheduledEnqueueTime);
+
+        jmsTemplate.convertAndSend(queueName, hearingRequest, message -> {
+            message.setIntProperty(ATTEMPT_PROPERTY, nextAttempt);
+            if (requestId != null) {
+                message.setStringProperty(REQUEST_ID_PROPERTY, requestId);
+            }
+            if (message instanceof JmsMessage jmsMessage
+                && jmsMessage.getFacade() instanceof AmqpJmsMessageFacade facade) {
+                facade.setMessageAnnotation(SCHEDULED_ENQUEUE_TIME, scheduledEnqueueTime);
+            }
+            return message;
+        });
+        requeuedCounter.increment();
+    }
+}
@@ -0,0 +1,23 @@
+package uk.gov.hmcts.reform.sscs.model;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The case data fields a read only path needs, used as the {@code _source} includes of a CCD Elasticsearch search
+ * so that only those fields are returned and deserialised. The full projection has no includes and returns
+ * the whole case. Case metadata such as the reference is always returned.
+ */
+@Getter
+public enum CaseProjection {
+    FULL,
+    LINKED_CASE_REFERENCES("data.linkedCase"),
+    CASE_NAME("data.caseNamePublic");
+
+    private final List<String> sourceIncludes;
+
+    CaseProjection(String... sourceIncludes) {
+        this.sourceIncludes = List.of(sourceIncludes);
+    }
+}
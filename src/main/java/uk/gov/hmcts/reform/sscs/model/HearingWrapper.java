@@ -22,4 +22,5 @@ public class HearingWrapper {
     private String eventToken;
     private HearingState hearingState;
     private List<CancellationReason> cancellationReasons;
+    private String requestId;
 }
@@ -0,0 +1,37 @@
+package uk.gov.hmcts.reform.sscs.model.bulk;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uk.gov.hmcts.reform.sscs.ccd.domain.HearingState;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkHearingJobStatus {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED
+    }
+
+    private String jobId;
+    private HearingState hearingState;
+    private State state;
+    private int total;
+    private int completed;
+    private int succeeded;
+    private int failed;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private double casesPerSecond;
+    private List<BulkHearingResult> failures;
+}
@@ -0,0 +1,20 @@
+package uk.gov.hmcts.reform.sscs.model.bulk;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uk.gov.hmcts.reform.sscs.ccd.domain.HearingState;
+
+import java.util.List;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkHearingRequest {
+    private List<String> caseIds;
+    private HearingState hearingState;
+}
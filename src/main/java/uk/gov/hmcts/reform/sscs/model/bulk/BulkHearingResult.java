@@ -0,0 +1,25 @@
+package uk.gov.hmcts.reform.sscs.model.bulk;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkHearingResult {
+
+    public enum Outcome {
+        SUCCEEDED,
+        FAILED
+    }
+
+    private String caseId;
+    private Outcome outcome;
+    private String error;
+    private long durationMs;
+}
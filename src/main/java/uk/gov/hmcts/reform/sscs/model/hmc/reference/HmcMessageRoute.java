@@ -0,0 +1,18 @@
+package uk.gov.hmcts.reform.sscs.model.hmc.reference;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The remote calls needed to apply an HMC message to the case.
+ */
+@RequiredArgsConstructor
+@Getter
+public enum HmcMessageRoute {
+    NONE(false, false),
+    MESSAGE_ONLY(false, true),
+    HEARING_REQUEST(true, true);
+
+    private final boolean hearingRequestRequired;
+    private final boolean caseUpdateRequired;
+}
@@ -10,37 +10,56 @@ import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingGetResponse;
 
 import java.util.function.BiFunction;
 
+import static java.util.Objects.nonNull;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.HANDLING_ERROR;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.HEARING_BOOKED;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.UPDATE_CASE_ONLY;
+import static uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcMessageRoute.HEARING_REQUEST;
+import static uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcMessageRoute.MESSAGE_ONLY;
+import static uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcMessageRoute.NONE;
 
 @RequiredArgsConstructor
 @Getter
 public enum HmcStatus {
-    HEARING_REQUESTED("Hearing requested", null, HearingStatus.AWAITING_LISTING, "", ""),
-    AWAITING_LISTING("Awaiting listing", (response, caseData) -> UPDATE_CASE_ONLY, HearingStatus.AWAITING_LISTING, "Awaiting Listing ",
-        "Hearing is waiting to be listed"),
-    LISTED("Listed", (response, caseData) -> HEARING_BOOKED, HearingStatus.LISTED, "Hearing Listed",
-        "New hearing %s has been listed and added to case"),
-    UPDATE_REQUESTED("Update requested", null, null, "", ""),
-    UPDATE_SUBMITTED("Update submitted", (response, caseData) -> HEARING_BOOKED, null, "Hearing Updated",
-        "The hearing with id %s has been updated and has been updated on the case"),
-    EXCEPTION("Exception", (response, caseData) -> HANDLING_ERROR, HearingStatus.EXCEPTION, "Hearing Exception",
-        "An error has occurred when trying to process the hearing with id %s"),
-    CANCELLATION_REQUESTED("Cancellation requested", null, null, "", ""),
-    CANCELLATION_SUBMITTED("Cancellation submitted", null, null, "", ""),
-    CANCELLED("Cancelled", HearingsEventMappers::cancelledHandler, HearingStatus.CANCELLED,
+    HEARING_REQUESTED("Hearing requested", null, null, HearingStatus.AWAITING_LISTING, "", "", NONE),
+    AWAITING_LISTING("Awaiting listing", UPDATE_CASE_ONLY, null, HearingStatus.AWAITING_LISTING, "Awaiting Listing ",
+        "Hearing is waiting to be listed", HEARING_REQUEST),
+    LISTED("Listed", HEARING_BOOKED, null, HearingStatus.LISTED, "Hearing Listed",
+        "New hearing %s has been listed and added to case", HEARING_REQUEST),
+    UPDATE_REQUESTED("Update requested", null, null, null, "", "", NONE),
+    UPDATE_SUBMITTED("Update submitted", HEARING_BOOKED, null, null, "Hearing Updated",
+        "The hearing with id %s has been updated and has been updated on the case", HEARING_REQUEST),
+    EXCEPTION("Exception", HANDLING_ERROR, null, HearingStatus.EXCEPTION, "Hearing Exception",
+        "An error has occurred when trying to process the hearing with id %s", MESSAGE_ONLY),
+    CANCELLATION_REQUESTED("Cancellation requested", null, null, null, "", "", NONE),
+    CANCELLATION_SUBMITTED("Cancellation submitted", null, null, null, "", "", NONE),
+    CANCELLED("Cancelled", null, HearingsEventMappers::cancelledHandler, HearingStatus.CANCELLED,
         "Hearing Cancelled.",
-        "The hearing with id %s has been successfully cancelled"),
-    AWAITING_ACTUALS("Awaiting Actuals", null, HearingStatus.AWAITING_ACTUALS, "", ""),
-    COMPLETED("Completed", null, HearingStatus.COMPLETED, "", ""),
-    ADJOURNED("Adjourned", null, HearingStatus.ADJOURNED, "", ""),
-    NOT_FOUND("Not Found", null, null, "", "");
+        "The hearing with id %s has been successfully cancelled", HEARING_REQUEST),
+    AWAITING_ACTUALS("Awaiting Actuals", null, null, HearingStatus.AWAITING_ACTUALS, "", "", NONE),
+    COMPLETED("Completed", null, null, HearingStatus.COMPLETED, "", "", NONE),
+    ADJOURNED("Adjourned", null, null, HearingStatus.ADJOURNED, "", "", NONE),
+    NOT_FOUND("Not Found", null, null, null, "", "", NONE);
 
     private final String label;
-    private final BiFunction<HearingGetResponse, SscsCaseData, EventType> eventMapper;
+    /**
+     * The CCD event for the status, when it is known from the status alone.
+     */
+    private final EventType event;
+    /**
+     * Resolves the CCD event for a status whose event depends on the hearing and the case data.
+     */
+    private final BiFunction<HearingGetResponse, SscsCaseData, EventType> caseDataEventMapper;
     private final HearingStatus hearingStatus;
     private final String ccdUpdateSummary;
     private final String ccdUpdateDescription;
+    private final HmcMessageRoute route;
+
+    /**
+     * Resolves the CCD event for the status, or is null when the status does not update the case.
+     */
+    public BiFunction<HearingGetResponse, SscsCaseData, EventType> getEventMapper() {
+        return nonNull(event) ? (response, caseData) -> event : caseDataEventMapper;
+    }
 
 }
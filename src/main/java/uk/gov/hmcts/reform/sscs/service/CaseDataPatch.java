@@ -0,0 +1,139 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+/**
+ * The fields of case data that were changed, so the change can be applied to a later version of the case without
+ * writing back anything else that was read.
+ *
+ * <p>Changes are held against the JSON of the case data: a changed value is held as the new value of its field, and
+ * a list that keeps its length is compared item by item. A change whose containing object or list item no longer exists
+ * in the case it is applied to is skipped.
+ */
+@Slf4j
+final class CaseDataPatch {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_AS_NULL);
+
+    private final Map<JsonPointer, JsonNode> changes;
+
+    private CaseDataPatch(Map<JsonPointer, JsonNode> changes) {
+        this.changes = Collections.unmodifiableMap(changes);
+    }
+
+    /**
+     * Takes the JSON of the case data before it is changed, to compare the changed case data with.
+     */
+    static JsonNode snapshot(SscsCaseData caseData) {
+        return OBJECT_MAPPER.valueToTree(caseData);
+    }
+
+    static CaseDataPatch between(JsonNode original, SscsCaseData updated) {
+        Map<JsonPointer, JsonNode> changes = new LinkedHashMap<>();
+        diff("", original, snapshot(updated), changes);
+        return new CaseDataPatch(changes);
+    }
+
+    boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Combines this patch with one made after it, whose changes win where both change the same field.
+     */
+    CaseDataPatch then(CaseDataPatch later) {
+        Map<JsonPointer, JsonNode> combined = new LinkedHashMap<>(changes);
+        later.changes.forEach((pointer, value) -> {
+            combined.remove(pointer);
+            combined.put(pointer, value);
+        });
+        return new CaseDataPatch(combined);
+    }
+
+    /**
+     * Returns a copy of the case data with the changes applied.
+     */
+    SscsCaseData applyTo(SscsCaseData caseData) {
+        JsonNode root = snapshot(caseData);
+        changes.forEach((pointer, value) -> apply(root, pointer, value, caseData.getCcdCaseId()));
+        try {
+            return OBJECT_MAPPER.treeToValue(root, SscsCaseData.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to apply changes to Case ID " + caseData.getCcdCaseId(), e);
+        }
+    }
+
+    private static void diff(String path, JsonNode original, JsonNode updated, Map<JsonPointer, JsonNode> changes) {
+        if (isMissing(original) && isMissing(updated)) {
+            return;
+        }
+        if (original instanceof ObjectNode && updated instanceof ObjectNode) {
+            Iterator<String> fieldNames = updated.fieldNames();
+            while (fieldNames.hasNext()) {
+                String fieldName = fieldNames.next();
+                diff(child(path, fieldName), original.get(fieldName), updated.get(fieldName), changes);
+            }
+            Iterator<String> originalFieldNames = original.fieldNames();
+            while (originalFieldNames.hasNext()) {
+                String fieldName = originalFieldNames.next();
+                if (!updated.has(fieldName)) {
+                    diff(child(path, fieldName), original.get(fieldName), null, changes);
+                }
+            }
+        } else if (original instanceof ArrayNode && updated instanceof ArrayNode && original.size() == updated.size()) {
+            for (int index = 0; index < updated.size(); index++) {
+                diff(path + "/" + index, original.get(index), updated.get(index), changes);
+            }
+        } else if (isMissing(updated)) {
+            changes.put(JsonPointer.compile(path), null);
+        } else if (!updated.equals(original)) {
+            changes.put(JsonPointer.compile(path), updated.deepCopy());
+        }
+    }
+
+    private static void apply(JsonNode root, JsonPointer pointer, JsonNode value, String caseId) {
+        JsonNode parent = root.at(pointer.head());
+        JsonPointer field = pointer.last();
+        if (parent instanceof ObjectNode object) {
+            if (isNull(value)) {
+                object.remove(field.getMatchingProperty());
+            } else {
+                object.set(field.getMatchingProperty(), value.deepCopy());
+            }
+        } else if (parent instanceof ArrayNode array && field.getMatchingIndex() >= 0
+            && field.getMatchingIndex() < array.size()) {
+            array.set(field.getMatchingIndex(), isNull(value) ? NullNode.getInstance() : value.deepCopy());
+        } else {
+            log.warn("Skipping change to {} for Case ID {} as it is no longer in the case", pointer, caseId);
+        }
+    }
+
+    private static boolean isMissing(JsonNode node) {
+        return isNull(node) || node.isNull() || node.isMissingNode();
+    }
+
+    private static String child(String path, String fieldName) {
+        return path + "/" + fieldName.replace("~", "~0").replace("/", "~1");
+    }
+}
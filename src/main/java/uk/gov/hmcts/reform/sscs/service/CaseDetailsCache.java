@@ -0,0 +1,256 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Short lived cache of case details read from, or written to, CCD by this instance.
+ *
+ * <p>Case details are held serialised so every hit returns an independent copy the caller is free to modify, and so
+ * the cache can be bounded by the estimated bytes it holds as well as by entry count. Every write this instance makes to
+ * a case invalidates it and bumps a write generation, and a case read is only cached if no write has started since
+ * the read began, so a read that raced with one of our own writes can never overwrite the newer case.
+ *
+ * <p>Writes made by other instances and services do not invalidate the cache, so a cached case can be up to the time
+ * to live behind CCD. CCD only returns a case's version with the case itself, so a hit cannot be checked against the
+ * current version without the read the cache saves. Cached cases are therefore only served to callers that do not
+ * write back what they read; callers that update the case read it through a started event instead.
+ */
+@Slf4j
+@Component
+public class CaseDetailsCache {
+
+    public static final String CACHE_NAME = "ccd-case";
+    public static final String BYTES_METRIC = "hearings.ccd.case.cache.bytes";
+
+    private final boolean enabled;
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    private final CaseDetailsCopier copier = new CaseDetailsCopier();
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong writeGeneration = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder puts = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private long totalBytes;
+
+    @Autowired
+    public CaseDetailsCache(@Value("${feature.ccd-case-cache.enabled:false}") boolean enabled,
+                            @Value("${feature.ccd-case-cache.max-entries:500}") int maxEntries,
+                            @Value("${feature.ccd-case-cache.max-bytes:52428800}") long maxBytes,
+                            @Value("${feature.ccd-case-cache.ttl-seconds:30}") long ttlSeconds,
+                            MeterRegistry meterRegistry) {
+        this(enabled, maxEntries, maxBytes, Duration.ofSeconds(ttlSeconds), Clock.systemUTC(), meterRegistry);
+    }
+
+    CaseDetailsCache(boolean enabled, int maxEntries, long maxBytes, Duration ttl, Clock clock,
+                     MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+        this.clock = clock;
+        if (enabled) {
+            new Metrics(this).bindTo(meterRegistry);
+        }
+    }
+
+    /**
+     * Gets the generation to pass to {@link #put} for a case read that is about to start.
+     */
+    public long currentGeneration() {
+        return writeGeneration.get();
+    }
+
+    public Optional<SscsCaseDetails> get(long caseId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(caseId);
+            if (entry != null && entry.isExpired(clock.instant())) {
+                remove(caseId);
+                entry = null;
+            }
+        }
+        if (isNull(entry)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        try {
+            SscsCaseDetails caseDetails = copier.restore(entry.data);
+            hits.increment();
+            return Optional.of(caseDetails);
+        } catch (IOException e) {
+            log.warn("Unable to read cached case details for Case ID {}", caseId, e);
+            synchronized (entries) {
+                remove(caseId);
+            }
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Caches the case details unless this instance has started a write since the given generation was taken.
+     */
+    public void put(long caseId, long generation, SscsCaseDetails caseDetails) {
+        if (!enabled || isNull(caseDetails) || isNull(caseDetails.getData())) {
+            return;
+        }
+        byte[] data;
+        try {
+            data = copier.serialise(caseDetails);
+        } catch (IOException e) {
+            log.warn("Unable to cache case details for Case ID {}", caseId, e);
+            return;
+        }
+        if (data.length > maxBytes) {
+            return;
+        }
+        Entry entry = new Entry(data, clock.instant().plus(ttl));
+        synchronized (entries) {
+            if (writeGeneration.get() != generation) {
+                return;
+            }
+            remove(caseId);
+            entries.put(caseId, entry);
+            totalBytes += data.length;
+            puts.increment();
+            evictEldest();
+        }
+    }
+
+    /**
+     * Drops the case before this instance writes to it, returning the generation to cache the written case with.
+     */
+    public long invalidate(long caseId) {
+        if (!enabled) {
+            return writeGeneration.get();
+        }
+        synchronized (entries) {
+            remove(caseId);
+            return writeGeneration.incrementAndGet();
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().data.length;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(long caseId) {
+        Entry removed = entries.remove(caseId);
+        if (removed != null) {
+            totalBytes -= removed.data.length;
+        }
+    }
+
+    private long size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private long bytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] data;
+        private final Instant expiry;
+
+        private Entry(byte[] data, Instant expiry) {
+            this.data = data;
+            this.expiry = expiry;
+        }
+
+        private boolean isExpired(Instant now) {
+            return !now.isBefore(expiry);
+        }
+    }
+
+    private static final class Metrics extends CacheMeterBinder<CaseDetailsCache> {
+
+        private final CaseDetailsCache cache;
+
+        private Metrics(CaseDetailsCache cache) {
+            super(cache, CACHE_NAME, Tags.empty());
+            this.cache = cache;
+        }
+
+        @Override
+        protected Long size() {
+            return cache.size();
+        }
+
+        @Override
+        protected long hitCount() {
+            return cache.hits.sum();
+        }
+
+        @Override
+        protected Long missCount() {
+            return cache.misses.sum();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            return cache.evictions.sum();
+        }
+
+        @Override
+        protected long putCount() {
+            return cache.puts.sum();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+            Gauge.builder(BYTES_METRIC, cache, CaseDetailsCache::bytes)
+                .description("Estimated bytes of case data held in the cache")
+                .register(registry);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Copies case details through their serialised form, for callers that must not share case data they may go on to
+ * modify.
+ *
+ * <p>The whole of the case details is serialised, not just the case data, and is read back through its builder so
+ * that every field it was built with, such as the jurisdiction, the created and last modified dates and the security
+ * classification, is kept.
+ */
+class CaseDetailsCopier {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .addMixIn(SscsCaseDetails.class, CaseDetailsMixIn.class)
+        .addMixIn(SscsCaseDetails.SscsCaseDetailsBuilder.class, CaseDetailsBuilderMixIn.class)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_AS_NULL);
+
+    private final ObjectReader caseDetailsReader = objectMapper.readerFor(SscsCaseDetails.class);
+
+    byte[] serialise(SscsCaseDetails caseDetails) throws IOException {
+        return objectMapper.writeValueAsBytes(caseDetails);
+    }
+
+    SscsCaseDetails restore(byte[] caseDetails) throws IOException {
+        return caseDetailsReader.readValue(caseDetails);
+    }
+
+    SscsCaseDetails copy(SscsCaseDetails caseDetails) {
+        if (caseDetails == null) {
+            return null;
+        }
+        try {
+            return restore(serialise(caseDetails));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to copy case details for Case ID " + caseDetails.getId(), e);
+        }
+    }
+
+    @JsonDeserialize(builder = SscsCaseDetails.SscsCaseDetailsBuilder.class)
+    private abstract static class CaseDetailsMixIn {
+    }
+
+    @JsonPOJOBuilder(withPrefix = "")
+    private abstract static class CaseDetailsBuilderMixIn {
+    }
+}
@@ -0,0 +1,92 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serialises the read-modify-write of a case across the HMC listener, the tribunals listener and the service
+ * hearing values endpoint, so this instance does not make its own CCD event tokens stale.
+ *
+ * <p>Cases are spread over a fixed number of striped locks. An uncontended case is locked with a single
+ * compare-and-set, and only callers that have to wait are timed and counted.
+ */
+@Slf4j
+@Service
+public class CaseLockService {
+
+    public static final String WAIT_METRIC = "hearings.case.lock.wait";
+    public static final String CONTENDED_METRIC = "hearings.case.lock.contended";
+
+    private static final CaseLock UNLOCKED = new CaseLock(null);
+
+    private final boolean enabled;
+
+    private final List<ReentrantLock> stripes;
+
+    private final MeterRegistry meterRegistry;
+
+    public CaseLockService(@Value("${feature.case-lock.enabled:false}") boolean enabled,
+                           @Value("${feature.case-lock.stripes:256}") int stripeCount,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+        this.stripes = new ArrayList<>(stripeCount);
+        for (int index = 0; index < Math.max(1, stripeCount); index++) {
+            stripes.add(new ReentrantLock());
+        }
+    }
+
+    /**
+     * Locks the case for the caller, waiting for any other path currently updating it. The returned handle
+     * releases the lock when closed.
+     */
+    public CaseLock lock(String caseId, String path) {
+        if (!enabled || caseId == null) {
+            return UNLOCKED;
+        }
+        ReentrantLock stripe = stripes.get(stripeIndex(caseId));
+        if (!stripe.tryLock()) {
+            Counter.builder(CONTENDED_METRIC)
+                .tag("path", path)
+                .register(meterRegistry)
+                .increment();
+            log.debug("Waiting for the lock on Case ID {} on the {} path", caseId, path);
+            long start = System.nanoTime();
+            stripe.lock();
+            Timer.builder(WAIT_METRIC)
+                .tag("path", path)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return new CaseLock(stripe);
+    }
+
+    int stripeIndex(String caseId) {
+        return Math.floorMod(caseId.hashCode(), stripes.size());
+    }
+
+    public static final class CaseLock implements AutoCloseable {
+
+        private final ReentrantLock stripe;
+
+        private CaseLock(ReentrantLock stripe) {
+            this.stripe = stripe;
+        }
+
+        @Override
+        public void close() {
+            if (stripe != null) {
+                stripe.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Collapses concurrent CCD reads of the same key into one request.
+ *
+ * <p>The first caller for a key makes the read and any caller arriving while it is in flight waits for its result
+ * instead of making its own. Callers go on to modify the case data they are given, so the first caller keeps the
+ * case details it read and every waiting caller gets its own copy of a snapshot taken before the result is shared.
+ */
+@Slf4j
+@Component
+@SuppressWarnings("PMD.AvoidCatchingThrowable")
+public class CaseReadCollapser {
+
+    public static final String COLLAPSED_METRIC = "hearings.ccd.read.collapsed";
+
+    @FunctionalInterface
+    public interface Read<V, E extends Exception> {
+        V read() throws E;
+    }
+
+    private final boolean enabled;
+
+    private final MeterRegistry meterRegistry;
+
+    private final CaseDetailsCopier copier = new CaseDetailsCopier();
+
+    private final ConcurrentMap<List<Object>, Flight> flights = new ConcurrentHashMap<>();
+
+    public CaseReadCollapser(@Value("${feature.ccd-read-collapsing.enabled:false}") boolean enabled,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <E extends Exception> SscsCaseDetails readCase(long caseId, Read<SscsCaseDetails, E> read) throws E {
+        return collapse("case", caseId, read, copier::copy);
+    }
+
+    public <E extends Exception> List<SscsCaseDetails> search(String query, Read<List<SscsCaseDetails>, E> read) throws E {
+        return collapse("search", query, read, cases -> cases.stream()
+            .map(copier::copy)
+            .collect(Collectors.toList()));
+    }
+
+    private <V, E extends Exception> V collapse(String operation, Object key, Read<V, E> read, UnaryOperator<V> copy)
+        throws E {
+        if (!enabled) {
+            return read.read();
+        }
+        List<Object> flightKey = List.of(operation, key);
+        Flight ownFlight = new Flight();
+        Flight flight = flights.compute(flightKey, (ignored, existing) -> {
+            if (existing == null) {
+                return ownFlight;
+            }
+            existing.joiners++;
+            return existing;
+        });
+
+        if (flight != ownFlight) {
+            Counter.builder(COLLAPSED_METRIC)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+            log.debug("Waiting for the in flight CCD {} read of {}", operation, key);
+            return copy.apply(this.<V, E>await(flight));
+        }
+
+        V value;
+        try {
+            value = read.read();
+        } catch (Throwable e) {
+            flights.remove(flightKey, ownFlight);
+            ownFlight.result.completeExceptionally(e);
+            throw e;
+        }
+        flights.remove(flightKey, ownFlight);
+        ownFlight.result.complete(ownFlight.joiners > 0 && value != null ? copy.apply(value) : value);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V, E extends Exception> V await(Flight flight) throws E {
+        try {
+            return (V) flight.result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw (E) cause;
+        }
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile int joiners;
+    }
+}
@@ -0,0 +1,373 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+
+/**
+ * Writes case data back to CCD on a background worker, so the caller does not wait for the CCD round trip.
+ *
+ * <p>Only the fields the caller changed are queued, and each write back starts its event on the latest case and applies
+ * those changes to it, so that changes made to the case by anyone else after it was read are kept. A case queued again
+ * before the worker reaches it has its changes combined with the queued ones, keeping its place and age in the queue.
+ * Failed write backs are retried after a back off, with their changes combined into any newer write back for the case
+ * queued in the meantime, and are dropped after the configured number of attempts. Callers can read a case's queued
+ * case details so that they act on what is about to be written, and paths that update the case flush its queued write
+ * back first so it is written before their update, waiting for any write back of the case the worker is making.
+ */
+@Slf4j
+@Service
+@SuppressWarnings("PMD.AvoidCatchingGenericException")
+public class CaseWriteBackQueue {
+
+    public static final String DEPTH_METRIC = "hearings.ccd.write-back.depth";
+    public static final String AGE_METRIC = "hearings.ccd.write-back.age";
+    public static final String COALESCED_METRIC = "hearings.ccd.write-back.coalesced";
+    public static final String OUTCOME_METRIC = "hearings.ccd.write-back";
+
+    private static final String WRITE_BACK_PATH = "write-back";
+
+    private final boolean enabled;
+
+    private final CcdCaseService ccdCaseService;
+
+    private final CaseLockService caseLockService;
+
+    private final int maxAttempts;
+
+    private final Duration retryDelay;
+
+    private final Clock clock;
+
+    private final MeterRegistry meterRegistry;
+
+    private final CaseDetailsCopier copier = new CaseDetailsCopier();
+
+    private final Map<Long, WriteBack> queue = new LinkedHashMap<>();
+
+    /**
+     * The cases whose write back has been taken from the queue and is being written, guarded by the queue's monitor.
+     */
+    private final Set<Long> writing = new HashSet<>();
+
+    private final ScheduledExecutorService worker;
+
+    @Autowired
+    public CaseWriteBackQueue(@Value("${feature.async-case-write-back.enabled:false}") boolean enabled,
+                              CcdCaseService ccdCaseService,
+                              CaseLockService caseLockService,
+                              @Value("${case-write-back.max-attempts:5}") int maxAttempts,
+                              @Value("${case-write-back.retry-delay-ms:30000}") long retryDelayMs,
+                              @Value("${case-write-back.poll-interval-ms:500}") long pollIntervalMs,
+                              MeterRegistry meterRegistry) {
+        this(enabled, ccdCaseService, caseLockService, maxAttempts, Duration.ofMillis(retryDelayMs), pollIntervalMs,
+            Clock.systemUTC(), meterRegistry);
+    }
+
+    CaseWriteBackQueue(boolean enabled, CcdCaseService ccdCaseService, CaseLockService caseLockService,
+                       int maxAttempts, Duration retryDelay, long pollIntervalMs, Clock clock,
+                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ccdCaseService = ccdCaseService;
+        this.caseLockService = caseLockService;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelay = retryDelay;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder(DEPTH_METRIC, this, CaseWriteBackQueue::depth)
+            .register(meterRegistry);
+        Gauge.builder(AGE_METRIC, this, CaseWriteBackQueue::oldestAgeSeconds)
+            .baseUnit("seconds")
+            .register(meterRegistry);
+
+        if (enabled && pollIntervalMs > 0) {
+            worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "case-write-back");
+                thread.setDaemon(true);
+                return thread;
+            });
+            worker.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            worker = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the changes made to the case details since the snapshot was taken with {@link CaseDataPatch#snapshot}.
+     */
+    public void enqueue(SscsCaseDetails caseDetails, JsonNode original, EventType event, String summary,
+                        String description) {
+        SscsCaseData caseData = caseDetails.getData();
+        long caseId = Long.parseLong(caseData.getCcdCaseId());
+        CaseDataPatch patch = CaseDataPatch.between(original, caseData);
+        if (patch.isEmpty()) {
+            log.debug("Nothing to write back for Case ID {}", caseId);
+            return;
+        }
+        SscsCaseDetails queuedDetails = copier.copy(caseDetails);
+        Instant now = clock.instant();
+        synchronized (queue) {
+            WriteBack queued = queue.get(caseId);
+            if (queued == null) {
+                queue.put(caseId, new WriteBack(caseId, queuedDetails, patch, event, summary, description, now));
+                log.debug("Queued write back for Case ID {}", caseId);
+                return;
+            }
+            queued.replace(queuedDetails, queued.patch.then(patch), event, summary, description);
+        }
+        Counter.builder(COALESCED_METRIC)
+            .register(meterRegistry)
+            .increment();
+        log.debug("Coalesced write back for Case ID {} with the one already queued", caseId);
+    }
+
+    /**
+     * Returns a copy of the case details, with their changes, last queued to be written back for the case, if there
+     * are any.
+     */
+    public Optional<SscsCaseDetails> getQueued(long caseId) {
+        SscsCaseDetails caseDetails;
+        synchronized (queue) {
+            WriteBack queued = queue.get(caseId);
+            if (queued == null) {
+                return Optional.empty();
+            }
+            caseDetails = queued.caseDetails;
+        }
+        return Optional.of(copier.copy(caseDetails));
+    }
+
+    /**
+     * Writes back any case data queued for the case on the caller's thread, so that a caller about to read and update
+     * the case does not have its update overwritten by the queued write back afterwards. A write back of the case the
+     * worker is already making is waited for. If the queued write back fails it is queued again and this throws, so
+     * the caller does not update the case ahead of it.
+     */
+    public void flush(long caseId) throws UpdateCaseException {
+        if (!enabled) {
+            return;
+        }
+        WriteBack writeBack;
+        synchronized (queue) {
+            try {
+                while (writing.contains(caseId)) {
+                    queue.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UpdateCaseException("Interrupted waiting for the write back of Case ID " + caseId);
+            }
+            writeBack = claim(caseId, Instant.MAX);
+        }
+        if (writeBack != null) {
+            log.info("Flushing queued write back for Case ID {}", caseId);
+            if (!write(writeBack)) {
+                throw new UpdateCaseException("Unable to write back the case data queued for Case ID " + caseId);
+            }
+        }
+    }
+
+    /**
+     * Writes back every queued case that is due, oldest first. Each case is locked before its write back is taken
+     * from the queue, so a caller holding the case's lock to flush it never waits on a write back blocked by that lock.
+     */
+    void drain() {
+        Long caseId;
+        while ((caseId = nextDue(clock.instant())) != null) {
+            try (CaseLockService.CaseLock caseLock = caseLockService.lock(String.valueOf(caseId), WRITE_BACK_PATH)) {
+                WriteBack writeBack;
+                synchronized (queue) {
+                    writeBack = claim(caseId, clock.instant());
+                }
+                if (writeBack != null) {
+                    write(writeBack);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+        int remaining = depth();
+        if (remaining > 0) {
+            log.warn("Writing back {} queued cases before shutting down", remaining);
+            Long caseId;
+            while ((caseId = nextDue(Instant.MAX)) != null) {
+                WriteBack writeBack;
+                synchronized (queue) {
+                    writeBack = claim(caseId, Instant.MAX);
+                }
+                if (writeBack != null) {
+                    writeBack.attempts = maxAttempts - 1;
+                    write(writeBack);
+                }
+            }
+        }
+    }
+
+    int depth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    private double oldestAgeSeconds() {
+        synchronized (queue) {
+            return queue.values().stream()
+                .map(writeBack -> writeBack.enqueuedAt)
+                .min(Instant::compareTo)
+                .map(enqueuedAt -> Duration.between(enqueuedAt, clock.instant()).toMillis() / 1000.0)
+                .orElse(0.0);
+        }
+    }
+
+    /**
+     * Returns the ID of the oldest case whose write back is due and is not already being written.
+     */
+    private Long nextDue(Instant now) {
+        synchronized (queue) {
+            return queue.values().stream()
+                .filter(writeBack -> !writeBack.dueAt.isAfter(now) && !writing.contains(writeBack.caseId))
+                .map(writeBack -> writeBack.caseId)
+                .findFirst()
+                .orElse(null);
+        }
+    }
+
+    /**
+     * Takes the case's write back from the queue if it is due and not already being written, marking the case as
+     * being written until {@link #write} has finished with it. Must be called holding the queue's monitor.
+     */
+    private WriteBack claim(long caseId, Instant now) {
+        WriteBack writeBack = queue.get(caseId);
+        if (writeBack == null || writeBack.dueAt.isAfter(now) || writing.contains(caseId)) {
+            return null;
+        }
+        queue.remove(caseId);
+        writing.add(caseId);
+        return writeBack;
+    }
+
+    /**
+     * Writes back a claimed write back, queueing it again to be retried if it fails, and returns whether it was
+     * written. The case stays marked as being written until any retry has been queued.
+     */
+    private boolean write(WriteBack writeBack) {
+        writeBack.attempts++;
+        try (CaseLockService.CaseLock caseLock = caseLockService.lock(String.valueOf(writeBack.caseId), WRITE_BACK_PATH)) {
+            ccdCaseService.updateCaseData(writeBack.caseId, writeBack.event, writeBack.summary, writeBack.description,
+                writeBack.patch::applyTo);
+            recordOutcome("written");
+            log.info("Wrote back Case ID {} after {} attempts", writeBack.caseId, writeBack.attempts);
+            return true;
+        } catch (UpdateCaseException | RuntimeException e) {
+            retry(writeBack, e);
+            return false;
+        } finally {
+            synchronized (queue) {
+                writing.remove(writeBack.caseId);
+                queue.notifyAll();
+            }
+        }
+    }
+
+    private void retry(WriteBack writeBack, Exception cause) {
+        if (writeBack.attempts >= maxAttempts) {
+            recordOutcome("failed");
+            log.error("Giving up writing back Case ID {} after {} attempts", writeBack.caseId, writeBack.attempts, cause);
+            return;
+        }
+        writeBack.dueAt = clock.instant().plus(retryDelay.multipliedBy(writeBack.attempts));
+        boolean requeued;
+        synchronized (queue) {
+            WriteBack newer = queue.putIfAbsent(writeBack.caseId, writeBack);
+            requeued = newer == null;
+            if (!requeued) {
+                newer.patch = writeBack.patch.then(newer.patch);
+            }
+        }
+        if (requeued) {
+            recordOutcome("retried");
+            log.warn("Write back of Case ID {} failed, retrying after {}", writeBack.caseId, writeBack.dueAt, cause);
+        } else {
+            recordOutcome("superseded");
+            log.warn("Write back of Case ID {} failed and its changes have been combined with a newer write back", writeBack.caseId, cause);
+        }
+    }
+
+    private void recordOutcome(String outcome) {
+        Counter.builder(OUTCOME_METRIC)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private static final class WriteBack {
+
+        private final long caseId;
+
+        private final Instant enqueuedAt;
+
+        private SscsCaseDetails caseDetails;
+
+        private CaseDataPatch patch;
+
+        private EventType event;
+
+        private String summary;
+
+        private String description;
+
+        private Instant dueAt;
+
+        private int attempts;
+
+        private WriteBack(long caseId, SscsCaseDetails caseDetails, CaseDataPatch patch, EventType event,
+                          String summary, String description, Instant enqueuedAt) {
+            this.caseId = caseId;
+            this.enqueuedAt = enqueuedAt;
+            this.dueAt = enqueuedAt;
+            replace(caseDetails, patch, event, summary, description);
+        }
+
+        private void replace(SscsCaseDetails caseDetails, CaseDataPatch patch, EventType event, String summary,
+                             String description) {
+            this.caseDetails = caseDetails;
+            this.patch = patch;
+            this.event = event;
+            this.summary = summary;
+            this.description = description;
+            this.attempts = 0;
+        }
+    }
+}
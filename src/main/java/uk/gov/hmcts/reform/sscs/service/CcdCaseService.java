@@ -4,10 +4,12 @@ import feign.FeignException;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi;
+import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.SearchResult;
 import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
@@ -16,15 +18,23 @@ import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
 import uk.gov.hmcts.reform.sscs.ccd.service.SscsCcdConvertService;
 import uk.gov.hmcts.reform.sscs.exception.GetCaseException;
 import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
-import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+import uk.gov.hmcts.reform.sscs.model.CaseProjection;
 import uk.gov.hmcts.reform.sscs.model.HearingEvent;
 import uk.gov.hmcts.reform.sscs.model.HearingWrapper;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 @Service
@@ -32,34 +42,47 @@ public class CcdCaseService {
 
     @Value("${core_case_data.caseTypeId}")
     private String caseType;
+
+    @Value("${core_case_data.search-page-size:100}")
+    private int searchPageSize;
     public static final String CASE_ID_TERM = "reference.keyword";
 
     private final CcdService ccdService;
-    private final IdamService idamService;
+    private final IdamTokenProvider idamTokenProvider;
     private final SscsCcdConvertService sscsCcdConvertService;
     private final CoreCaseDataApi coreCaseDataApi;
+    private final CaseDetailsCache caseDetailsCache;
+    private final CaseReadCollapser caseReadCollapser;
 
     @Autowired
-    public CcdCaseService(CcdService ccdService, IdamService idamService, CoreCaseDataApi coreCaseDataApi,
-                          SscsCcdConvertService sscsCcdConvertService) {
+    public CcdCaseService(CcdService ccdService, IdamTokenProvider idamTokenProvider, CoreCaseDataApi coreCaseDataApi,
+                          SscsCcdConvertService sscsCcdConvertService, CaseDetailsCache caseDetailsCache,
+                          CaseReadCollapser caseReadCollapser) {
         this.ccdService = ccdService;
-        this.idamService = idamService;
+        this.idamTokenProvider = idamTokenProvider;
         this.coreCaseDataApi = coreCaseDataApi;
         this.sscsCcdConvertService = sscsCcdConvertService;
+        this.caseDetailsCache = caseDetailsCache;
+        this.caseReadCollapser = caseReadCollapser;
     }
 
     public SscsCaseDetails getCaseDetails(String caseId) throws GetCaseException {
         return getCaseDetails(parseCaseId(caseId));
     }
 
+    /**
+     * Reads the case from CCD, never from the cache, so a caller that goes on to write back what it read does not
+     * overwrite changes made to the case by anyone else since it was cached.
+     */
     public SscsCaseDetails getCaseDetails(long caseId) throws GetCaseException {
 
         log.info("Retrieving case details using Case id : {}",
                 caseId);
 
-        IdamTokens idamTokens = idamService.getIdamTokens();
+        long generation = caseDetailsCache.currentGeneration();
+        IdamTokens idamTokens = idamTokenProvider.getIdamTokens();
 
-        SscsCaseDetails caseDetails = ccdService.getByCaseId(caseId, idamTokens);
+        SscsCaseDetails caseDetails = caseReadCollapser.readCase(caseId, () -> readCase(caseId, idamTokens));
 
         if (caseDetails == null) {
             String cause = String.format("The case data for Case id: %s could not be found", caseId);
@@ -67,26 +90,71 @@ public class CcdCaseService {
             log.error(cause, exc);
             throw exc;
         }
+        caseDetailsCache.put(caseId, generation, caseDetails);
         return caseDetails;
     }
 
+    /**
+     * Reads the case, from the cache if it holds the case. Cached details can be up to the cache's time to live behind
+     * changes made by other services, so they must only be used by callers that never write back what they read.
+     */
+    public SscsCaseDetails getCachedCaseDetails(long caseId) throws GetCaseException {
+        Optional<SscsCaseDetails> cachedCaseDetails = caseDetailsCache.get(caseId);
+        if (cachedCaseDetails.isPresent()) {
+            log.info("Using cached case details for Case id : {}", caseId);
+            return cachedCaseDetails.get();
+        }
+        return getCaseDetails(caseId);
+    }
+
     public SscsCaseDetails getStartEventResponse(long caseId, EventType eventType) {
-        IdamTokens idamTokens = idamService.getIdamTokens();
+        IdamTokens idamTokens = idamTokenProvider.getIdamTokens();
 
         return ccdService.getCaseForModification(caseId, idamTokens, eventType.getCcdType());
     }
 
     public SscsCaseDetails updateCaseData(SscsCaseData caseData, HearingWrapper wrapper, HearingEvent event)
         throws UpdateCaseException {
+        return submitEvent(caseData, wrapper.getEventId(), wrapper.getEventToken(), event.getEventType(),
+            event.getSummary(), event.getDescription());
+    }
+
+    /**
+     * Submits the event started by {@link #getStartEventResponse(long, EventType)}, so the case is updated without
+     * starting the event again.
+     */
+    public SscsCaseDetails updateCaseData(SscsCaseData caseData, SscsCaseDetails startEventResponse, EventType event,
+                                          String summary, String description) throws UpdateCaseException {
+        return submitEvent(caseData, startEventResponse.getEventId(), startEventResponse.getEventToken(), event,
+            summary, description);
+    }
+
+    /**
+     * Starts the event on the latest case and submits the case data returned by the mutator for it, so the update
+     * keeps every change made to the case other than those the mutator makes, however long after it was read.
+     */
+    public SscsCaseDetails updateCaseData(long caseId, EventType event, String summary, String description,
+                                          UnaryOperator<SscsCaseData> mutator) throws UpdateCaseException {
+        SscsCaseDetails startEventResponse = getStartEventResponse(caseId, event);
+        return updateCaseData(mutator.apply(startEventResponse.getData()), startEventResponse, event, summary,
+            description);
+    }
+
+    private SscsCaseDetails submitEvent(SscsCaseData caseData, String eventId, String eventToken, EventType event,
+                                        String summary, String description) throws UpdateCaseException {
         long caseId = parseCaseId(caseData.getCcdCaseId());
-        IdamTokens idamTokens = idamService.getIdamTokens();
+        IdamTokens idamTokens = idamTokenProvider.getIdamTokens();
 
+        long generation = caseDetailsCache.invalidate(caseId);
         try {
-            String ccdType = event.getEventType().getCcdType();
+            String ccdType = event.getCcdType();
             log.info("Updating case id {} with ccdType {}", caseId, ccdType);
-            return ccdService.updateCase(caseData, caseId, wrapper.getEventId(), wrapper.getEventToken(),
-                                            ccdType, event.getSummary(), event.getDescription(), idamTokens);
+            SscsCaseDetails caseDetails = ccdService.updateCase(caseData, caseId, eventId, eventToken,
+                                            ccdType, summary, description, idamTokens);
+            caseDetailsCache.put(caseId, generation, caseDetails);
+            return caseDetails;
         } catch (FeignException e) {
+            idamTokenProvider.invalidateIfRejected(e);
             UpdateCaseException exc = new UpdateCaseException(
                     String.format("The case with Case id: %s could not be updated with status %s, %s",
                             caseId, e.status(), e));
@@ -102,11 +170,15 @@ public class CcdCaseService {
 
         log.info("Updating case data using Case id : {}", caseId);
 
-        IdamTokens idamTokens = idamService.getIdamTokens();
+        IdamTokens idamTokens = idamTokenProvider.getIdamTokens();
 
+        long generation = caseDetailsCache.invalidate(caseId);
         try {
-            return ccdService.updateCase(caseData, caseId, event.getCcdType(), summary, description, idamTokens);
+            SscsCaseDetails caseDetails = ccdService.updateCase(caseData, caseId, event.getCcdType(), summary, description, idamTokens);
+            caseDetailsCache.put(caseId, generation, caseDetails);
+            return caseDetails;
         } catch (FeignException e) {
+            idamTokenProvider.invalidateIfRejected(e);
             UpdateCaseException exc = new UpdateCaseException(
                     String.format("The case with Case id: %s could not be updated with status %s, %s",
                             caseId, e.status(), e));
@@ -115,6 +187,13 @@ public class CcdCaseService {
         }
     }
 
+    /**
+     * Drops any cached details of a case that has been written to without going through this service.
+     */
+    public void invalidateCachedCase(long caseId) {
+        caseDetailsCache.invalidate(caseId);
+    }
+
     private long parseCaseId(String caseId) {
         try {
             return Long.parseLong(caseId);
@@ -128,7 +207,43 @@ public class CcdCaseService {
         SearchSourceBuilder bulkCaseSearch = SearchSourceBuilder.searchSource()
             .query(QueryBuilders.termsQuery(CASE_ID_TERM, caseReferences));
 
-        SearchResult result = searchCases(idamService.getIdamTokens(), bulkCaseSearch);
+        return searchCaseDetails(bulkCaseSearch);
+    }
+
+    /**
+     * Searches for the cases returning only the case data fields of the projection, for read only paths that do
+     * not need the rest of the case.
+     */
+    public List<SscsCaseDetails> getCasesViaElastic(List<String> caseReferences, CaseProjection projection) {
+        SearchSourceBuilder bulkCaseSearch = SearchSourceBuilder.searchSource()
+            .query(QueryBuilders.termsQuery(CASE_ID_TERM, caseReferences));
+        if (!projection.getSourceIncludes().isEmpty()) {
+            bulkCaseSearch.fetchSource(projection.getSourceIncludes().toArray(String[]::new), null);
+        }
+
+        return searchCaseDetails(bulkCaseSearch);
+    }
+
+    /**
+     * Searches for the cases a page at a time, sorted by case reference and paged with {@code search_after}, so
+     * every matching case is returned however many there are. Pages are only fetched, and their cases only
+     * converted, as the stream is consumed.
+     */
+    public Stream<SscsCaseDetails> streamCasesViaElastic(List<String> caseReferences, CaseProjection projection) {
+        if (caseReferences.isEmpty()) {
+            return Stream.empty();
+        }
+        Iterator<CaseDetails> cases = new CaseSearchIterator(caseReferences, projection);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cases, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .map(sscsCcdConvertService::getCaseDetails);
+    }
+
+    private List<SscsCaseDetails> searchCaseDetails(SearchSourceBuilder bulkCaseSearch) {
+        return caseReadCollapser.search(bulkCaseSearch.toString(), () -> convertSearchResult(bulkCaseSearch));
+    }
+
+    private List<SscsCaseDetails> convertSearchResult(SearchSourceBuilder bulkCaseSearch) {
+        SearchResult result = searchCases(idamTokenProvider.getIdamTokens(), bulkCaseSearch);
 
         return Optional.ofNullable(result)
             .map(SearchResult::getCases)
@@ -138,11 +253,87 @@ public class CcdCaseService {
             .collect(Collectors.toList());
     }
 
+    private SscsCaseDetails readCase(long caseId, IdamTokens idamTokens) {
+        try {
+            return ccdService.getByCaseId(caseId, idamTokens);
+        } catch (FeignException e) {
+            idamTokenProvider.invalidateIfRejected(e);
+            throw e;
+        }
+    }
+
     private SearchResult searchCases(IdamTokens idamTokens, SearchSourceBuilder searchBuilder) {
-        return coreCaseDataApi.searchCases(
-            idamTokens.getIdamOauth2Token(),
-            idamTokens.getServiceAuthorization(),
-            caseType,
-            searchBuilder.toString());
+        try {
+            return coreCaseDataApi.searchCases(
+                idamTokens.getIdamOauth2Token(),
+                idamTokens.getServiceAuthorization(),
+                caseType,
+                searchBuilder.toString());
+        } catch (FeignException e) {
+            idamTokenProvider.invalidateIfRejected(e);
+            throw e;
+        }
+    }
+
+    private final class CaseSearchIterator implements Iterator<CaseDetails> {
+
+        private final List<String> caseReferences;
+
+        private final CaseProjection projection;
+
+        private IdamTokens idamTokens;
+
+        private Iterator<CaseDetails> page = Collections.emptyIterator();
+
+        private Long lastReference;
+
+        private boolean lastPage;
+
+        private CaseSearchIterator(List<String> caseReferences, CaseProjection projection) {
+            this.caseReferences = caseReferences;
+            this.projection = projection;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !lastPage) {
+                fetchNextPage();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public CaseDetails next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            CaseDetails caseDetails = page.next();
+            lastReference = caseDetails.getId();
+            return caseDetails;
+        }
+
+        private void fetchNextPage() {
+            SearchSourceBuilder pageSearch = SearchSourceBuilder.searchSource()
+                .query(QueryBuilders.termsQuery(CASE_ID_TERM, caseReferences))
+                .size(searchPageSize)
+                .sort(CASE_ID_TERM, SortOrder.ASC);
+            if (!projection.getSourceIncludes().isEmpty()) {
+                pageSearch.fetchSource(projection.getSourceIncludes().toArray(String[]::new), null);
+            }
+            if (lastReference != null) {
+                pageSearch.searchAfter(new Object[]{String.valueOf(lastReference)});
+            }
+            if (idamTokens == null) {
+                idamTokens = idamTokenProvider.getIdamTokens();
+            }
+
+            List<CaseDetails> cases = Optional.ofNullable(searchCases(idamTokens, pageSearch))
+                .map(SearchResult::getCases)
+                .orElse(Collections.emptyList());
+            log.debug("Fetched {} cases from page after case reference {}", cases.size(), lastReference);
+
+            lastPage = cases.size() < searchPageSize;
+            page = cases.iterator();
+        }
     }
 }
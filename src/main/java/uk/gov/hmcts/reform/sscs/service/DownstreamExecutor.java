@@ -0,0 +1,66 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor for running independent downstream calls concurrently with the work of the calling thread.
+ *
+ * <p>When every thread is busy and the queue is full the task runs on the calling thread, so callers are slowed down
+ * rather than rejected.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class DownstreamExecutor {
+
+    private final ThreadPoolExecutor threadPool;
+
+    private final ExecutorService executorService;
+
+    public DownstreamExecutor(String name, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.threadPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        this.threadPool.allowCoreThreadTimeOut(true);
+        this.executorService = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, name);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executorService);
+    }
+
+    /**
+     * Waits for the result of a task, rethrowing any unchecked exception it failed with as is.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        threadPool.shutdown();
+    }
+}
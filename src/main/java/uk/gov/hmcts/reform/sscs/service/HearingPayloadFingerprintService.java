@@ -0,0 +1,129 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingRequestPayload;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Remembers a fingerprint of the last update hearing payload HMC accepted for each hearing.
+ *
+ * <p>The fingerprint is a SHA-256 hash of the payload serialised with sorted keys and without
+ * {@code requestDetails.versionNumber}. An update is only treated as unchanged when the rebuilt payload has the same
+ * fingerprint and the case still holds the version HMC returned for it, so a hearing changed by anyone else is
+ * always sent. Fingerprints are held in a bounded least recently used map local to this instance.
+ */
+@Slf4j
+@Service
+public class HearingPayloadFingerprintService {
+
+    public static final String SKIPPED_METRIC = "hearings.hmc.update.skipped";
+
+    private static final String REQUEST_DETAILS = "requestDetails";
+
+    private static final String VERSION_NUMBER = "versionNumber";
+
+    private final boolean enabled;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+        .build();
+
+    private final Map<String, Fingerprint> fingerprints;
+
+    private final Counter skippedCounter;
+
+    public HearingPayloadFingerprintService(@Value("${feature.hearing-payload-fingerprint.enabled:false}") boolean enabled,
+                                            @Value("${feature.hearing-payload-fingerprint.capacity:10000}") int capacity,
+                                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.fingerprints = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Fingerprint> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.skippedCounter = Counter.builder(SKIPPED_METRIC)
+            .description("Update hearing requests not sent because HMC already holds the same payload")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Gets the fingerprint of the payload, or null when fingerprinting is disabled or the payload cannot be
+     * serialised.
+     */
+    public String fingerprint(HearingRequestPayload payload) {
+        if (!enabled || isNull(payload)) {
+            return null;
+        }
+        try {
+            JsonNode tree = objectMapper.valueToTree(payload);
+            if (tree.get(REQUEST_DETAILS) instanceof ObjectNode requestDetails) {
+                requestDetails.remove(VERSION_NUMBER);
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(tree));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | IllegalArgumentException | NoSuchAlgorithmException e) {
+            log.warn("Unable to fingerprint hearing payload, the update will be sent", e);
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether HMC already holds this payload at the version the case has, counting the update as skipped if
+     * so.
+     */
+    public boolean isUnchanged(String hearingId, String fingerprint, Long versionNumber) {
+        if (isNull(hearingId) || isNull(fingerprint)) {
+            return false;
+        }
+        Fingerprint last;
+        synchronized (fingerprints) {
+            last = fingerprints.get(hearingId);
+        }
+        if (isNull(last) || !last.getHash().equals(fingerprint) || !Objects.equals(last.getVersionNumber(), versionNumber)) {
+            return false;
+        }
+        skippedCounter.increment();
+        return true;
+    }
+
+    public void record(String hearingId, String fingerprint, Long versionNumber) {
+        if (isNull(hearingId) || isNull(fingerprint)) {
+            return;
+        }
+        synchronized (fingerprints) {
+            fingerprints.put(hearingId, new Fingerprint(fingerprint, versionNumber));
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Fingerprint {
+        private final String hash;
+        private final Long versionNumber;
+    }
+}
@@ -0,0 +1,124 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.gov.hmcts.reform.sscs.model.single.hearing.HmcUpdateResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how far a hearing request got so that a retry can resume from the last completed stage.
+ *
+ * <p>Once HMC has accepted a hearing request its response is kept until the case has been updated, so a retry after
+ * a failed CCD update goes straight back to the case update instead of asking HMC for another hearing.
+ *
+ * <p>Checkpoints are keyed by the ID of the message that carried the request, which is kept when the request is
+ * re-queued, so a different request for the same case never resumes from another request's HMC response. Requests
+ * without a message ID are not checkpointed. Checkpoints are held in memory on this instance only: a retry resumes
+ * only when it runs on the same pod, and a re-queued request delivered to another pod starts again from the beginning.
+ */
+@Slf4j
+@Service
+public class HearingRequestCheckpointService {
+
+    public static final String RESUMED_METRIC = "hearings.checkpoint.resumed";
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    public enum Stage {
+        HMC_ACCEPTED,
+        CCD_UPDATED
+    }
+
+    private final boolean enabled;
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HearingRequestCheckpointService(@Value("${feature.hearing-request-checkpoints.enabled:false}") boolean enabled,
+                                           @Value("${feature.hearing-request-checkpoints.ttl-minutes:10}") long ttlMinutes,
+                                           MeterRegistry meterRegistry) {
+        this(enabled, Duration.ofMinutes(ttlMinutes), Clock.systemUTC(), meterRegistry);
+    }
+
+    HearingRequestCheckpointService(boolean enabled, Duration ttl, Clock clock, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records that a stage has been completed. Completing the case update finishes the request and removes its
+     * checkpoint, and a stage never replaces a later one.
+     */
+    public void record(String key, Stage stage, HmcUpdateResponse hmcUpdateResponse) {
+        if (!enabled || key == null) {
+            return;
+        }
+        if (stage == Stage.CCD_UPDATED) {
+            checkpoints.remove(key);
+            return;
+        }
+        Instant now = clock.instant();
+        if (checkpoints.size() >= PURGE_THRESHOLD) {
+            checkpoints.values().removeIf(checkpoint -> checkpoint.isExpired(now));
+        }
+        Checkpoint latest = new Checkpoint(stage, hmcUpdateResponse, now.plus(ttl));
+        checkpoints.merge(key, latest, (existing, recorded) ->
+            existing.isExpired(now) || recorded.getStage().compareTo(existing.getStage()) >= 0 ? recorded : existing);
+    }
+
+    /**
+     * Gets the HMC response of a hearing request that HMC has already accepted but whose case update has not yet
+     * completed.
+     */
+    public Optional<HmcUpdateResponse> getAcceptedResponse(String key) {
+        if (!enabled || key == null) {
+            return Optional.empty();
+        }
+        Checkpoint checkpoint = checkpoints.get(key);
+        if (checkpoint == null) {
+            return Optional.empty();
+        }
+        if (checkpoint.isExpired(clock.instant())) {
+            checkpoints.remove(key, checkpoint);
+            return Optional.empty();
+        }
+        Counter.builder(RESUMED_METRIC)
+            .tag("stage", checkpoint.getStage().name())
+            .register(meterRegistry)
+            .increment();
+        log.info("Resuming hearing request {} from stage {}", key, checkpoint.getStage());
+        return Optional.ofNullable(checkpoint.getHmcUpdateResponse());
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Checkpoint {
+        private final Stage stage;
+        private final HmcUpdateResponse hmcUpdateResponse;
+        private final Instant expiry;
+
+        private boolean isExpired(Instant now) {
+            return !now.isBefore(expiry);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package uk.gov.hmcts.reform.sscs.service;
 
 import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,6 +13,7 @@ import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.HearingState;
+import uk.gov.hmcts.reform.sscs.ccd.domain.OverrideFields;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
 import uk.gov.hmcts.reform.sscs.ccd.domain.State;
@@ -23,7 +26,6 @@ import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
 import uk.gov.hmcts.reform.sscs.helper.mapping.HearingsRequestMapping;
 import uk.gov.hmcts.reform.sscs.helper.mapping.OverridesMapping;
 import uk.gov.hmcts.reform.sscs.helper.service.HearingsServiceHelper;
-import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.model.HearingEvent;
 import uk.gov.hmcts.reform.sscs.model.HearingWrapper;
 import uk.gov.hmcts.reform.sscs.model.hearings.HearingRequest;
@@ -34,9 +36,12 @@ import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingGetResponse;
 import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingRequestPayload;
 import uk.gov.hmcts.reform.sscs.model.single.hearing.HmcUpdateResponse;
 import uk.gov.hmcts.reform.sscs.reference.data.model.CancellationReason;
+import uk.gov.hmcts.reform.sscs.service.HearingRequestCheckpointService.Stage;
 import uk.gov.hmcts.reform.sscs.service.holder.ReferenceDataServiceHolder;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import static java.util.Objects.isNull;
@@ -63,15 +68,31 @@ public class HearingsService {
 
     private final UpdateCcdCaseService updateCcdCaseService;
 
-    private final IdamService idamService;
+    private final IdamTokenProvider idamTokenProvider;
 
     private final HearingServiceConsumer hearingServiceConsumer;
 
+    private final HearingRequestCheckpointService checkpointService;
+
+    private final DownstreamExecutor downstreamExecutor;
+
+    private final HearingPayloadFingerprintService fingerprintService;
+
+    private final CaseLockService caseLockService;
+
+    private final CaseWriteBackQueue caseWriteBackQueue;
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${feature.hearings-case-updateV2.enabled:false}")
     private boolean hearingsCaseUpdateV2Enabled;
+
+    @Value("${feature.concurrent-create-hearing.enabled:false}")
+    private boolean concurrentCreateHearingEnabled;
     // Leaving blank for now until a future change is scoped and completed, then we can add the case states back in
     public static final List<State> INVALID_CASE_STATES = List.of();
     private static final Long HEARING_VERSION_NUMBER = 1L;
+    public static final String VERSION_RESOLUTION_METRIC = "hearings.hmc.version.resolution";
 
     @Retryable(
         retryFor = UpdateCaseException.class,
@@ -79,13 +100,40 @@ public class HearingsService {
         backoff = @Backoff(delayExpression = "${retry.hearing-response-update.backoff}"))
     public void processHearingRequest(HearingRequest hearingRequest) throws UnhandleableHearingStateException,
         UpdateCaseException, ListingException {
+        processHearingRequestOnce(hearingRequest, null);
+    }
+
+    /**
+     * Processes the hearing request carried by a message, so that a retry of the same message can resume from its
+     * checkpoint.
+     */
+    @Retryable(
+        retryFor = UpdateCaseException.class,
+        maxAttemptsExpression = "${retry.hearing-response-update.max-retries}",
+        backoff = @Backoff(delayExpression = "${retry.hearing-response-update.backoff}"))
+    public void processHearingRequest(HearingRequest hearingRequest, String requestId)
+        throws UnhandleableHearingStateException, UpdateCaseException, ListingException {
+        processHearingRequestOnce(hearingRequest, requestId);
+    }
+
+    /**
+     * Processes the hearing request without retrying, for callers that schedule their own retries.
+     *
+     * @param requestId the ID of the message that carried the request, or null if there is none
+     */
+    public void processHearingRequestOnce(HearingRequest hearingRequest, String requestId)
+        throws UnhandleableHearingStateException, UpdateCaseException, ListingException {
         log.info("Processing Hearing Request for Case ID {}, Hearing State {} and Route {} and Cancellation Reason {}",
                 hearingRequest.getCcdCaseId(),
                 hearingRequest.getHearingState(),
                 hearingRequest.getHearingRoute(),
                 hearingRequest.getCancellationReason());
 
-        processHearingWrapper(createWrapper(hearingRequest));
+        try (CaseLockService.CaseLock caseLock = caseLockService.lock(hearingRequest.getCcdCaseId(), "tribunals")) {
+            HearingWrapper wrapper = createWrapper(hearingRequest);
+            wrapper.setRequestId(requestId);
+            processHearingWrapper(wrapper);
+        }
     }
 
     public void processHearingWrapper(HearingWrapper wrapper)
@@ -137,14 +185,54 @@ public class HearingsService {
         SscsCaseData caseData = wrapper.getCaseData();
 
         String caseId = caseData.getCcdCaseId();
-        HearingsGetResponse hearingsGetResponse = hmcHearingsApiService.getHearingsRequest(caseId, null);
-        CaseHearing hearing = HearingsServiceHelper.findExistingRequestedHearings(hearingsGetResponse);
+        String checkpointKey = wrapper.getRequestId();
+        Optional<HmcUpdateResponse> acceptedResponse = checkpointService.getAcceptedResponse(checkpointKey);
+        if (acceptedResponse.isPresent()) {
+            log.info("Hearing request already accepted by HMC, resuming with the case update for Case ID {} and Hearing ID {}",
+                caseId,
+                acceptedResponse.get().getHearingRequestId());
+            OverridesMapping.setDefaultListingValues(wrapper.getCaseData(), refData);
+            hearingResponseUpdate(wrapper, acceptedResponse.get());
+            checkpointService.record(checkpointKey, Stage.CCD_UPDATED, null);
+            return;
+        }
+
+        CaseHearing hearing;
+        HearingRequestPayload hearingPayload = null;
+        ListingException payloadException = null;
         HmcUpdateResponse hmcUpdateResponse;
 
-        OverridesMapping.setDefaultListingValues(wrapper.getCaseData(), refData);
+        if (concurrentCreateHearingEnabled) {
+            CompletableFuture<HearingsGetResponse> hearingsLookup =
+                downstreamExecutor.supply(() -> hmcHearingsApiService.getHearingsRequest(caseId, null));
+
+            OverridesMapping.setDefaultListingValues(wrapper.getCaseData(), refData);
+            Integer overrideDuration = OverridesMapping.getOverrideFields(caseData).getDuration();
+            try {
+                hearingPayload = buildHearingPayload(wrapper, refData);
+            } catch (ListingException e) {
+                payloadException = e;
+            }
+
+            hearing = HearingsServiceHelper.findExistingRequestedHearings(DownstreamExecutor.join(hearingsLookup));
+            if (nonNull(hearing)) {
+                // building the payload can amend the override duration, which must not be saved for an existing hearing
+                restoreOverrideDuration(caseData, overrideDuration);
+            }
+        } else {
+            HearingsGetResponse hearingsGetResponse = hmcHearingsApiService.getHearingsRequest(caseId, null);
+            hearing = HearingsServiceHelper.findExistingRequestedHearings(hearingsGetResponse);
+
+            OverridesMapping.setDefaultListingValues(wrapper.getCaseData(), refData);
+        }
 
         if (isNull(hearing)) {
-            HearingRequestPayload hearingPayload = buildHearingPayload(wrapper, refData);
+            if (nonNull(payloadException)) {
+                throw payloadException;
+            }
+            if (isNull(hearingPayload)) {
+                hearingPayload = buildHearingPayload(wrapper, refData);
+            }
             log.debug("Sending Create Hearing Request for Case ID {}", caseId);
             hmcUpdateResponse = hmcHearingApiService.sendCreateHearingRequest(hearingPayload);
 
@@ -167,20 +255,43 @@ public class HearingsService {
                 hearing.getHearingId());
         }
 
+        checkpointService.record(checkpointKey, Stage.HMC_ACCEPTED, hmcUpdateResponse);
         hearingResponseUpdate(wrapper, hmcUpdateResponse);
+        checkpointService.record(checkpointKey, Stage.CCD_UPDATED, null);
+    }
+
+    private static void restoreOverrideDuration(SscsCaseData caseData, Integer duration) {
+        OverrideFields overrideFields = caseData.getSchedulingAndListingFields().getOverrideFields();
+        if (nonNull(overrideFields)) {
+            overrideFields.setDuration(duration);
+        }
     }
 
     private Long getHearingVersionNumber(CaseHearing hearing) {
+        if (nonNull(hearing.getRequestVersion())) {
+            countVersionResolution("list");
+            return hearing.getRequestVersion();
+        }
+
         try {
             HearingGetResponse response = hmcHearingApiService.getHearingRequest(hearing.getHearingId().toString());
+            countVersionResolution("hearing-request");
             return response.getRequestDetails().getVersionNumber();
         } catch (GetHearingException e) {
             log.debug("Hearing with id {} doesn't exist", hearing.getHearingId());
         }
 
+        countVersionResolution("default");
         return HEARING_VERSION_NUMBER;
     }
 
+    private void countVersionResolution(String source) {
+        Counter.builder(VERSION_RESOLUTION_METRIC)
+            .tag("source", source)
+            .register(meterRegistry)
+            .increment();
+    }
+
     private void updateHearing(HearingWrapper wrapper) throws UpdateCaseException, ListingException {
         if (isNull(wrapper.getCaseData().getSchedulingAndListingFields().getOverrideFields())) {
             OverridesMapping.setOverrideValues(wrapper.getCaseData(), refData);
@@ -197,6 +308,14 @@ public class HearingsService {
 
         HearingRequestPayload hearingPayload = buildHearingPayload(wrapper, refData);
         String hearingId = getHearingId(wrapper);
+        String fingerprint = fingerprintService.fingerprint(hearingPayload);
+        if (fingerprintService.isUnchanged(hearingId, fingerprint, HearingsServiceHelper.getVersion(wrapper))) {
+            log.info("Hearing payload unchanged since the last update, skipping Update Hearing Request for Case ID {} and Hearing ID {}",
+                wrapper.getCaseData().getCcdCaseId(),
+                hearingId);
+            return;
+        }
+
         log.debug("Sending Update Hearing Request for Case ID {}", wrapper.getCaseData().getCcdCaseId());
         HmcUpdateResponse response = hmcHearingApiService.sendUpdateHearingRequest(hearingPayload, hearingId);
 
@@ -206,6 +325,7 @@ public class HearingsService {
                 response);
 
         hearingResponseUpdate(wrapper, response);
+        fingerprintService.record(hearingId, fingerprint, response.getVersionNumber());
     }
 
     private void cancelHearing(HearingWrapper wrapper) {
@@ -270,7 +390,7 @@ public class HearingsService {
                 event.getEventType().getCcdType(),
                 event.getSummary(),
                 event.getDescription(),
-                idamService.getIdamTokens(),
+                idamTokenProvider.getIdamTokens(),
                 caseDataConsumer
             );
             log.info("Case Updated using updateCaseDataV2 with Hearing Response for Case ID {}, Hearing ID {}, Hearing State {} and CCD Event {}",
@@ -280,11 +400,14 @@ public class HearingsService {
                      event.getEventType().getCcdType());
 
         } catch (FeignException e) {
+            idamTokenProvider.invalidateIfRejected(e);
             UpdateCaseException exc = new UpdateCaseException(
                 String.format("The case with Case id: %s could not be updated using updateCaseV2 with status %s, %s",
                               caseId, e.status(), e));
             log.error(exc.getMessage(), exc);
             throw exc;
+        } finally {
+            ccdCaseService.invalidateCachedCase(Long.parseLong(caseId));
         }
 
     }
@@ -301,7 +424,8 @@ public class HearingsService {
         throw new ExhaustedRetryException("Cancellation request Response received, rethrowing exception", exception);
     }
 
-    private HearingWrapper createWrapper(HearingRequest hearingRequest) throws UnhandleableHearingStateException {
+    private HearingWrapper createWrapper(HearingRequest hearingRequest)
+        throws UnhandleableHearingStateException, UpdateCaseException {
         if (isNull(hearingRequest.getHearingState())) {
             UnhandleableHearingStateException err = new UnhandleableHearingStateException();
             log.error(err.getMessage(), err);
@@ -316,7 +440,9 @@ public class HearingsService {
 
         EventType eventType = HearingsServiceHelper.getCcdEvent(hearingRequest.getHearingState());
         log.info("Getting case details with event {} {}", eventType, eventType.getCcdType());
-        SscsCaseDetails sscsCaseDetails = ccdCaseService.getStartEventResponse(Long.parseLong(hearingRequest.getCcdCaseId()), eventType);
+        long caseId = Long.parseLong(hearingRequest.getCcdCaseId());
+        caseWriteBackQueue.flush(caseId);
+        SscsCaseDetails sscsCaseDetails = ccdCaseService.getStartEventResponse(caseId, eventType);
 
         return HearingWrapper.builder()
                 .caseData(sscsCaseDetails.getData())
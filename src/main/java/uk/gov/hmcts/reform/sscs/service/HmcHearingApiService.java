@@ -5,7 +5,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.sscs.exception.GetHearingException;
-import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
 import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingCancelRequestPayload;
 import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingGetResponse;
@@ -20,15 +19,16 @@ import static java.util.Objects.isNull;
 public class HmcHearingApiService {
 
     private final HmcHearingApi hmcHearingApi;
-    private final IdamService idamService;
+    private final IdamTokenProvider idamTokenProvider;
     @Value("${hmc.deployment-id}")
     private  String hmctsDeploymentId;
 
     public HearingGetResponse getHearingRequest(String hearingId) throws GetHearingException {
         log.debug("Sending Get Hearing Request for Hearing ID {}", hearingId);
+        IdamTokens idamTokens = getIdamTokens();
         HearingGetResponse hearingResponse = hmcHearingApi.getHearingRequest(
-                getIdamTokens().getIdamOauth2Token(),
-                getIdamTokens().getServiceAuthorization(),
+                idamTokens.getIdamOauth2Token(),
+                idamTokens.getServiceAuthorization(),
                 hmctsDeploymentId,
                 hearingId,
             null);
@@ -42,9 +42,10 @@ public class HmcHearingApiService {
         log.debug("Sending Create Hearing Request for Case ID {} and request:\n{}",
                 hearingPayload.getCaseDetails().getCaseId(),
                 hearingPayload);
+        IdamTokens idamTokens = getIdamTokens();
         return hmcHearingApi.createHearingRequest(
-                getIdamTokens().getIdamOauth2Token(),
-                getIdamTokens().getServiceAuthorization(),
+                idamTokens.getIdamOauth2Token(),
+                idamTokens.getServiceAuthorization(),
                 hmctsDeploymentId,
                 hearingPayload);
     }
@@ -54,9 +55,10 @@ public class HmcHearingApiService {
                 hearingPayload.getCaseDetails().getCaseId(),
                 hearingId,
                 hearingPayload);
+        IdamTokens idamTokens = getIdamTokens();
         return hmcHearingApi.updateHearingRequest(
-                getIdamTokens().getIdamOauth2Token(),
-                getIdamTokens().getServiceAuthorization(),
+                idamTokens.getIdamOauth2Token(),
+                idamTokens.getServiceAuthorization(),
                 hmctsDeploymentId,
                 hearingId,
                 hearingPayload);
@@ -66,15 +68,16 @@ public class HmcHearingApiService {
         log.debug("Sending Cancel Hearing Request for Hearing ID {} and request:\n{}",
                 hearingId,
                 hearingPayload);
+        IdamTokens idamTokens = getIdamTokens();
         return hmcHearingApi.cancelHearingRequest(
-                getIdamTokens().getIdamOauth2Token(),
-                getIdamTokens().getServiceAuthorization(),
+                idamTokens.getIdamOauth2Token(),
+                idamTokens.getServiceAuthorization(),
                 hmctsDeploymentId,
                 hearingId,
                 hearingPayload);
     }
 
     private IdamTokens getIdamTokens() {
-        return idamService.getIdamTokens();
+        return idamTokenProvider.getIdamTokens();
     }
 }
@@ -4,7 +4,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
 import uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcStatus;
 import uk.gov.hmcts.reform.sscs.model.multi.hearing.HearingsGetResponse;
@@ -15,21 +14,22 @@ import uk.gov.hmcts.reform.sscs.model.multi.hearing.HearingsGetResponse;
 public class HmcHearingsApiService {
 
     private final HmcHearingsApi hmcHearingsApi;
-    private final IdamService idamService;
+    private final IdamTokenProvider idamTokenProvider;
     @Value("${hmc.deployment-id}")
     private  String hmctsDeploymentId;
 
     public HearingsGetResponse getHearingsRequest(String caseId, HmcStatus hmcStatus) {
         log.debug("Sending Get Hearings Request for Case ID {}", caseId);
+        IdamTokens idamTokens = getIdamTokens();
         return hmcHearingsApi.getHearingsRequest(
-            getIdamTokens().getIdamOauth2Token(),
-            getIdamTokens().getServiceAuthorization(),
+            idamTokens.getIdamOauth2Token(),
+            idamTokens.getServiceAuthorization(),
             hmctsDeploymentId,
             caseId,
             hmcStatus);
     }
 
     private IdamTokens getIdamTokens() {
-        return idamService.getIdamTokens();
+        return idamTokenProvider.getIdamTokens();
     }
 }
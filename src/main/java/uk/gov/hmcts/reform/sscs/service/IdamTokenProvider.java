@@ -0,0 +1,205 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uk.gov.hmcts.reform.sscs.idam.IdamService;
+import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Shares one set of IDAM and S2S tokens between every downstream call made by this instance.
+ *
+ * <p>Tokens are kept for the configured time to live and refreshed in the background shortly before they expire, so
+ * callers normally never wait for IDAM. A caller that finds no usable tokens fetches them itself, and callers
+ * arriving while a fetch is in flight wait for that fetch rather than starting their own. Tokens a downstream service
+ * rejects as unauthorised are dropped, so they are fetched again on the next call.
+ */
+@Slf4j
+@Service
+public class IdamTokenProvider {
+
+    public static final String FETCH_METRIC = "hearings.idam.tokens.fetch";
+    public static final String REFRESH_FAILED_METRIC = "hearings.idam.tokens.refresh.failed";
+    public static final String INVALIDATED_METRIC = "hearings.idam.tokens.invalidated";
+
+    private final boolean enabled;
+
+    private final IdamService idamService;
+
+    private final Duration ttl;
+
+    private final Duration refreshAhead;
+
+    private final Clock clock;
+
+    private final Timer fetchTimer;
+
+    private final Counter refreshFailedCounter;
+
+    private final Counter invalidatedCounter;
+
+    private volatile CachedTokens cached;
+
+    private CompletableFuture<IdamTokens> inFlight;
+
+    @Autowired
+    public IdamTokenProvider(@Value("${feature.idam-token-cache.enabled:false}") boolean enabled,
+                             IdamService idamService,
+                             @Value("${idam.token-cache.ttl-seconds:1800}") long ttlSeconds,
+                             @Value("${idam.token-cache.refresh-ahead-seconds:300}") long refreshAheadSeconds,
+                             MeterRegistry meterRegistry) {
+        this(enabled, idamService, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(refreshAheadSeconds),
+            Clock.systemUTC(), meterRegistry);
+    }
+
+    IdamTokenProvider(boolean enabled, IdamService idamService, Duration ttl, Duration refreshAhead, Clock clock,
+                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.idamService = idamService;
+        this.ttl = ttl;
+        this.refreshAhead = refreshAhead;
+        this.clock = clock;
+        this.fetchTimer = Timer.builder(FETCH_METRIC)
+            .register(meterRegistry);
+        this.refreshFailedCounter = Counter.builder(REFRESH_FAILED_METRIC)
+            .register(meterRegistry);
+        this.invalidatedCounter = Counter.builder(INVALIDATED_METRIC)
+            .register(meterRegistry);
+    }
+
+    public IdamTokens getIdamTokens() {
+        if (!enabled) {
+            return fetch();
+        }
+        CachedTokens current = cached;
+        if (current != null && current.isUsable(clock.instant(), ttl)) {
+            return current.tokens;
+        }
+        return refresh();
+    }
+
+    /**
+     * Refreshes the tokens ahead of expiry. A failed refresh leaves the current tokens in place until they expire.
+     */
+    @Scheduled(fixedDelayString = "${idam.token-cache.refresh-check-ms:60000}")
+    public void refreshIfDue() {
+        if (!enabled) {
+            return;
+        }
+        CachedTokens current = cached;
+        if (current == null || !current.isUsable(clock.instant(), ttl.minus(refreshAhead))) {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.warn("Unable to refresh IDAM tokens ahead of expiry", e);
+            }
+        }
+    }
+
+    /**
+     * Drops the cached tokens if the failed call was rejected as unauthorised, for example because IDAM revoked the
+     * tokens before they expired, so the next caller fetches new tokens instead of sending the rejected ones until
+     * they expire.
+     */
+    public void invalidateIfRejected(FeignException exception) {
+        if (exception instanceof FeignException.Unauthorized) {
+            invalidateIfRejected(exception.request());
+        }
+    }
+
+    /**
+     * Drops the cached tokens after a downstream service rejected a request as unauthorised, if the request was sent
+     * with them. Tokens fetched since the request was sent are kept.
+     */
+    public synchronized void invalidateIfRejected(Request request) {
+        CachedTokens current = cached;
+        if (!enabled || current == null || (request != null && !current.isSentWith(request))) {
+            return;
+        }
+        cached = null;
+        invalidatedCounter.increment();
+        log.warn("Dropped cached IDAM tokens rejected by {}", request == null ? "a downstream service" : request.url());
+    }
+
+    IdamTokens refresh() {
+        CompletableFuture<IdamTokens> flight;
+        boolean leader = false;
+        synchronized (this) {
+            if (inFlight == null) {
+                inFlight = new CompletableFuture<>();
+                leader = true;
+            }
+            flight = inFlight;
+        }
+        if (!leader) {
+            return await(flight);
+        }
+
+        try {
+            IdamTokens tokens = fetch();
+            cached = new CachedTokens(tokens, clock.instant());
+            flight.complete(tokens);
+            return tokens;
+        } catch (RuntimeException e) {
+            refreshFailedCounter.increment();
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (this) {
+                inFlight = null;
+            }
+        }
+    }
+
+    private IdamTokens fetch() {
+        return fetchTimer.record(idamService::getIdamTokens);
+    }
+
+    private static IdamTokens await(CompletableFuture<IdamTokens> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class CachedTokens {
+
+        private final IdamTokens tokens;
+
+        private final Instant fetchedAt;
+
+        private CachedTokens(IdamTokens tokens, Instant fetchedAt) {
+            this.tokens = tokens;
+            this.fetchedAt = fetchedAt;
+        }
+
+        private boolean isUsable(Instant now, Duration maxAge) {
+            return now.isBefore(fetchedAt.plus(maxAge));
+        }
+
+        private boolean isSentWith(Request request) {
+            return request.headers().values().stream()
+                .flatMap(Collection::stream)
+                .anyMatch(value -> value.equals(tokens.getIdamOauth2Token())
+                    || value.equals(tokens.getServiceAuthorization()));
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package uk.gov.hmcts.reform.sscs.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.ReflectionUtils;
+import uk.gov.hmcts.reform.sscs.ccd.domain.Appeal;
 import uk.gov.hmcts.reform.sscs.ccd.domain.CaseLink;
 import uk.gov.hmcts.reform.sscs.ccd.domain.CaseLinkDetails;
+import uk.gov.hmcts.reform.sscs.ccd.domain.CcdValue;
+import uk.gov.hmcts.reform.sscs.ccd.domain.Entity;
 import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
+import uk.gov.hmcts.reform.sscs.ccd.domain.OtherParty;
+import uk.gov.hmcts.reform.sscs.ccd.domain.OverrideFields;
+import uk.gov.hmcts.reform.sscs.ccd.domain.Party;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SchedulingAndListingFields;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
 import uk.gov.hmcts.reform.sscs.exception.GetCaseException;
@@ -16,16 +26,20 @@ import uk.gov.hmcts.reform.sscs.exception.ListingException;
 import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
 import uk.gov.hmcts.reform.sscs.helper.mapping.HearingsCaseMapping;
 import uk.gov.hmcts.reform.sscs.helper.mapping.ServiceHearingValuesMapping;
+import uk.gov.hmcts.reform.sscs.model.CaseProjection;
 import uk.gov.hmcts.reform.sscs.model.service.ServiceHearingRequest;
 import uk.gov.hmcts.reform.sscs.model.service.hearingvalues.ServiceHearingValues;
 import uk.gov.hmcts.reform.sscs.model.service.linkedcases.ServiceLinkedCases;
 import uk.gov.hmcts.reform.sscs.service.holder.ReferenceDataServiceHolder;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -34,40 +48,57 @@ public class ServiceHearingsService {
 
     public static final int NUM_CASES_EXPECTED = 1;
 
+    private static final String UPDATE_SUMMARY = "Updating caseDetails IDs";
+
+    private static final String UPDATE_DESCRIPTION = "IDs updated for caseDetails due to ServiceHearingValues request";
+
     private final CcdCaseService ccdCaseService;
 
     private final ReferenceDataServiceHolder refData;
 
-    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final CaseLockService caseLockService;
 
-    public ServiceHearingValues getServiceHearingValues(ServiceHearingRequest request)
-        throws GetCaseException, UpdateCaseException, ListingException, JsonProcessingException {
-        SscsCaseDetails caseDetails = ccdCaseService.getCaseDetails(request.getCaseId());
+    private final CaseWriteBackQueue caseWriteBackQueue;
 
-        SscsCaseData caseData = caseDetails.getData();
-        String originalCaseData = objectMapper.writeValueAsString(caseData);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
-        ServiceHearingValues model = ServiceHearingValuesMapping.mapServiceHearingValues(caseData, refData);
+    @Value("${feature.projected-case-search.enabled:false}")
+    private boolean projectedCaseSearchEnabled;
 
-        String updatedCaseData = objectMapper.writeValueAsString(caseData);
+    @Value("${feature.service-hearing-values-change-detection.enabled:false}")
+    private boolean changeDetectionEnabled;
 
-        if (!originalCaseData.equals(updatedCaseData)) {
-            log.debug("Updating case data with Service Hearing Values for Case ID {}", caseData.getCcdCaseId());
-            ccdCaseService.updateCaseData(
-                caseData,
-                EventType.UPDATE_CASE_ONLY,
-                "Updating caseDetails IDs",
-                "IDs updated for caseDetails due to ServiceHearingValues request");
+    public ServiceHearingValues getServiceHearingValues(ServiceHearingRequest request)
+        throws GetCaseException, UpdateCaseException, ListingException, JsonProcessingException {
+        try (CaseLockService.CaseLock caseLock = caseLockService.lock(request.getCaseId(), "service-hearing-values")) {
+            SscsCaseDetails caseDetails = getCaseDetails(request.getCaseId());
+
+            SscsCaseData caseData = caseDetails.getData();
+            Object originalCaseData = snapshotCaseData(caseData);
+            JsonNode readCaseData = caseWriteBackQueue.isEnabled() ? CaseDataPatch.snapshot(caseData) : null;
+
+            ServiceHearingValues model = ServiceHearingValuesMapping.mapServiceHearingValues(caseData, refData);
+
+            if (!originalCaseData.equals(snapshotCaseData(caseData))) {
+                log.debug("Updating case data with Service Hearing Values for Case ID {}", caseData.getCcdCaseId());
+                if (caseWriteBackQueue.isEnabled()) {
+                    caseWriteBackQueue.enqueue(caseDetails, readCaseData, EventType.UPDATE_CASE_ONLY, UPDATE_SUMMARY,
+                        UPDATE_DESCRIPTION);
+                } else {
+                    ccdCaseService.updateCaseData(caseData, EventType.UPDATE_CASE_ONLY, UPDATE_SUMMARY,
+                        UPDATE_DESCRIPTION);
+                }
+            }
+
+            return model;
         }
-
-        return model;
     }
 
     public List<ServiceLinkedCases> getServiceLinkedCases(ServiceHearingRequest request)
         throws GetCaseException {
 
         String caseId = request.getCaseId();
-        List<SscsCaseDetails> mainCaseData = ccdCaseService.getCasesViaElastic(List.of(request.getCaseId()));
+        List<SscsCaseDetails> mainCaseData = searchCases(List.of(request.getCaseId()), CaseProjection.LINKED_CASE_REFERENCES);
 
         if (mainCaseData == null || mainCaseData.size() != NUM_CASES_EXPECTED) {
             throw new GetCaseException(
@@ -86,9 +117,10 @@ public class ServiceHearingsService {
 
         log.info("{} linked case references found for case: {}", linkedReferences.size(), caseId);
 
-        List<SscsCaseDetails> linkedCases = ccdCaseService.getCasesViaElastic(linkedReferences);
+        Stream<SscsCaseDetails> linkedCases = ccdCaseService.streamCasesViaElastic(linkedReferences,
+            projectedCaseSearchEnabled ? CaseProjection.CASE_NAME : CaseProjection.FULL);
 
-        return linkedCases.stream().map(linkedCase ->
+        return linkedCases.map(linkedCase ->
             ServiceLinkedCases.builder()
                 .caseReference(linkedCase.getId().toString())
                 .caseName(linkedCase.getData().getCaseAccessManagementFields().getCaseNamePublic())
@@ -96,4 +128,90 @@ public class ServiceHearingsService {
                 .build())
             .collect(Collectors.toList());
     }
+
+    /**
+     * Reads the case, preferring any case data still queued to be written back so that the values returned match
+     * the IDs that are about to be saved. The case is otherwise read from CCD rather than the cache, as the values
+     * returned must reflect the current case.
+     */
+    private SscsCaseDetails getCaseDetails(String caseId) throws GetCaseException {
+        if (caseWriteBackQueue.isEnabled()) {
+            Optional<SscsCaseDetails> queued = caseWriteBackQueue.getQueued(Long.parseLong(caseId));
+            if (queued.isPresent()) {
+                log.debug("Using the case data queued to be written back for Case ID {}", caseId);
+                return queued.get();
+            }
+        }
+        return ccdCaseService.getCaseDetails(Long.parseLong(caseId));
+    }
+
+    private List<SscsCaseDetails> searchCases(List<String> caseReferences, CaseProjection projection) {
+        return projectedCaseSearchEnabled
+            ? ccdCaseService.getCasesViaElastic(caseReferences, projection)
+            : ccdCaseService.getCasesViaElastic(caseReferences);
+    }
+
+    /**
+     * Captures what the service hearing values mappers can change, so comparing captures taken either side of the
+     * mapping decides whether the case needs writing back. With change detection enabled only the fields the mappers
+     * write are captured rather than the JSON of the whole case.
+     */
+    private Object snapshotCaseData(SscsCaseData caseData) throws JsonProcessingException {
+        if (!changeDetectionEnabled) {
+            return objectMapper.writeValueAsString(caseData);
+        }
+        return MappedFields.of(caseData);
+    }
+
+    /**
+     * The fields the service hearing values mappers write: the override fields and default listing values, with the
+     * override duration that is set in place for an adjournment, and the ID of each party, which is generated when it
+     * is first read.
+     */
+    private record MappedFields(OverrideFields overrideFields, Integer overrideDuration,
+                                OverrideFields defaultListingValues, List<String> partyIds) {
+
+        private static final Field ID = Objects.requireNonNull(ReflectionUtils.findField(Entity.class, "id"));
+
+        static {
+            ReflectionUtils.makeAccessible(ID);
+        }
+
+        static MappedFields of(SscsCaseData caseData) {
+            Optional<SchedulingAndListingFields> fields = Optional.ofNullable(caseData.getSchedulingAndListingFields());
+            Optional<OverrideFields> overrideFields = fields.map(SchedulingAndListingFields::getOverrideFields);
+            return new MappedFields(
+                overrideFields.orElse(null),
+                overrideFields.map(OverrideFields::getDuration).orElse(null),
+                fields.map(SchedulingAndListingFields::getDefaultListingValues).orElse(null),
+                partyIds(caseData));
+        }
+
+        /**
+         * Reads the party IDs without their getters, which would generate any that are missing.
+         */
+        private static List<String> partyIds(SscsCaseData caseData) {
+            List<Party> parties = new ArrayList<>();
+            Optional.ofNullable(caseData.getAppeal()).map(Appeal::getAppellant).ifPresent(parties::add);
+            Optional.ofNullable(caseData.getOtherParties()).orElseGet(Collections::emptyList).stream()
+                .filter(Objects::nonNull)
+                .map(CcdValue::getValue)
+                .filter(Objects::nonNull)
+                .forEach(parties::add);
+
+            List<Entity> entities = new ArrayList<>();
+            Optional.ofNullable(caseData.getAppeal()).map(Appeal::getRep).ifPresent(entities::add);
+            Optional.ofNullable(caseData.getJointParty()).ifPresent(entities::add);
+            for (Party party : parties) {
+                entities.add(party);
+                Optional.ofNullable(party.getAppointee()).ifPresent(entities::add);
+                if (party instanceof OtherParty otherParty) {
+                    Optional.ofNullable(otherParty.getRep()).ifPresent(entities::add);
+                }
+            }
+            return entities.stream()
+                .map(entity -> (String) ReflectionUtils.getField(ID, entity))
+                .collect(Collectors.toList());
+        }
+    }
 }
@@ -0,0 +1,154 @@
+package uk.gov.hmcts.reform.sscs.service.bulk;
+
+import lombok.Getter;
+import uk.gov.hmcts.reform.sscs.ccd.domain.HearingState;
+import uk.gov.hmcts.reform.sscs.model.bulk.BulkHearingJobStatus;
+import uk.gov.hmcts.reform.sscs.model.bulk.BulkHearingResult;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Progress of a bulk hearing job, with the per case results queued for the client that submitted it.
+ */
+public class BulkHearingJob {
+
+    static final int MAX_REPORTED_FAILURES = 100;
+
+    /**
+     * Receives the result of each case of a job.
+     */
+    @FunctionalInterface
+    public interface ResultSink {
+        void send(BulkHearingResult result) throws IOException;
+    }
+
+    @Getter
+    private final String id;
+
+    @Getter
+    private final HearingState hearingState;
+
+    @Getter
+    private final List<String> caseIds;
+
+    private final Clock clock;
+
+    private final BlockingQueue<BulkHearingResult> pendingResults = new LinkedBlockingQueue<>();
+
+    private final List<BulkHearingResult> failures = new ArrayList<>();
+
+    private boolean streaming = true;
+
+    private int succeeded;
+
+    private int failed;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    BulkHearingJob(String id, HearingState hearingState, List<String> caseIds, Clock clock) {
+        this.id = id;
+        this.hearingState = hearingState;
+        this.caseIds = List.copyOf(caseIds);
+        this.clock = clock;
+    }
+
+    synchronized void started() {
+        startedAt = clock.instant();
+    }
+
+    void record(BulkHearingResult result) {
+        synchronized (this) {
+            if (result.getOutcome() == BulkHearingResult.Outcome.SUCCEEDED) {
+                succeeded++;
+            } else {
+                failed++;
+                if (failures.size() < MAX_REPORTED_FAILURES) {
+                    failures.add(result);
+                }
+            }
+            if (succeeded + failed == caseIds.size()) {
+                finishedAt = clock.instant();
+            }
+            if (!streaming) {
+                return;
+            }
+        }
+        pendingResults.add(result);
+    }
+
+    public synchronized boolean isFinished() {
+        return nonNull(finishedAt);
+    }
+
+    /**
+     * Sends each case result to the sink as soon as it completes, returning once every case has been reported. If the
+     * sink fails, for example because the client has gone away, the job carries on and only its status remains
+     * available.
+     */
+    public void streamResults(ResultSink sink) throws IOException {
+        try {
+            for (int sent = 0; sent < caseIds.size(); sent++) {
+                sink.send(pendingResults.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopStreaming();
+        } catch (IOException e) {
+            stopStreaming();
+            throw e;
+        }
+    }
+
+    private void stopStreaming() {
+        synchronized (this) {
+            streaming = false;
+        }
+        pendingResults.clear();
+    }
+
+    public synchronized BulkHearingJobStatus getStatus() {
+        int completed = succeeded + failed;
+        BulkHearingJobStatus.State state;
+        if (isNull(startedAt)) {
+            state = BulkHearingJobStatus.State.QUEUED;
+        } else if (isNull(finishedAt)) {
+            state = BulkHearingJobStatus.State.RUNNING;
+        } else {
+            state = BulkHearingJobStatus.State.COMPLETED;
+        }
+        return BulkHearingJobStatus.builder()
+            .jobId(id)
+            .hearingState(hearingState)
+            .state(state)
+            .total(caseIds.size())
+            .completed(completed)
+            .succeeded(succeeded)
+            .failed(failed)
+            .startedAt(startedAt)
+            .finishedAt(finishedAt)
+            .casesPerSecond(throughput(completed))
+            .failures(List.copyOf(failures))
+            .build();
+    }
+
+    private double throughput(int completed) {
+        if (isNull(startedAt) || completed == 0) {
+            return 0;
+        }
+        Instant end = nonNull(finishedAt) ? finishedAt : clock.instant();
+        long elapsedMillis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return completed * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,274 @@
+package uk.gov.hmcts.reform.sscs.service.bulk;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import uk.gov.hmcts.reform.sscs.ccd.domain.HearingRoute;
+import uk.gov.hmcts.reform.sscs.ccd.domain.HearingState;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.exception.GetCaseException;
+import uk.gov.hmcts.reform.sscs.exception.InvalidHearingDataException;
+import uk.gov.hmcts.reform.sscs.exception.ListingException;
+import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
+import uk.gov.hmcts.reform.sscs.model.bulk.BulkHearingRequest;
+import uk.gov.hmcts.reform.sscs.model.bulk.BulkHearingResult;
+import uk.gov.hmcts.reform.sscs.model.hearings.HearingRequest;
+import uk.gov.hmcts.reform.sscs.service.CcdCaseService;
+import uk.gov.hmcts.reform.sscs.service.HearingsService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+
+import static java.util.Objects.isNull;
+import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.LISTING_ERROR;
+
+/**
+ * Runs hearing requests for many cases at once, for example to relist every case at a closed venue.
+ *
+ * <p>Jobs are dispatched one after another. Cases are started no faster than the configured rate and at most the
+ * configured number are in flight at any time across all jobs, so a bulk job cannot swamp HMC or CCD. Each case is
+ * tried once, without the backoff a hearing request message is retried with, so a failing case does not hold up the
+ * others; a case with a listing error is moved to the listing error state.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "feature.bulk-hearings.enabled", havingValue = "true")
+@SuppressWarnings("PMD.AvoidCatchingGenericException")
+public class BulkHearingsService {
+
+    public static final String PROCESSED_METRIC = "hearings.bulk.processed";
+
+    public static final Set<HearingState> SUPPORTED_STATES = EnumSet.of(HearingState.CREATE_HEARING, HearingState.UPDATE_HEARING);
+
+    private static final int RETAINED_JOBS = 50;
+
+    private final HearingsService hearingsService;
+
+    private final CcdCaseService ccdCaseService;
+
+    private final int maxCases;
+
+    private final long pacingNanos;
+
+    private final Semaphore inFlight;
+
+    private final Clock clock;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService dispatcher;
+
+    private final ExecutorService workers;
+
+    private final ExecutorService streamers;
+
+    private final Map<String, BulkHearingJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BulkHearingJob> eldest) {
+            return size() > RETAINED_JOBS && eldest.getValue().isFinished();
+        }
+    });
+
+    private long nextStartNanos;
+
+    @Autowired
+    public BulkHearingsService(HearingsService hearingsService,
+                               CcdCaseService ccdCaseService,
+                               @Value("${bulk-hearings.concurrency:4}") int concurrency,
+                               @Value("${bulk-hearings.rate-per-second:5}") double ratePerSecond,
+                               @Value("${bulk-hearings.max-cases:5000}") int maxCases,
+                               MeterRegistry meterRegistry) {
+        this(hearingsService, ccdCaseService, concurrency, ratePerSecond, maxCases, Clock.systemUTC(), meterRegistry);
+    }
+
+    BulkHearingsService(HearingsService hearingsService, CcdCaseService ccdCaseService, int concurrency,
+                        double ratePerSecond, int maxCases, Clock clock, MeterRegistry meterRegistry) {
+        this.hearingsService = hearingsService;
+        this.ccdCaseService = ccdCaseService;
+        this.maxCases = maxCases;
+        this.pacingNanos = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+        this.inFlight = new Semaphore(Math.max(1, concurrency));
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.dispatcher = Executors.newSingleThreadExecutor(namedThreads("bulk-hearings-dispatcher"));
+        this.workers = Executors.newFixedThreadPool(Math.max(1, concurrency), namedThreads("bulk-hearings-worker"));
+        this.streamers = Executors.newCachedThreadPool(namedThreads("bulk-hearings-streamer"));
+    }
+
+    public BulkHearingJob submit(BulkHearingRequest request) throws InvalidHearingDataException {
+        validate(request);
+        BulkHearingJob job = new BulkHearingJob(UUID.randomUUID().toString(), request.getHearingState(),
+            request.getCaseIds(), clock);
+        jobs.put(job.getId(), job);
+        log.info("Queued bulk hearing job {} with {} cases and Hearing State {}",
+            job.getId(), job.getCaseIds().size(), job.getHearingState());
+        dispatcher.execute(() -> run(job));
+        return job;
+    }
+
+    /**
+     * Sends the results of the job to the sink on a separate thread, completing once every case has been reported.
+     */
+    public CompletableFuture<Void> streamResults(BulkHearingJob job, BulkHearingJob.ResultSink sink) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                job.streamResults(sink);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, streamers);
+    }
+
+    public Optional<BulkHearingJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        workers.shutdownNow();
+        streamers.shutdownNow();
+    }
+
+    private void validate(BulkHearingRequest request) throws InvalidHearingDataException {
+        if (isNull(request.getCaseIds()) || request.getCaseIds().isEmpty()) {
+            throw new InvalidHearingDataException("At least one case ID is required for a bulk hearing job");
+        }
+        if (request.getCaseIds().size() > maxCases) {
+            throw new InvalidHearingDataException(String.format(
+                "A bulk hearing job can have at most %s cases", maxCases));
+        }
+        if (request.getCaseIds().stream().anyMatch(caseId -> isNull(caseId) || !caseId.matches("\\d+"))) {
+            throw new InvalidHearingDataException("Bulk hearing case IDs must be numeric");
+        }
+        if (!SUPPORTED_STATES.contains(request.getHearingState())) {
+            throw new InvalidHearingDataException(String.format(
+                "Bulk hearing jobs only support the Hearing States %s", SUPPORTED_STATES));
+        }
+    }
+
+    private void run(BulkHearingJob job) {
+        log.info("Starting bulk hearing job {}", job.getId());
+        job.started();
+        List<String> caseIds = job.getCaseIds();
+        for (int index = 0; index < caseIds.size(); index++) {
+            String caseId = caseIds.get(index);
+            try {
+                pace();
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                caseIds.subList(index, caseIds.size())
+                    .forEach(remaining -> job.record(failure(remaining, "Bulk hearing job was interrupted", 0)));
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    process(job, caseId);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private void pace() throws InterruptedException {
+        if (pacingNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (nextStartNanos - now > 0) {
+            TimeUnit.NANOSECONDS.sleep(nextStartNanos - now);
+            now = nextStartNanos;
+        }
+        nextStartNanos = now + pacingNanos;
+    }
+
+    private void process(BulkHearingJob job, String caseId) {
+        long start = System.nanoTime();
+        try {
+            hearingsService.processHearingRequestOnce(HearingRequest.builder(caseId)
+                .hearingState(job.getHearingState())
+                .hearingRoute(HearingRoute.LIST_ASSIST)
+                .build(), null);
+            job.record(BulkHearingResult.builder()
+                .caseId(caseId)
+                .outcome(BulkHearingResult.Outcome.SUCCEEDED)
+                .durationMs(elapsedMillis(start))
+                .build());
+            countProcessed(BulkHearingResult.Outcome.SUCCEEDED);
+        } catch (ListingException e) {
+            log.warn("Bulk hearing job {} found a listing error for Case ID {}", job.getId(), caseId, e);
+            recordListingError(caseId, e);
+            job.record(failure(caseId, e.getMessage(), elapsedMillis(start)));
+            countProcessed(BulkHearingResult.Outcome.FAILED);
+        } catch (Exception e) {
+            log.warn("Bulk hearing job {} failed for Case ID {}", job.getId(), caseId, e);
+            job.record(failure(caseId, e.getMessage(), elapsedMillis(start)));
+            countProcessed(BulkHearingResult.Outcome.FAILED);
+        }
+    }
+
+    /**
+     * Moves the case to the listing error state, as a listing error from a hearing request message does.
+     */
+    private void recordListingError(String caseId, ListingException listingException) {
+        try {
+            SscsCaseData caseData = ccdCaseService.getCaseDetails(caseId).getData();
+            ccdCaseService.updateCaseData(caseData, LISTING_ERROR, listingException.getSummary(),
+                listingException.getDescription());
+        } catch (GetCaseException | UpdateCaseException e) {
+            log.error("Unable to record the listing error for Case ID {}", caseId, e);
+        }
+    }
+
+    private static BulkHearingResult failure(String caseId, String error, long durationMs) {
+        return BulkHearingResult.builder()
+            .caseId(caseId)
+            .outcome(BulkHearingResult.Outcome.FAILED)
+            .error(error)
+            .durationMs(durationMs)
+            .build();
+    }
+
+    private void countProcessed(BulkHearingResult.Outcome outcome) {
+        Counter.builder(PROCESSED_METRIC)
+            .tag("outcome", outcome.name())
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
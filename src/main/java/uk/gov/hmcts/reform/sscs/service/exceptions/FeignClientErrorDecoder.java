@@ -12,6 +12,7 @@ import org.springframework.web.server.ResponseStatusException;
 import uk.gov.hmcts.reform.sscs.model.HmcFailureMessage;
 import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingRequestPayload;
 import uk.gov.hmcts.reform.sscs.service.AppInsightsService;
+import uk.gov.hmcts.reform.sscs.service.IdamTokenProvider;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -28,10 +29,13 @@ public class FeignClientErrorDecoder implements ErrorDecoder {
     public static final Pattern HEARINGS_PATH_REGEX = Pattern.compile("(.*?/hearings/)(\\d+)");
     private final AppInsightsService appInsightsService;
     private final ObjectMapper objectMapper;
+    private final IdamTokenProvider idamTokenProvider;
 
-    public FeignClientErrorDecoder(AppInsightsService appInsightsService, ObjectMapper objectMapper) {
+    public FeignClientErrorDecoder(AppInsightsService appInsightsService, ObjectMapper objectMapper,
+                                   IdamTokenProvider idamTokenProvider) {
         this.appInsightsService = appInsightsService;
         this.objectMapper = objectMapper;
+        this.idamTokenProvider = idamTokenProvider;
     }
 
     @Override
@@ -53,6 +57,10 @@ public class FeignClientErrorDecoder implements ErrorDecoder {
         }
         logServiceFailureError(response);
 
+        if (response.status() == HttpStatus.UNAUTHORIZED.value()) {
+            idamTokenProvider.invalidateIfRejected(response.request());
+        }
+
         return new ResponseStatusException(HttpStatus.valueOf(response.status()),
             "Error in calling the client method:" + methodKey);
     }
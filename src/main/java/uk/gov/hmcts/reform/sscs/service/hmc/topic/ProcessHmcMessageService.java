@@ -1,20 +1,31 @@
 package uk.gov.hmcts.reform.sscs.service.hmc.topic;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.sscs.ccd.domain.DwpState;
 import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
 import uk.gov.hmcts.reform.sscs.exception.CaseException;
 import uk.gov.hmcts.reform.sscs.exception.MessageProcessingException;
 import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
 import uk.gov.hmcts.reform.sscs.model.hmc.message.HmcMessage;
+import uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcMessageRoute;
 import uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcStatus;
 import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingGetResponse;
+import uk.gov.hmcts.reform.sscs.service.CaseLockService;
+import uk.gov.hmcts.reform.sscs.service.CaseWriteBackQueue;
 import uk.gov.hmcts.reform.sscs.service.CcdCaseService;
 import uk.gov.hmcts.reform.sscs.service.HmcHearingApiService;
 
+import java.util.Arrays;
 import java.util.function.BiFunction;
 
 import static java.util.Objects.isNull;
@@ -32,21 +43,59 @@ import static uk.gov.hmcts.reform.sscs.model.hmc.reference.ListingStatus.FIXED;
 @RequiredArgsConstructor
 public class ProcessHmcMessageService {
 
+    public static final String SKIPPED_HEARING_REQUEST_METRIC = "hearings.hmc.get.skipped";
+
+    public static final String SKIPPED_CASE_UPDATE_METRIC = "hearings.hmc.ccd.update.skipped";
+
     private final HmcHearingApiService hmcHearingApiService;
 
     private final CcdCaseService ccdCaseService;
 
     private final HearingUpdateService hearingUpdateService;
 
+    private final CaseLockService caseLockService;
+
+    private final CaseWriteBackQueue caseWriteBackQueue;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Value("${flags.hmc-message-routing.enabled:false}")
+    private boolean messageRoutingEnabled;
+
+    @Value("${feature.hmc-two-call-update.enabled:false}")
+    private boolean twoCallUpdateEnabled;
+
+    @Value("${feature.hmc-no-op-update-suppression.enabled:false}")
+    private boolean noOpUpdateSuppressionEnabled;
+
     public void processEventMessage(HmcMessage hmcMessage)
         throws CaseException, MessageProcessingException {
 
         Long caseId = hmcMessage.getCaseId();
         String hearingId = hmcMessage.getHearingId();
 
-        HearingGetResponse hearingResponse = hmcHearingApiService.getHearingRequest(hearingId);
-
         HmcStatus hmcMessageStatus = hmcMessage.getHearingUpdate().getHmcStatus();
+        HmcMessageRoute route = route(hmcMessageStatus);
+
+        if (!route.isHearingRequestRequired()) {
+            Counter.builder(SKIPPED_HEARING_REQUEST_METRIC)
+                .tag("status", hmcMessageStatus.name())
+                .register(meterRegistry)
+                .increment();
+        }
+
+        if (!route.isCaseUpdateRequired()) {
+            log.info("CCD state is not updated for HMC status {} for the Hearing ID {} and Case ID {}",
+                hmcMessageStatus, hearingId, caseId
+            );
+            return;
+        }
+
+        HearingGetResponse hearingResponse = route.isHearingRequestRequired()
+            ? hmcHearingApiService.getHearingRequest(hearingId)
+            : null;
 
         if (stateNotHandled(hmcMessageStatus, hearingResponse)) {
             log.info("CCD state has not been updated for the Hearing ID {} and Case ID {}",
@@ -57,26 +106,39 @@ public class ProcessHmcMessageService {
 
         log.info("Processing message for HMC status {} with cancellation reasons {} for the Hearing ID {} and Case ID"
                 + " {}",
-                 hmcMessageStatus, hearingResponse.getRequestDetails().getCancellationReasonCodes(),
+                 hmcMessageStatus, isNull(hearingResponse) ? null : hearingResponse.getRequestDetails().getCancellationReasonCodes(),
             hearingId, caseId
         );
 
-        SscsCaseData caseData = ccdCaseService.getCaseDetails(caseId).getData();
-
-        DwpState resolvedState = hearingUpdateService.resolveDwpState(hmcMessageStatus);
-        if (resolvedState != null) {
-            caseData.setDwpState(resolvedState);
+        try (CaseLockService.CaseLock caseLock = caseLockService.lock(String.valueOf(caseId), "hmc")) {
+            caseWriteBackQueue.flush(caseId);
+            EventType startedEvent = twoCallUpdateEnabled ? preResolveEvent(hmcMessageStatus) : null;
+            SscsCaseDetails caseDetails = isNull(startedEvent)
+                ? ccdCaseService.getCaseDetails(caseId)
+                : ccdCaseService.getStartEventResponse(caseId, startedEvent);
+            SscsCaseData caseData = caseDetails.getData();
+            JsonNode originalFields = noOpUpdateSuppressionEnabled ? snapshotUpdatedFields(caseData) : null;
+
+            DwpState resolvedState = hearingUpdateService.resolveDwpState(hmcMessageStatus);
+            if (resolvedState != null) {
+                caseData.setDwpState(resolvedState);
+            }
+            if (isHearingUpdated(hmcMessageStatus, hearingResponse)) {
+                hearingUpdateService.updateHearing(hearingResponse, caseData);
+            }
+
+            hearingUpdateService.setHearingStatus(hearingId, caseData, hmcMessageStatus);
+            hearingUpdateService.setWorkBasketFields(hearingId, caseData, hmcMessageStatus);
+
+            String ccdUpdateDescription = String.format(hmcMessageStatus.getCcdUpdateDescription(), hearingId);
+
+            if (isNull(startedEvent)) {
+                resolveEventAndUpdateCase(hearingResponse, hmcMessageStatus, caseData, ccdUpdateDescription, originalFields);
+            } else if (!isNoOpUpdate(startedEvent, hmcMessageStatus, caseData, originalFields)) {
+                ccdCaseService.updateCaseData(caseData, caseDetails, startedEvent,
+                    hmcMessageStatus.getCcdUpdateSummary(), ccdUpdateDescription);
+            }
         }
-        if (isHearingUpdated(hmcMessageStatus, hearingResponse)) {
-            hearingUpdateService.updateHearing(hearingResponse, caseData);
-        }
-
-        hearingUpdateService.setHearingStatus(hearingId, caseData, hmcMessageStatus);
-        hearingUpdateService.setWorkBasketFields(hearingId, caseData, hmcMessageStatus);
-
-        String ccdUpdateDescription = String.format(hmcMessageStatus.getCcdUpdateDescription(), hearingId);
-
-        resolveEventAndUpdateCase(hearingResponse, hmcMessageStatus, caseData, ccdUpdateDescription);
 
         log.info(
             "Hearing message {} processed for case reference {}",
@@ -85,8 +147,21 @@ public class ProcessHmcMessageService {
         );
     }
 
+    /**
+     * Whether processing a message with the status reads the hearing from HMC and updates the case, so that it applies
+     * the latest state of the hearing whatever the status of the messages before it.
+     */
+    public boolean rereadsHearing(HmcStatus hmcStatus) {
+        HmcMessageRoute route = route(hmcStatus);
+        return route.isHearingRequestRequired() && route.isCaseUpdateRequired();
+    }
+
+    private HmcMessageRoute route(HmcStatus hmcStatus) {
+        return messageRoutingEnabled ? hmcStatus.getRoute() : HmcMessageRoute.HEARING_REQUEST;
+    }
+
     private void resolveEventAndUpdateCase(HearingGetResponse hearingResponse, HmcStatus hmcStatus, SscsCaseData caseData,
-                                           String ccdUpdateDescription) throws UpdateCaseException {
+                                           String ccdUpdateDescription, JsonNode originalFields) throws UpdateCaseException {
 
         BiFunction<HearingGetResponse, SscsCaseData, EventType> eventMapper = hmcStatus.getEventMapper();
         log.info("PostponementRequest {}", caseData.getPostponement());
@@ -104,6 +179,10 @@ public class ProcessHmcMessageService {
             return;
         }
 
+        if (isNoOpUpdate(eventType, hmcStatus, caseData, originalFields)) {
+            return;
+        }
+
         ccdCaseService.updateCaseData(
             caseData,
             eventType,
@@ -111,9 +190,43 @@ public class ProcessHmcMessageService {
             ccdUpdateDescription);
     }
 
+    /**
+     * Resolves the CCD event for the status before the case is read, so the event can be started with the read
+     * instead of reading the case and then starting the event separately. Returns null when the event depends on the
+     * case data or the status does not update the case.
+     */
+    private EventType preResolveEvent(HmcStatus hmcStatus) {
+        return hmcStatus.getEvent();
+    }
+
+    /**
+     * An update that does not move the case to a new state and leaves every field an HMC message can change as it
+     * was would submit an event that changes nothing, so it is skipped.
+     */
+    private boolean isNoOpUpdate(EventType eventType, HmcStatus hmcStatus, SscsCaseData caseData, JsonNode originalFields) {
+        if (isNull(originalFields) || eventType != EventType.UPDATE_CASE_ONLY
+            || !originalFields.equals(snapshotUpdatedFields(caseData))) {
+            return false;
+        }
+        Counter.builder(SKIPPED_CASE_UPDATE_METRIC)
+            .tag("status", hmcStatus.name())
+            .register(meterRegistry)
+            .increment();
+        log.info("Case has not been updated for HMC Status {} as nothing has changed for the Case ID {}",
+            hmcStatus, caseData.getCcdCaseId());
+        return true;
+    }
+
+    private JsonNode snapshotUpdatedFields(SscsCaseData caseData) {
+        return objectMapper.valueToTree(Arrays.asList(
+            caseData.getHearings(),
+            caseData.getWorkBasketFields(),
+            caseData.getDwpState()));
+    }
+
     private boolean stateNotHandled(HmcStatus hmcStatus, HearingGetResponse hearingResponse) {
-        return !(isHearingUpdated(hmcStatus, hearingResponse) || isHearingCancelled(hmcStatus, hearingResponse)
-            || isStatusException(hmcStatus));
+        return !(isStatusException(hmcStatus) || isHearingUpdated(hmcStatus, hearingResponse)
+            || isHearingCancelled(hmcStatus, hearingResponse));
     }
 
     private boolean isHearingUpdated(HmcStatus hmcStatus, HearingGetResponse hearingResponse) {
@@ -0,0 +1,126 @@
+package uk.gov.hmcts.reform.sscs.config.http;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.within;
+import static uk.gov.hmcts.reform.sscs.config.http.DownstreamHttpPool.CONNECTIONS_OPENED_METRIC;
+import static uk.gov.hmcts.reform.sscs.config.http.DownstreamHttpPool.CONNECTION_REUSE_METRIC;
+import static uk.gov.hmcts.reform.sscs.config.http.DownstreamHttpPool.DOWNSTREAM_TAG;
+import static uk.gov.hmcts.reform.sscs.config.http.DownstreamHttpPool.IN_FLIGHT_METRIC;
+import static uk.gov.hmcts.reform.sscs.config.http.DownstreamHttpPool.IN_FLIGHT_WAIT_METRIC;
+import static uk.gov.hmcts.reform.sscs.config.http.DownstreamHttpPool.REJECTED_METRIC;
+import static uk.gov.hmcts.reform.sscs.config.http.DownstreamHttpPool.REQUESTS_METRIC;
+
+class DownstreamHttpPoolsTest {
+
+    private WireMockServer wireMockServer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DownstreamHttpPools pools;
+
+    private String hmcUrl;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.start();
+        wireMockServer.stubFor(get(urlEqualTo("/hearing")).willReturn(aResponse().withStatus(200).withBody("{}")));
+        hmcUrl = "http://localhost:" + wireMockServer.port();
+
+        meterRegistry = new SimpleMeterRegistry();
+        pools = new DownstreamHttpPools(
+            List.of(new DownstreamHttpPool(settings("hmc", List.of(hmcUrl), 1), meterRegistry)),
+            new DownstreamHttpPool(settings("other", List.of(), 5), meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pools.close();
+        wireMockServer.stop();
+    }
+
+    @DisplayName("Requests are routed to the pool of the downstream with the same host and port")
+    @Test
+    void testRouting() {
+        assertThat(pools.forUrl(hmcUrl + "/hearing?id=1").getName()).isEqualTo("hmc");
+        assertThat(pools.forUrl("HTTP://LOCALHOST:" + wireMockServer.port()).getName()).isEqualTo("hmc");
+        assertThat(pools.forUrl("http://localhost:1/hearing").getName()).isEqualTo("other");
+        assertThat(pools.forUrl("https://hmc.example.com/hearing").getName()).isEqualTo("other");
+    }
+
+    @DisplayName("Feign requests to a downstream reuse its pooled connection")
+    @Test
+    void testConnectionReuse() throws IOException {
+        DownstreamFeignClient client = new DownstreamFeignClient(pools);
+
+        for (int i = 0; i < 3; i++) {
+            try (Response response = client.execute(request(hmcUrl + "/hearing"), new Request.Options())) {
+                assertThat(response.status()).isEqualTo(200);
+                response.body().asInputStream().readAllBytes();
+            }
+        }
+
+        assertThat(meterRegistry.get(REQUESTS_METRIC).tag(DOWNSTREAM_TAG, "hmc").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(CONNECTIONS_OPENED_METRIC).tag(DOWNSTREAM_TAG, "hmc").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(CONNECTION_REUSE_METRIC).tag(DOWNSTREAM_TAG, "hmc").gauge().value())
+            .isCloseTo(2.0 / 3, within(0.001));
+        assertThat(meterRegistry.get(REQUESTS_METRIC).tag(DOWNSTREAM_TAG, "other").counter().count()).isZero();
+    }
+
+    @DisplayName("Requests beyond the in-flight limit are rejected once the wait times out")
+    @Test
+    void testInFlightLimit() {
+        DownstreamHttpPool hmc = pools.forUrl(hmcUrl);
+
+        assertThatExceptionOfType(IOException.class)
+            .isThrownBy(() -> hmc.execute(() -> hmc.execute(() -> "second")))
+            .withMessageContaining("hmc");
+
+        assertThat(meterRegistry.get(REJECTED_METRIC).tag(DOWNSTREAM_TAG, "hmc").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(IN_FLIGHT_WAIT_METRIC).tag(DOWNSTREAM_TAG, "hmc").timer()
+            .totalTime(TimeUnit.MILLISECONDS)).isGreaterThan(0);
+        assertThat(meterRegistry.get(IN_FLIGHT_METRIC).tag(DOWNSTREAM_TAG, "hmc").gauge().value())
+            .isZero();
+    }
+
+    private static Request request(String url) {
+        Map<String, Collection<String>> headers = Map.of();
+        return Request.create(Request.HttpMethod.GET, url, headers, null, StandardCharsets.UTF_8, null);
+    }
+
+    private static DownstreamHttpSettings settings(String name, List<String> urls, int maxInFlight) {
+        return DownstreamHttpSettings.builder()
+            .name(name)
+            .urls(urls)
+            .maxConnections(5)
+            .maxInFlight(maxInFlight)
+            .inFlightWait(Duration.ofMillis(10))
+            .connectTimeout(Duration.ofSeconds(5))
+            .readTimeout(Duration.ofSeconds(5))
+            .keepAlive(Duration.ofMinutes(1))
+            .idleTimeout(Duration.ofSeconds(30))
+            .build();
+    }
+}
@@ -0,0 +1,164 @@
+package uk.gov.hmcts.reform.sscs.config.http;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Http2FeignClientTest {
+
+    private static final int CONCURRENT_REQUESTS = 10;
+
+    @TempDir
+    private Path baseDir;
+
+    private final Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> protocols = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+
+    private Tomcat tomcat;
+
+    @AfterEach
+    void tearDown() throws LifecycleException {
+        executor.shutdownNow();
+        if (tomcat != null) {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    @DisplayName("Concurrent requests to an h2c server share one HTTP/2 connection")
+    @Test
+    void testMultiplexed() throws Exception {
+        String url = startServer(true);
+        Client client = new Http2FeignClient(Duration.ofSeconds(5));
+
+        call(client, url);
+        callConcurrently(client, url);
+
+        assertThat(protocols).containsExactly("HTTP/2.0");
+        assertThat(remotePorts).hasSize(1);
+    }
+
+    @DisplayName("The same requests over HTTP/1.1 open a connection for each concurrent request")
+    @Test
+    void testHttp1Baseline() throws Exception {
+        String url = startServer(true);
+        Client client = new Client.Default(null, null);
+
+        call(client, url);
+        callConcurrently(client, url);
+
+        assertThat(protocols).containsExactly("HTTP/1.1");
+        assertThat(remotePorts).hasSizeGreaterThan(1);
+    }
+
+    @DisplayName("Requests fall back to HTTP/1.1 when the server does not agree to HTTP/2")
+    @Test
+    void testFallback() throws Exception {
+        String url = startServer(false);
+        Client client = new Http2FeignClient(Duration.ofSeconds(5));
+
+        call(client, url);
+
+        assertThat(protocols).containsExactly("HTTP/1.1");
+    }
+
+    private void callConcurrently(Client client, String url) {
+        List<CompletableFuture<Void>> calls = IntStream.range(0, CONCURRENT_REQUESTS)
+            .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                try {
+                    call(client, url);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor))
+            .collect(Collectors.toList());
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+    }
+
+    private static void call(Client client, String url) throws IOException {
+        Map<String, Collection<String>> headers = Map.of("Authorization", List.of("Bearer token"));
+        Request request = Request.create(Request.HttpMethod.GET, url, headers, null, StandardCharsets.UTF_8, null);
+        try (Response response = client.execute(request, new Request.Options())) {
+            assertThat(response.status()).isEqualTo(200);
+            assertThat(new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8))
+                .isEqualTo("{}");
+        }
+    }
+
+    private String startServer(boolean h2c) throws LifecycleException {
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        Connector connector = new Connector();
+        connector.setPort(0);
+        if (h2c) {
+            connector.addUpgradeProtocol(new Http2Protocol());
+        }
+        tomcat.setConnector(connector);
+
+        Context context = tomcat.addContext("", baseDir.toString());
+        Tomcat.addServlet(context, "hearing", new HearingServlet(remotePorts, protocols));
+        context.addServletMappingDecoded("/hearing", "hearing");
+        tomcat.start();
+        return "http://localhost:" + connector.getLocalPort() + "/hearing";
+    }
+
+    private static final class HearingServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Set<Integer> remotePorts;
+
+        private final transient Set<String> protocols;
+
+        private HearingServlet(Set<Integer> remotePorts, Set<String> protocols) {
+            this.remotePorts = remotePorts;
+            this.protocols = protocols;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            remotePorts.add(request.getRemotePort());
+            protocols.add(request.getProtocol());
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.setContentType("application/json");
+            response.getWriter().write("{}");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package uk.gov.hmcts.reform.sscs.config.jms;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.config.SimpleJmsListenerEndpoint;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.jms.JMSException;
+import javax.jms.TextMessage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SelectingJmsListenerContainerFactoryTest {
+
+    private static final String QUEUE = "hmc-selector-test";
+    private static final String SERVICE_CODE = "BBA3";
+    private static final String DEPLOYMENT_ID = "sscs-pr-1";
+
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+    private ActiveMQConnectionFactory connectionFactory;
+
+    private DefaultMessageListenerContainer container;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new ActiveMQConnectionFactory("vm://hmc-selector?broker.persistent=false&broker.useJmx=false");
+
+        SelectingJmsListenerContainerFactory factory = new SelectingJmsListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setReceiveTimeout(100L);
+        factory.setMessageSelector(HmcMessageSelector.build("hmctsServiceId", SERVICE_CODE, true, DEPLOYMENT_ID));
+
+        SimpleJmsListenerEndpoint endpoint = new SimpleJmsListenerEndpoint();
+        endpoint.setId("hmc-selector-test");
+        endpoint.setDestination(QUEUE);
+        endpoint.setMessageListener(message -> {
+            try {
+                received.add(((TextMessage) message).getText());
+            } catch (JMSException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        container = factory.createListenerContainer(endpoint);
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.shutdown();
+    }
+
+    @DisplayName("Messages for other services or deployments are left on the broker and never delivered")
+    @Test
+    void testSelectorFiltersOnBroker() throws Exception {
+        JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
+        send(jmsTemplate, "other service", "AAA7", DEPLOYMENT_ID);
+        send(jmsTemplate, "other deployment", SERVICE_CODE, "sscs-pr-2");
+        send(jmsTemplate, "no deployment", SERVICE_CODE, null);
+        send(jmsTemplate, "relevant", SERVICE_CODE, DEPLOYMENT_ID);
+
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("relevant");
+        assertThat(received.poll(500, TimeUnit.MILLISECONDS)).isNull();
+
+        Integer remaining = jmsTemplate.browse(QUEUE, (session, browser) ->
+            Collections.list(browser.getEnumeration()).size());
+        assertThat(remaining).isEqualTo(3);
+    }
+
+    @DisplayName("The selector requires no deployment id when none is configured")
+    @Test
+    void testSelectorWithoutDeploymentId() {
+        assertThat(HmcMessageSelector.build("hmctsServiceId", SERVICE_CODE, true, ""))
+            .isEqualTo("hmctsServiceId = 'BBA3' AND hmctsDeploymentId IS NULL");
+        assertThat(HmcMessageSelector.build("hmctsServiceId", "BB'A3", false, DEPLOYMENT_ID))
+            .isEqualTo("hmctsServiceId = 'BB''A3'");
+        assertThat(HmcMessageSelector.build("", SERVICE_CODE, false, DEPLOYMENT_ID)).isNull();
+    }
+
+    private static void send(JmsTemplate jmsTemplate, String body, String serviceCode, String deploymentId) {
+        jmsTemplate.send(QUEUE, session -> {
+            TextMessage message = session.createTextMessage(body);
+            message.setStringProperty("hmctsServiceId", serviceCode);
+            if (deploymentId != null) {
+                message.setStringProperty(HmcMessageSelector.HMCTS_DEPLOYMENT_ID, deploymentId);
+            }
+            return message;
+        });
+    }
+}
@@ -0,0 +1,162 @@
+package uk.gov.hmcts.reform.sscs.jms.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.qpid.jms.message.JmsMessageSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import uk.gov.hmcts.reform.sscs.ccd.domain.HearingState;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static uk.gov.hmcts.reform.sscs.jms.dispatch.CaseLaneDispatcher.LANE_DEPTH_METRIC;
+
+class CaseLaneDispatcherTest {
+
+    private static final int LANES = 4;
+
+    private static final int LANE_CAPACITY = 10;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HearingUpdateDebouncer tracker;
+
+    private CaseLaneDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new HearingUpdateDebouncer(false, meterRegistry);
+        dispatcher = new CaseLaneDispatcher("test", LANES, LANE_CAPACITY, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.close();
+    }
+
+    @DisplayName("A dispatcher must have at least one lane")
+    @Test
+    void testInvalidLaneCount() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> new CaseLaneDispatcher("invalid", 0, LANE_CAPACITY, meterRegistry));
+    }
+
+    @DisplayName("An inline dispatcher runs the work on the calling thread and lets its exceptions through")
+    @Test
+    void testInline() {
+        CaseLaneDispatcher inline = CaseLaneDispatcher.inline("inline", meterRegistry);
+        Message message = mock(Message.class);
+        Thread caller = Thread.currentThread();
+
+        assertThatIllegalStateException()
+            .isThrownBy(() -> inline.dispatch("1", message, ticket(), () -> {
+                assertThat(Thread.currentThread()).isSameAs(caller);
+                throw new IllegalStateException("failed");
+            }));
+        verifyNoInteractions(message);
+    }
+
+    @DisplayName("Messages for the same case are processed in the order they were dispatched and then accepted")
+    @Test
+    void testSameCaseKeepsOrder() throws Exception {
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        Message[] messages = new Message[5];
+        for (int index = 0; index < messages.length; index++) {
+            int position = index;
+            messages[index] = mock(Message.class);
+            dispatcher.dispatch("1", messages[index], ticket(), () -> processed.add(position));
+        }
+        dispatcher.close();
+
+        assertThat(processed).containsExactly(0, 1, 2, 3, 4);
+        for (Message message : messages) {
+            InOrder settled = inOrder(message);
+            settled.verify(message).setIntProperty(JmsMessageSupport.JMS_AMQP_ACK_TYPE, JmsMessageSupport.ACCEPTED);
+            settled.verify(message).acknowledge();
+        }
+        assertThat(depth()).isZero();
+    }
+
+    @DisplayName("A message for another case is not held up by a case whose lane is busy")
+    @Test
+    void testDifferentCasesRunInParallel() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherProcessed = new CountDownLatch(1);
+        dispatcher.dispatch("1", mock(Message.class), ticket(), release::await);
+        dispatcher.dispatch("2", mock(Message.class), ticket(), otherProcessed::countDown);
+
+        assertThat(otherProcessed.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @DisplayName("A message is acknowledged only once its lane has finished with it")
+    @Test
+    void testAcknowledgedAfterWork() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Message message = mock(Message.class);
+        dispatcher.dispatch("1", message, ticket(), release::await);
+
+        verify(message, after(200).never()).acknowledge();
+        release.countDown();
+        verify(message, timeout(5000)).acknowledge();
+    }
+
+    @DisplayName("A failed message is handed back to the broker and the messages queued behind it for the case are released")
+    @Test
+    void testFailureReleasesQueuedMessagesForCase() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> processed = new CopyOnWriteArrayList<>();
+        Message failed = mock(Message.class);
+        Message queued = mock(Message.class);
+        Message later = mock(Message.class);
+
+        dispatcher.dispatch("1", failed, ticket(), () -> {
+            release.await();
+            throw new IllegalStateException("failed");
+        });
+        dispatcher.dispatch("1", queued, ticket(), () -> processed.add("queued"));
+        release.countDown();
+        awaitIdle();
+        dispatcher.dispatch("1", later, ticket(), () -> processed.add("later"));
+        dispatcher.close();
+
+        verify(failed).setIntProperty(JmsMessageSupport.JMS_AMQP_ACK_TYPE, JmsMessageSupport.MODIFIED_FAILED);
+        verify(queued).setIntProperty(JmsMessageSupport.JMS_AMQP_ACK_TYPE, JmsMessageSupport.RELEASED);
+        verify(later).setIntProperty(JmsMessageSupport.JMS_AMQP_ACK_TYPE, JmsMessageSupport.ACCEPTED);
+        assertThat(processed).containsExactly("later");
+    }
+
+    private SupersededMessageTracker.Ticket ticket() {
+        return tracker.register("1", HearingState.CREATE_HEARING);
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (depth() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private double depth() {
+        return meterRegistry.get(LANE_DEPTH_METRIC)
+            .tag("dispatcher", "test")
+            .gauge()
+            .value();
+    }
+}
@@ -0,0 +1,92 @@
+package uk.gov.hmcts.reform.sscs.jms.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.sscs.jms.dispatch.HearingUpdateConflator.CONFLATED_METRIC;
+
+class HearingUpdateConflatorTest {
+
+    private static final String HEARING_ID = "2000000001";
+    private static final LocalDateTime BROADCAST = LocalDateTime.of(2023, 1, 1, 10, 0);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HearingUpdateConflator conflator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        conflator = new HearingUpdateConflator(true, meterRegistry);
+    }
+
+    @DisplayName("An older message is superseded by a newer message for the same hearing that re-reads the hearing")
+    @Test
+    void testOlderMessageSuperseded() {
+        try (HearingUpdateConflator.Ticket newer = conflator.register(HEARING_ID, BROADCAST.plusSeconds(2), true);
+             HearingUpdateConflator.Ticket older = conflator.register(HEARING_ID, BROADCAST, true)) {
+            assertThat(older.isSuperseded()).isTrue();
+            assertThat(newer.isSuperseded()).isFalse();
+        }
+        assertThat(meterRegistry.get(CONFLATED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("A newer message that does not re-read the hearing does not supersede the messages before it")
+    @Test
+    void testNewerMessageWithoutHearingRead() {
+        try (HearingUpdateConflator.Ticket older = conflator.register(HEARING_ID, BROADCAST, true);
+             HearingUpdateConflator.Ticket newer = conflator.register(HEARING_ID, BROADCAST.plusSeconds(2), false);
+             HearingUpdateConflator.Ticket latest = conflator.register(HEARING_ID, BROADCAST.plusSeconds(4), true)) {
+            assertThat(older.isSuperseded()).isFalse();
+            assertThat(newer.isSuperseded()).isTrue();
+            assertThat(latest.isSuperseded()).isFalse();
+        }
+    }
+
+    @DisplayName("Messages for different hearings are not conflated")
+    @Test
+    void testDifferentHearingsNotConflated() {
+        try (HearingUpdateConflator.Ticket first = conflator.register(HEARING_ID, BROADCAST, true);
+             HearingUpdateConflator.Ticket other = conflator.register("2000000002", BROADCAST.plusSeconds(2), true)) {
+            assertThat(first.isSuperseded()).isFalse();
+            assertThat(other.isSuperseded()).isFalse();
+        }
+    }
+
+    @DisplayName("A message is not superseded by a newer message that has already been processed")
+    @Test
+    void testReleasedMessagesForgotten() {
+        try (HearingUpdateConflator.Ticket newer = conflator.register(HEARING_ID, BROADCAST.plusSeconds(2), true)) {
+            assertThat(newer.isSuperseded()).isFalse();
+        }
+        try (HearingUpdateConflator.Ticket older = conflator.register(HEARING_ID, BROADCAST, true)) {
+            assertThat(older.isSuperseded()).isFalse();
+        }
+    }
+
+    @DisplayName("A message without a broadcast time is always processed")
+    @Test
+    void testWithoutBroadcastTime() {
+        try (HearingUpdateConflator.Ticket unknown = conflator.register(HEARING_ID, null, true);
+             HearingUpdateConflator.Ticket newer = conflator.register(HEARING_ID, BROADCAST, true)) {
+            assertThat(unknown.isSuperseded()).isFalse();
+            assertThat(newer.isSuperseded()).isFalse();
+        }
+    }
+
+    @DisplayName("Nothing is conflated when conflation is disabled")
+    @Test
+    void testDisabled() {
+        HearingUpdateConflator disabled = new HearingUpdateConflator(false, meterRegistry);
+        try (HearingUpdateConflator.Ticket older = disabled.register(HEARING_ID, BROADCAST, true);
+             HearingUpdateConflator.Ticket newer = disabled.register(HEARING_ID, BROADCAST.plusSeconds(2), true)) {
+            assertThat(disabled.isEnabled()).isFalse();
+            assertThat(older.isSuperseded()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package uk.gov.hmcts.reform.sscs.jms.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.sscs.ccd.domain.HearingState.CANCEL_HEARING;
+import static uk.gov.hmcts.reform.sscs.ccd.domain.HearingState.CREATE_HEARING;
+import static uk.gov.hmcts.reform.sscs.ccd.domain.HearingState.UPDATE_HEARING;
+import static uk.gov.hmcts.reform.sscs.jms.dispatch.HearingUpdateDebouncer.DEBOUNCED_METRIC;
+
+class HearingUpdateDebouncerTest {
+
+    private static final String CASE_ID = "1234";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HearingUpdateDebouncer debouncer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        debouncer = new HearingUpdateDebouncer(true, meterRegistry);
+    }
+
+    @DisplayName("An update followed by another update for the same case is superseded")
+    @Test
+    void testUpdateSupersededByLaterUpdate() {
+        try (HearingUpdateDebouncer.Ticket first = debouncer.register(CASE_ID, UPDATE_HEARING);
+             HearingUpdateDebouncer.Ticket second = debouncer.register(CASE_ID, UPDATE_HEARING)) {
+            assertThat(first.isSuperseded()).isTrue();
+            assertThat(second.isSuperseded()).isFalse();
+        }
+        assertThat(meterRegistry.get(DEBOUNCED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("Updates separated by a cancellation are both kept so the order is preserved")
+    @Test
+    void testBarrierPreservesOrder() {
+        try (HearingUpdateDebouncer.Ticket update = debouncer.register(CASE_ID, UPDATE_HEARING);
+             HearingUpdateDebouncer.Ticket cancel = debouncer.register(CASE_ID, CANCEL_HEARING);
+             HearingUpdateDebouncer.Ticket laterUpdate = debouncer.register(CASE_ID, UPDATE_HEARING)) {
+            assertThat(update.isSuperseded()).isFalse();
+            assertThat(cancel.isSuperseded()).isFalse();
+            assertThat(laterUpdate.isSuperseded()).isFalse();
+        }
+    }
+
+    @DisplayName("Create and cancel requests are never superseded")
+    @Test
+    void testNonUpdatesNeverSuperseded() {
+        try (HearingUpdateDebouncer.Ticket create = debouncer.register(CASE_ID, CREATE_HEARING);
+             HearingUpdateDebouncer.Ticket cancel = debouncer.register(CASE_ID, CANCEL_HEARING);
+             HearingUpdateDebouncer.Ticket update = debouncer.register(CASE_ID, UPDATE_HEARING)) {
+            assertThat(create.isSuperseded()).isFalse();
+            assertThat(cancel.isSuperseded()).isFalse();
+            assertThat(update.isSuperseded()).isFalse();
+        }
+    }
+
+    @DisplayName("Updates for different cases do not supersede each other")
+    @Test
+    void testDifferentCasesIndependent() {
+        try (HearingUpdateDebouncer.Ticket first = debouncer.register(CASE_ID, UPDATE_HEARING);
+             HearingUpdateDebouncer.Ticket other = debouncer.register("5678", UPDATE_HEARING)) {
+            assertThat(first.isSuperseded()).isFalse();
+            assertThat(other.isSuperseded()).isFalse();
+        }
+    }
+
+    @DisplayName("A completed update no longer supersedes updates registered before it")
+    @Test
+    void testClosedTicketReleased() {
+        try (HearingUpdateDebouncer.Ticket first = debouncer.register(CASE_ID, UPDATE_HEARING)) {
+            debouncer.register(CASE_ID, UPDATE_HEARING).close();
+            assertThat(first.isSuperseded()).isFalse();
+        }
+    }
+
+    @DisplayName("Nothing is debounced when debouncing is disabled")
+    @Test
+    void testDisabled() {
+        HearingUpdateDebouncer disabled = new HearingUpdateDebouncer(false, meterRegistry);
+        try (HearingUpdateDebouncer.Ticket first = disabled.register(CASE_ID, UPDATE_HEARING);
+             HearingUpdateDebouncer.Ticket second = disabled.register(CASE_ID, UPDATE_HEARING)) {
+            assertThat(first.isSuperseded()).isFalse();
+        }
+        assertThat(disabled.isEnabled()).isFalse();
+    }
+}
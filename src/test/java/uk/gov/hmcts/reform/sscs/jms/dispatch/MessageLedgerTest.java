@@ -0,0 +1,97 @@
+package uk.gov.hmcts.reform.sscs.jms.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.sscs.jms.dispatch.MessageLedger.DUPLICATE_METRIC;
+
+class MessageLedgerTest {
+
+    private static final String SOURCE = "hmc";
+    private static final String KEY = "2000000001|LISTED|2023-01-01T10:00";
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final Instant NOW = Instant.parse("2023-01-01T10:00:00Z");
+
+    @TempDir
+    private Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private Path ledgerFile;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ledgerFile = tempDir.resolve("ledger.dat");
+    }
+
+    @DisplayName("A recorded message is reported as a duplicate")
+    @Test
+    void testRecordedMessageIsDuplicate() throws Exception {
+        try (MessageLedger ledger = open(NOW, 1024)) {
+            assertThat(ledger.isDuplicate(SOURCE, KEY)).isFalse();
+            ledger.record(SOURCE, KEY);
+
+            assertThat(ledger.isDuplicate(SOURCE, KEY)).isTrue();
+            assertThat(ledger.isDuplicate("tribunals", KEY)).isFalse();
+        }
+        assertThat(meterRegistry.get(DUPLICATE_METRIC).tag("source", SOURCE).counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("Entries survive the ledger being reopened")
+    @Test
+    void testSurvivesRestart() throws Exception {
+        try (MessageLedger ledger = open(NOW, 1024)) {
+            ledger.record(SOURCE, KEY);
+        }
+        try (MessageLedger ledger = open(NOW, 1024)) {
+            assertThat(ledger.isDuplicate(SOURCE, KEY)).isTrue();
+        }
+    }
+
+    @DisplayName("Entries expire after the time to live")
+    @Test
+    void testEntriesExpire() throws Exception {
+        try (MessageLedger ledger = open(NOW, 1024)) {
+            ledger.record(SOURCE, KEY);
+        }
+        try (MessageLedger ledger = open(NOW.plus(TTL), 1024)) {
+            assertThat(ledger.isDuplicate(SOURCE, KEY)).isFalse();
+        }
+    }
+
+    @DisplayName("The ledger stays bounded and evicts the oldest entries when full")
+    @Test
+    void testBounded() throws Exception {
+        try (MessageLedger ledger = open(NOW, 4)) {
+            for (int index = 0; index < 100; index++) {
+                ledger.record(SOURCE, KEY + index);
+            }
+            assertThat(ledger.isDuplicate(SOURCE, KEY + 99)).isTrue();
+        }
+        assertThat(ledgerFile.toFile().length()).isEqualTo(16 + 4 * 16);
+    }
+
+    @DisplayName("A disabled ledger never reports duplicates")
+    @Test
+    void testDisabled() throws Exception {
+        try (MessageLedger ledger = MessageLedger.disabled()) {
+            ledger.record(SOURCE, KEY);
+            assertThat(ledger.isDuplicate(SOURCE, KEY)).isFalse();
+        }
+    }
+
+    private MessageLedger open(Instant now, int capacity) throws Exception {
+        return MessageLedger.open(ledgerFile, capacity, TTL, Clock.fixed(now, ZoneOffset.UTC), meterRegistry);
+    }
+}
@@ -2,29 +2,44 @@ package uk.gov.hmcts.reform.sscs.jms.listener;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.qpid.jms.message.JmsBytesMessage;
+import org.apache.qpid.jms.message.JmsMessageSupport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.sscs.exception.HmcEventProcessingException;
 import uk.gov.hmcts.reform.sscs.exception.MessageProcessingException;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.CaseLaneDispatcher;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.HearingUpdateConflator;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.MessageLedger;
 import uk.gov.hmcts.reform.sscs.model.hmc.message.HearingUpdate;
 import uk.gov.hmcts.reform.sscs.model.hmc.message.HmcMessage;
 import uk.gov.hmcts.reform.sscs.service.hmc.topic.ProcessHmcMessageService;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import javax.jms.JMSException;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcStatus.ADJOURNED;
 
@@ -42,15 +57,17 @@ class HmcHearingsEventTopicListenerTest {
     @Mock
     private JmsBytesMessage bytesMessage;
 
-    @Mock
-    private ObjectMapper mockObjectMapper;
-
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    private static final ObjectMapper TIMED_OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private static final LocalDateTime BROADCAST = LocalDateTime.of(2023, 1, 1, 10, 0);
+
     @BeforeEach
     void setup() throws JMSException {
-        hmcHearingsEventTopicListener = new HmcHearingsEventTopicListener(SERVICE_CODE, processHmcMessageService);
-        ReflectionTestUtils.setField(hmcHearingsEventTopicListener, "objectMapper", mockObjectMapper);
+        hmcHearingsEventTopicListener = new HmcHearingsEventTopicListener(SERVICE_CODE, processHmcMessageService,
+            CaseLaneDispatcher.inline("test", new SimpleMeterRegistry()),
+            new HearingUpdateConflator(false, new SimpleMeterRegistry()), MessageLedger.disabled());
         ReflectionTestUtils.setField(hmcHearingsEventTopicListener, "sscsServiceCode", SERVICE_CODE);
         given(bytesMessage.getStringProperty("hmctsDeploymentId")).willReturn("test");
         ReflectionTestUtils.setField(hmcHearingsEventTopicListener, "hmctsDeploymentId", "test");
@@ -65,10 +82,18 @@ class HmcHearingsEventTopicListenerTest {
 
         HmcMessage hmcMessage = createHmcMessage("BBA4");
 
-        byte[] messageBytes = OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8);
+        givenMessageBody(OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8));
+
+        hmcHearingsEventTopicListener.onMessage(bytesMessage);
+
+        verify(processHmcMessageService, never()).processEventMessage((any(HmcMessage.class)));
+    }
 
-        given(bytesMessage.getBodyLength()).willReturn((long) messageBytes.length);
-        given(mockObjectMapper.readValue(any(String.class), eq(HmcMessage.class))).willReturn(hmcMessage);
+    @Test
+    @DisplayName("Messages for other services should be dropped without binding the rest of the message.")
+    void testOnMessage_serviceCodeNotApplicableSkipsBind() throws Exception {
+        givenMessageBody("{\"hmctsServiceCode\":\"BBA4\",\"hearingUpdate\":{\"HMCStatus\":\"NOT_A_STATUS\"}}"
+            .getBytes(StandardCharsets.UTF_8));
 
         hmcHearingsEventTopicListener.onMessage(bytesMessage);
 
@@ -79,9 +104,6 @@ class HmcHearingsEventTopicListenerTest {
     @DisplayName("Messages should not be processed if their deployment ID does not match ours.")
     void testOnMessage_deploymentNotApplicable() throws Exception {
         ReflectionTestUtils.setField(hmcHearingsEventTopicListener, "hmctsDeploymentId", "test2");
-        HmcMessage hmcMessage = createHmcMessage("BBA3");
-
-        byte[] messageBytes = OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8);
 
         hmcHearingsEventTopicListener.onMessage(bytesMessage);
 
@@ -94,8 +116,7 @@ class HmcHearingsEventTopicListenerTest {
         ReflectionTestUtils.setField(hmcHearingsEventTopicListener, "hmctsDeploymentId", "test");
         HmcMessage hmcMessage = createHmcMessage("BBA3");
 
-        byte[] messageBytes = OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8);
-        given(mockObjectMapper.readValue(any(String.class), eq(HmcMessage.class))).willReturn(hmcMessage);
+        givenMessageBody(OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8));
 
         hmcHearingsEventTopicListener.onMessage(bytesMessage);
 
@@ -110,8 +131,7 @@ class HmcHearingsEventTopicListenerTest {
         given(bytesMessage.getStringProperty("hmctsDeploymentId")).willReturn(null);
         HmcMessage hmcMessage = createHmcMessage("BBA3");
 
-        byte[] messageBytes = OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8);
-        given(mockObjectMapper.readValue(any(String.class), eq(HmcMessage.class))).willReturn(hmcMessage);
+        givenMessageBody(OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8));
 
         hmcHearingsEventTopicListener.onMessage(bytesMessage);
 
@@ -122,9 +142,6 @@ class HmcHearingsEventTopicListenerTest {
     @DisplayName("Messages should not be processed if deployment id is provided on message but not on service.")
     void testOnMessage_noDeploymentInService() throws Exception {
         ReflectionTestUtils.setField(hmcHearingsEventTopicListener, "hmctsDeploymentId", "");
-        HmcMessage hmcMessage = createHmcMessage("BBA3");
-
-        byte[] messageBytes = OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8);
 
         hmcHearingsEventTopicListener.onMessage(bytesMessage);
 
@@ -139,10 +156,7 @@ class HmcHearingsEventTopicListenerTest {
 
         HmcMessage hmcMessage = createHmcMessage(SERVICE_CODE);
 
-        byte[] messageBytes = OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8);
-
-        given(bytesMessage.getBodyLength()).willReturn((long) messageBytes.length);
-        given(mockObjectMapper.readValue(any(String.class), eq(HmcMessage.class))).willReturn(hmcMessage);
+        givenMessageBody(OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8));
 
         hmcHearingsEventTopicListener.onMessage(bytesMessage);
 
@@ -151,15 +165,9 @@ class HmcHearingsEventTopicListenerTest {
 
     @Test
     @DisplayName("A HmcEventProcessingException should be thrown if a JsonProcessing exception is encountered.")
-    void testOnMessage_JsonProcessingException() throws JsonProcessingException, JMSException {
+    void testOnMessage_JsonProcessingException() throws JMSException {
 
-        HmcMessage hmcMessage = createHmcMessage(SERVICE_CODE);
-
-        byte[] messageBytes = OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8);
-
-        given(bytesMessage.getBodyLength()).willReturn((long) messageBytes.length);
-        given(mockObjectMapper.readValue(any(String.class), eq(HmcMessage.class)))
-            .willThrow(JsonProcessingException.class);
+        givenMessageBody("{\"hmctsServiceCode\":\"BBA3\",\"caseRef\":".getBytes(StandardCharsets.UTF_8));
 
         assertThatExceptionOfType(HmcEventProcessingException.class)
             .isThrownBy(() -> hmcHearingsEventTopicListener.onMessage(bytesMessage))
@@ -172,10 +180,7 @@ class HmcHearingsEventTopicListenerTest {
 
         HmcMessage hmcMessage = createHmcMessage(SERVICE_CODE);
 
-        byte[] messageBytes = OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8);
-
-        given(bytesMessage.getBodyLength()).willReturn((long) messageBytes.length);
-        given(mockObjectMapper.readValue(any(String.class), eq(HmcMessage.class))).willReturn(hmcMessage);
+        givenMessageBody(OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8));
 
         doThrow(MessageProcessingException.class)
             .when(processHmcMessageService)
@@ -186,6 +191,152 @@ class HmcHearingsEventTopicListenerTest {
             .withCauseInstanceOf(MessageProcessingException.class);
     }
 
+    @Test
+    @DisplayName("A redelivered message with a broadcast time should only be processed once when the ledger is enabled.")
+    void testOnMessage_duplicateSkippedByLedger(@TempDir Path ledgerDir) throws Exception {
+        try (MessageLedger messageLedger = openLedger(ledgerDir)) {
+            HmcHearingsEventTopicListener listener = listenerWithLedger(messageLedger);
+            HmcMessage hmcMessage = createHmcMessage(SERVICE_CODE);
+            hmcMessage.getHearingUpdate().setHearingEventBroadcastDateTime(LocalDateTime.of(2023, 1, 1, 10, 0));
+
+            givenMessageBody(new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsString(hmcMessage)
+                .getBytes(StandardCharsets.UTF_8));
+
+            listener.onMessage(bytesMessage);
+            listener.onMessage(bytesMessage);
+
+            verify(processHmcMessageService, times(1)).processEventMessage(any(HmcMessage.class));
+        }
+    }
+
+    @Test
+    @DisplayName("A message without a broadcast time should never be treated as a duplicate by the ledger.")
+    void testOnMessage_noBroadcastTimeNotInLedger(@TempDir Path ledgerDir) throws Exception {
+        try (MessageLedger messageLedger = openLedger(ledgerDir)) {
+            HmcHearingsEventTopicListener listener = listenerWithLedger(messageLedger);
+            HmcMessage hmcMessage = createHmcMessage(SERVICE_CODE);
+
+            givenMessageBody(OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8));
+
+            listener.onMessage(bytesMessage);
+            listener.onMessage(bytesMessage);
+
+            verify(processHmcMessageService, times(2)).processEventMessage(any(HmcMessage.class));
+        }
+    }
+
+    @Test
+    @DisplayName("Messages for other services should be acknowledged straight away when the listener dispatches to lanes.")
+    void testOnMessage_serviceCodeNotApplicableAcknowledgedInLanes() throws Exception {
+        CaseLaneDispatcher laneDispatcher = new CaseLaneDispatcher("test", 2, 1, new SimpleMeterRegistry());
+        try (laneDispatcher) {
+            givenMessageBody(OBJECT_MAPPER.writeValueAsString(createHmcMessage("BBA4")).getBytes(StandardCharsets.UTF_8));
+
+            listenerWithLanes(laneDispatcher).onMessage(bytesMessage);
+
+            verify(bytesMessage).setIntProperty(JmsMessageSupport.JMS_AMQP_ACK_TYPE, JmsMessageSupport.ACCEPTED);
+            verify(bytesMessage).acknowledge();
+        }
+    }
+
+    @Test
+    @DisplayName("A message that fails on its lane should be handed back to the broker once the lane has finished with it.")
+    void testOnMessage_failureInLaneHandedBack() throws Exception {
+        CaseLaneDispatcher laneDispatcher = new CaseLaneDispatcher("test", 2, 1, new SimpleMeterRegistry());
+        HmcMessage hmcMessage = createHmcMessage(SERVICE_CODE);
+        givenMessageBody(OBJECT_MAPPER.writeValueAsString(hmcMessage).getBytes(StandardCharsets.UTF_8));
+        doThrow(MessageProcessingException.class)
+            .when(processHmcMessageService)
+            .processEventMessage(hmcMessage);
+
+        listenerWithLanes(laneDispatcher).onMessage(bytesMessage);
+        laneDispatcher.close();
+
+        verify(bytesMessage).setIntProperty(JmsMessageSupport.JMS_AMQP_ACK_TYPE, JmsMessageSupport.MODIFIED_FAILED);
+        verify(bytesMessage).acknowledge();
+    }
+
+    @Test
+    @DisplayName("An older message for a hearing queued on its lane behind a newer one should be conflated when conflation is enabled.")
+    void testOnMessage_conflatedOnLane() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HmcMessage first = createHmcMessage(SERVICE_CODE, BROADCAST);
+        HmcMessage older = createHmcMessage(SERVICE_CODE, BROADCAST.plusSeconds(1));
+        HmcMessage newer = createHmcMessage(SERVICE_CODE, BROADCAST.plusSeconds(2));
+        given(processHmcMessageService.rereadsHearing(ADJOURNED)).willReturn(true);
+        lenient().doAnswer(invocation -> release.await(5, TimeUnit.SECONDS))
+            .when(processHmcMessageService).processEventMessage(first);
+        givenMessageBody(TIMED_OBJECT_MAPPER.writeValueAsBytes(first));
+        CaseLaneDispatcher laneDispatcher = new CaseLaneDispatcher("test", 1, 10, new SimpleMeterRegistry());
+        HmcHearingsEventTopicListener listener = listenerWithLanes(laneDispatcher,
+            new HearingUpdateConflator(true, new SimpleMeterRegistry()));
+
+        listener.onMessage(bytesMessage);
+        listener.onMessage(bytesMessage(older));
+        listener.onMessage(bytesMessage(newer));
+        release.countDown();
+        laneDispatcher.close();
+
+        verify(processHmcMessageService).processEventMessage(first);
+        verify(processHmcMessageService, never()).processEventMessage(older);
+        verify(processHmcMessageService).processEventMessage(newer);
+    }
+
+    private MessageLedger openLedger(Path ledgerDir) throws Exception {
+        return MessageLedger.open(ledgerDir.resolve("ledger.dat"), 64, Duration.ofHours(1), Clock.systemUTC(),
+            new SimpleMeterRegistry());
+    }
+
+    private HmcHearingsEventTopicListener listenerWithLedger(MessageLedger messageLedger) {
+        HmcHearingsEventTopicListener listener = new HmcHearingsEventTopicListener(SERVICE_CODE,
+            processHmcMessageService, CaseLaneDispatcher.inline("test", new SimpleMeterRegistry()),
+            new HearingUpdateConflator(false, new SimpleMeterRegistry()), messageLedger);
+        ReflectionTestUtils.setField(listener, "hmctsDeploymentId", "test");
+        ReflectionTestUtils.setField(listener, "isDeploymentFilterEnabled", true);
+        return listener;
+    }
+
+    private HmcHearingsEventTopicListener listenerWithLanes(CaseLaneDispatcher laneDispatcher) {
+        return listenerWithLanes(laneDispatcher, new HearingUpdateConflator(false, new SimpleMeterRegistry()));
+    }
+
+    private HmcHearingsEventTopicListener listenerWithLanes(CaseLaneDispatcher laneDispatcher,
+                                                            HearingUpdateConflator conflator) {
+        HmcHearingsEventTopicListener listener = new HmcHearingsEventTopicListener(SERVICE_CODE,
+            processHmcMessageService, laneDispatcher, conflator, MessageLedger.disabled());
+        ReflectionTestUtils.setField(listener, "hmctsDeploymentId", "test");
+        ReflectionTestUtils.setField(listener, "isDeploymentFilterEnabled", true);
+        return listener;
+    }
+
+    private void givenMessageBody(byte[] body) throws JMSException {
+        given(bytesMessage.getBodyLength()).willReturn((long) body.length);
+        given(bytesMessage.readBytes(any(byte[].class))).willAnswer(invocation -> {
+            byte[] target = invocation.getArgument(0);
+            System.arraycopy(body, 0, target, 0, body.length);
+            return body.length;
+        });
+    }
+
+    private JmsBytesMessage bytesMessage(HmcMessage hmcMessage) throws Exception {
+        byte[] body = TIMED_OBJECT_MAPPER.writeValueAsBytes(hmcMessage);
+        JmsBytesMessage message = mock(JmsBytesMessage.class);
+        given(message.getStringProperty("hmctsDeploymentId")).willReturn("test");
+        given(message.getBodyLength()).willReturn((long) body.length);
+        given(message.readBytes(any(byte[].class))).willAnswer(invocation -> {
+            byte[] target = invocation.getArgument(0);
+            System.arraycopy(body, 0, target, 0, body.length);
+            return body.length;
+        });
+        return message;
+    }
+
+    private HmcMessage createHmcMessage(String messageServiceCode, LocalDateTime broadcastDateTime) {
+        HmcMessage hmcMessage = createHmcMessage(messageServiceCode);
+        hmcMessage.getHearingUpdate().setHearingEventBroadcastDateTime(broadcastDateTime);
+        return hmcMessage;
+    }
+
     private HmcMessage createHmcMessage(String messageServiceCode) {
         return HmcMessage.builder()
                 .hmctsServiceCode(messageServiceCode)
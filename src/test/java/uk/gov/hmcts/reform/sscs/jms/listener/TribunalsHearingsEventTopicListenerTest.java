@@ -1,5 +1,7 @@
 package uk.gov.hmcts.reform.sscs.jms.listener;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.qpid.jms.message.JmsMessageSupport;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,6 +10,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.HearingRoute;
@@ -18,17 +21,30 @@ import uk.gov.hmcts.reform.sscs.exception.ListingException;
 import uk.gov.hmcts.reform.sscs.exception.TribunalsEventProcessingException;
 import uk.gov.hmcts.reform.sscs.exception.UnhandleableHearingStateException;
 import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.CaseLaneDispatcher;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.HearingUpdateDebouncer;
+import uk.gov.hmcts.reform.sscs.jms.dispatch.MessageLedger;
+import uk.gov.hmcts.reform.sscs.jms.retry.HearingRequestRequeuer;
 import uk.gov.hmcts.reform.sscs.model.hearings.HearingRequest;
 import uk.gov.hmcts.reform.sscs.service.CcdCaseService;
 import uk.gov.hmcts.reform.sscs.service.HearingsService;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
+import javax.jms.Message;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,17 +59,82 @@ class TribunalsHearingsEventTopicListenerTest {
     @Mock
     private CcdCaseService ccdCaseService;
 
+    @Spy
+    private CaseLaneDispatcher tribunalsHearingsEventLaneDispatcher = CaseLaneDispatcher.inline("test", new SimpleMeterRegistry());
+
+    @Mock
+    private MessageLedger messageLedger;
+
+    @Mock
+    private HearingRequestRequeuer hearingRequestRequeuer;
+
+    @Spy
+    private HearingUpdateDebouncer tribunalsHearingUpdateDebouncer = new HearingUpdateDebouncer(false, new SimpleMeterRegistry());
+
     private static final String CASE_ID = "1001";
 
+    private static final String MESSAGE_ID = "ID:1001";
+
     @Test
     @DisplayName("When a valid request comes in make sure processHearingRequest is hit")
     void whenAValidRequestComesIn_makeSureProcessHearingRequestIsHit() throws Exception {
 
         HearingRequest hearingRequest = createHearingRequest();
 
-        tribunalsHearingsEventQueueListener.handleIncomingMessage(hearingRequest);
+        tribunalsHearingsEventQueueListener.handleIncomingMessage(hearingRequest, MESSAGE_ID, null, null, null);
+
+        verify(hearingsService, times(1)).processHearingRequest(hearingRequest, MESSAGE_ID);
+        verify(messageLedger).record("tribunals", MESSAGE_ID);
+    }
+
+    @Test
+    @DisplayName("When a request has already been processed it is acknowledged without processing")
+    void whenADuplicateRequestComesIn_makeSureProcessHearingRequestIsNotHit() throws Exception {
+        when(messageLedger.isDuplicate("tribunals", MESSAGE_ID)).thenReturn(true);
+
+        tribunalsHearingsEventQueueListener.handleIncomingMessage(createHearingRequest(), MESSAGE_ID, null, null, null);
+
+        verifyNoInteractions(hearingsService);
+        verify(messageLedger, never()).record(any(), any());
+    }
+
+    @Test
+    @DisplayName("When requeue retries are enabled a failed case update is re-queued instead of retried")
+    void whenRequeueEnabledAndCaseUpdateFails_makeSureRequestIsRequeued() throws Exception {
+        HearingRequest hearingRequest = createHearingRequest();
+        when(hearingRequestRequeuer.isEnabled()).thenReturn(true);
+        when(hearingRequestRequeuer.canRequeue(2)).thenReturn(true);
+        doThrow(UpdateCaseException.class).when(hearingsService).processHearingRequestOnce(hearingRequest, MESSAGE_ID);
+
+        assertDoesNotThrow(() -> tribunalsHearingsEventQueueListener.handleIncomingMessage(hearingRequest, MESSAGE_ID, 2, null, null));
+
+        verify(hearingRequestRequeuer).requeue(hearingRequest, 2, MESSAGE_ID);
+        verify(hearingsService, never()).processHearingRequest(any(), any());
+    }
+
+    @Test
+    @DisplayName("A re-queued request keeps the ID of the message that first carried it")
+    void whenARequeuedRequestComesIn_makeSureOriginalRequestIdIsUsed() throws Exception {
+        HearingRequest hearingRequest = createHearingRequest();
+        when(hearingRequestRequeuer.isEnabled()).thenReturn(true);
+
+        tribunalsHearingsEventQueueListener.handleIncomingMessage(hearingRequest, "ID:2002", 2, MESSAGE_ID, null);
 
-        verify(hearingsService, times(1)).processHearingRequest((hearingRequest));
+        verify(hearingsService).processHearingRequestOnce(hearingRequest, MESSAGE_ID);
+    }
+
+    @Test
+    @DisplayName("When requeue retries are exhausted the failure is rethrown")
+    void whenRequeueRetriesExhausted_makeSureExceptionIsThrown() throws Exception {
+        HearingRequest hearingRequest = createHearingRequest();
+        when(hearingRequestRequeuer.isEnabled()).thenReturn(true);
+        when(hearingRequestRequeuer.canRequeue(3)).thenReturn(false);
+        doThrow(UpdateCaseException.class).when(hearingsService).processHearingRequestOnce(hearingRequest, MESSAGE_ID);
+
+        assertThrows(TribunalsEventProcessingException.class,
+            () -> tribunalsHearingsEventQueueListener.handleIncomingMessage(hearingRequest, MESSAGE_ID, 3, null, null));
+
+        verify(hearingRequestRequeuer, never()).requeue(any(), anyInt(), any());
     }
 
     @ParameterizedTest
@@ -63,9 +144,9 @@ class TribunalsHearingsEventTopicListenerTest {
 
         HearingRequest hearingRequest = new HearingRequest();
 
-        doThrow(throwable).when(hearingsService).processHearingRequest(hearingRequest);
+        doThrow(throwable).when(hearingsService).processHearingRequest(hearingRequest, MESSAGE_ID);
 
-        assertThrows(TribunalsEventProcessingException.class, () -> tribunalsHearingsEventQueueListener.handleIncomingMessage(hearingRequest));
+        assertThrows(TribunalsEventProcessingException.class, () -> tribunalsHearingsEventQueueListener.handleIncomingMessage(hearingRequest, MESSAGE_ID, null, null, null));
     }
 
     private static Stream<Arguments> throwableParameters() {
@@ -78,7 +159,49 @@ class TribunalsHearingsEventTopicListenerTest {
     @Test
     @DisplayName("When an null request comes in make sure exception is thrown")
     void whenAnNullRequestComesIn_makeSureExceptionIsThrown() {
-        assertThrows(TribunalsEventProcessingException.class, () -> tribunalsHearingsEventQueueListener.handleIncomingMessage(null));
+        assertThrows(TribunalsEventProcessingException.class, () -> tribunalsHearingsEventQueueListener.handleIncomingMessage(null, MESSAGE_ID, null, null, null));
+    }
+
+    @Test
+    @DisplayName("When a request that cannot be read comes in on lanes it is handed back to the broker")
+    void whenAnNullRequestComesInOnLanes_makeSureMessageIsHandedBack() throws Exception {
+        Message jmsMessage = mock(Message.class);
+        try (CaseLaneDispatcher laneDispatcher = new CaseLaneDispatcher("test", 2, 1, new SimpleMeterRegistry())) {
+            TribunalsHearingsEventQueueListener listener = new TribunalsHearingsEventQueueListener(hearingsService,
+                ccdCaseService, laneDispatcher, messageLedger, hearingRequestRequeuer, tribunalsHearingUpdateDebouncer);
+
+            assertThrows(TribunalsEventProcessingException.class, () -> listener.handleIncomingMessage(null, MESSAGE_ID, null, null, jmsMessage));
+        }
+
+        verify(jmsMessage).setIntProperty(JmsMessageSupport.JMS_AMQP_ACK_TYPE, JmsMessageSupport.MODIFIED_FAILED);
+        verify(jmsMessage).acknowledge();
+    }
+
+    @Test
+    @DisplayName("When updates are queued behind each other on a case's lane only the last one is processed")
+    void whenUpdatesQueuedOnLane_makeSureOnlyLastUpdateIsProcessed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HearingRequest create = createHearingRequest();
+        HearingRequest update = HearingRequest.builder(CASE_ID)
+            .hearingRoute(HearingRoute.LIST_ASSIST)
+            .hearingState(HearingState.UPDATE_HEARING)
+            .build();
+        lenient().doAnswer(invocation -> release.await(5, TimeUnit.SECONDS))
+            .when(hearingsService).processHearingRequest(create, "ID:1");
+        HearingUpdateDebouncer debouncer = new HearingUpdateDebouncer(true, new SimpleMeterRegistry());
+        CaseLaneDispatcher laneDispatcher = new CaseLaneDispatcher("test", 1, 10, new SimpleMeterRegistry());
+        TribunalsHearingsEventQueueListener listener = new TribunalsHearingsEventQueueListener(hearingsService,
+            ccdCaseService, laneDispatcher, messageLedger, hearingRequestRequeuer, debouncer);
+
+        listener.handleIncomingMessage(create, "ID:1", null, null, mock(Message.class));
+        listener.handleIncomingMessage(update, "ID:2", null, null, mock(Message.class));
+        listener.handleIncomingMessage(update, "ID:3", null, null, mock(Message.class));
+        release.countDown();
+        laneDispatcher.close();
+
+        verify(hearingsService).processHearingRequest(create, "ID:1");
+        verify(hearingsService, never()).processHearingRequest(update, "ID:2");
+        verify(hearingsService).processHearingRequest(update, "ID:3");
     }
 
     private HearingRequest createHearingRequest() {
@@ -97,7 +220,7 @@ class TribunalsHearingsEventTopicListenerTest {
 
         doThrow(ListingException.class)
             .when(hearingsService)
-            .processHearingRequest(hearingRequest);
+            .processHearingRequest(hearingRequest, MESSAGE_ID);
 
         when(ccdCaseService.getCaseDetails(CASE_ID)).thenReturn(caseDetails);
         when(ccdCaseService.updateCaseData(caseData,
@@ -105,6 +228,6 @@ class TribunalsHearingsEventTopicListenerTest {
                                            null,
                                            null)).thenReturn(caseDetails);
 
-        assertDoesNotThrow(() -> tribunalsHearingsEventQueueListener.handleIncomingMessage(hearingRequest));
+        assertDoesNotThrow(() -> tribunalsHearingsEventQueueListener.handleIncomingMessage(hearingRequest, MESSAGE_ID, null, null, null));
     }
 }
@@ -0,0 +1,80 @@
+package uk.gov.hmcts.reform.sscs.jms.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.qpid.jms.message.JmsBytesMessage;
+import org.apache.qpid.jms.provider.amqp.message.AmqpJmsBytesMessageFacade;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessagePostProcessor;
+import uk.gov.hmcts.reform.sscs.ccd.domain.HearingState;
+import uk.gov.hmcts.reform.sscs.model.hearings.HearingRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static uk.gov.hmcts.reform.sscs.jms.retry.HearingRequestRequeuer.ATTEMPT_PROPERTY;
+import static uk.gov.hmcts.reform.sscs.jms.retry.HearingRequestRequeuer.REQUEST_ID_PROPERTY;
+import static uk.gov.hmcts.reform.sscs.jms.retry.HearingRequestRequeuer.REQUEUED_METRIC;
+import static uk.gov.hmcts.reform.sscs.jms.retry.HearingRequestRequeuer.SCHEDULED_ENQUEUE_TIME;
+
+@ExtendWith(MockitoExtension.class)
+class HearingRequestRequeuerTest {
+
+    private static final String QUEUE = "tribunals-to-hearings";
+    private static final Instant NOW = Instant.parse("2023-01-01T10:00:00Z");
+
+    @Mock
+    private JmsTemplate jmsTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HearingRequestRequeuer requeuer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        requeuer = new HearingRequestRequeuer(jmsTemplate, QUEUE, 3, Duration.ofSeconds(3),
+            Clock.fixed(NOW, ZoneOffset.UTC), meterRegistry);
+    }
+
+    @DisplayName("A request is re-queued with the next attempt number and a scheduled enqueue time")
+    @Test
+    void testRequeue() throws Exception {
+        HearingRequest hearingRequest = HearingRequest.builder("1001")
+            .hearingState(HearingState.CREATE_HEARING)
+            .build();
+
+        requeuer.requeue(hearingRequest, 1, "ID:1001");
+
+        ArgumentCaptor<MessagePostProcessor> postProcessor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(jmsTemplate).convertAndSend(eq(QUEUE), eq(hearingRequest), postProcessor.capture());
+
+        AmqpJmsBytesMessageFacade facade = new AmqpJmsBytesMessageFacade();
+        postProcessor.getValue().postProcessMessage(new JmsBytesMessage(facade));
+
+        assertThat(facade.getApplicationProperty(ATTEMPT_PROPERTY)).isEqualTo(2);
+        assertThat(facade.getApplicationProperty(REQUEST_ID_PROPERTY)).isEqualTo("ID:1001");
+        assertThat(facade.getMessageAnnotation(SCHEDULED_ENQUEUE_TIME)).isEqualTo(Date.from(NOW.plusSeconds(3)));
+        assertThat(meterRegistry.get(REQUEUED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("A request can only be re-queued until the maximum number of attempts")
+    @Test
+    void testCanRequeue() {
+        assertThat(requeuer.canRequeue(2)).isTrue();
+        assertThat(requeuer.canRequeue(3)).isFalse();
+        assertThat(HearingRequestRequeuer.disabled().canRequeue(1)).isFalse();
+    }
+}
@@ -0,0 +1,120 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.sscs.ccd.domain.Appeal;
+import uk.gov.hmcts.reform.sscs.ccd.domain.Appellant;
+import uk.gov.hmcts.reform.sscs.ccd.domain.CcdValue;
+import uk.gov.hmcts.reform.sscs.ccd.domain.Name;
+import uk.gov.hmcts.reform.sscs.ccd.domain.OtherParty;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaseDataPatchTest {
+
+    private static final String CASE_ID = "1234";
+
+    @DisplayName("Only the changed fields are applied, keeping every other field of the case they are applied to")
+    @Test
+    void testOnlyChangedFieldsApplied() {
+        SscsCaseData read = caseData();
+        JsonNode original = CaseDataPatch.snapshot(read);
+        read.getAppeal().getAppellant().setId("appellant-id");
+
+        SscsCaseData latest = caseData();
+        latest.getAppeal().getAppellant().getName().setFirstName("Wilma");
+        latest.setUrgentCase("Yes");
+
+        SscsCaseData patched = CaseDataPatch.between(original, read).applyTo(latest);
+
+        assertThat(patched.getAppeal().getAppellant().getId()).isEqualTo("appellant-id");
+        assertThat(patched.getAppeal().getAppellant().getName().getFirstName()).isEqualTo("Wilma");
+        assertThat(patched.getUrgentCase()).isEqualTo("Yes");
+        assertThat(latest.getAppeal().getAppellant().getId()).isNull();
+    }
+
+    @DisplayName("Items of a list that keeps its length are patched individually")
+    @Test
+    void testListItemsPatched() {
+        SscsCaseData read = caseData();
+        read.setOtherParties(List.of(otherParty("Barney"), otherParty("Betty")));
+        JsonNode original = CaseDataPatch.snapshot(read);
+        read.getOtherParties().get(1).getValue().setId("other-party-id");
+
+        SscsCaseData latest = caseData();
+        latest.setOtherParties(List.of(otherParty("Barney"), otherParty("Betty")));
+        latest.getOtherParties().get(0).getValue().setId("existing-id");
+
+        SscsCaseData patched = CaseDataPatch.between(original, read).applyTo(latest);
+
+        assertThat(patched.getOtherParties())
+            .extracting(otherParty -> otherParty.getValue().getId())
+            .containsExactly("existing-id", "other-party-id");
+    }
+
+    @DisplayName("A change to a list item that is no longer in the case is skipped")
+    @Test
+    void testRemovedListItemSkipped() {
+        SscsCaseData read = caseData();
+        read.setOtherParties(List.of(otherParty("Barney"), otherParty("Betty")));
+        JsonNode original = CaseDataPatch.snapshot(read);
+        read.getOtherParties().get(1).getValue().setId("other-party-id");
+
+        SscsCaseData latest = caseData();
+        latest.setOtherParties(List.of(otherParty("Barney")));
+
+        SscsCaseData patched = CaseDataPatch.between(original, read).applyTo(latest);
+
+        assertThat(patched.getOtherParties())
+            .extracting(otherParty -> otherParty.getValue().getId())
+            .containsOnlyNulls();
+    }
+
+    @DisplayName("Later changes to the same field win when patches are combined")
+    @Test
+    void testCombined() {
+        SscsCaseData read = caseData();
+        JsonNode original = CaseDataPatch.snapshot(read);
+        read.setCaseReference("first");
+        CaseDataPatch first = CaseDataPatch.between(original, read);
+
+        original = CaseDataPatch.snapshot(read);
+        read.setCaseReference("latest");
+        read.setCaseCode("002DD");
+        CaseDataPatch latest = CaseDataPatch.between(original, read);
+
+        SscsCaseData patched = first.then(latest).applyTo(caseData());
+
+        assertThat(patched.getCaseReference()).isEqualTo("latest");
+        assertThat(patched.getCaseCode()).isEqualTo("002DD");
+    }
+
+    @DisplayName("Case data that has not changed gives an empty patch")
+    @Test
+    void testUnchanged() {
+        SscsCaseData read = caseData();
+
+        assertThat(CaseDataPatch.between(CaseDataPatch.snapshot(read), read).isEmpty()).isTrue();
+    }
+
+    private static SscsCaseData caseData() {
+        return SscsCaseData.builder()
+            .ccdCaseId(CASE_ID)
+            .appeal(Appeal.builder()
+                .appellant(Appellant.builder()
+                    .name(Name.builder().firstName("Fred").lastName("Flintstone").build())
+                    .build())
+                .build())
+            .build();
+    }
+
+    private static CcdValue<OtherParty> otherParty(String firstName) {
+        return new CcdValue<>(OtherParty.builder()
+            .name(Name.builder().firstName(firstName).lastName("Rubble").build())
+            .build());
+    }
+}
@@ -0,0 +1,166 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaseDetailsCacheTest {
+
+    private static final long CASE_ID = 1234L;
+    private static final Instant NOW = Instant.parse("2023-01-01T10:00:00Z");
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MutableClock clock;
+
+    private CaseDetailsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(NOW);
+        cache = new CaseDetailsCache(true, 2, 1_000_000, Duration.ofSeconds(30), clock, meterRegistry);
+    }
+
+    @DisplayName("A cached case is returned as an independent copy")
+    @Test
+    void testHitReturnsCopy() {
+        cache.put(CASE_ID, cache.currentGeneration(), caseDetails(CASE_ID, "AB1"));
+
+        SscsCaseDetails first = cache.get(CASE_ID).orElseThrow();
+        first.getData().setCaseReference("changed");
+
+        assertThat(cache.get(CASE_ID)).hasValueSatisfying(cached -> {
+            assertThat(cached.getId()).isEqualTo(CASE_ID);
+            assertThat(cached.getState()).isEqualTo("readyToList");
+            assertThat(cached.getData().getCaseReference()).isEqualTo("AB1");
+        });
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+    }
+
+    @DisplayName("A cached case keeps every field of the case details, not just the case data")
+    @Test
+    void testHitKeepsCaseDetails() {
+        SscsCaseDetails caseDetails = SscsCaseDetails.builder()
+            .id(CASE_ID)
+            .jurisdiction("SSCS")
+            .state("readyToList")
+            .caseTypeId("Benefit")
+            .createdDate(LocalDateTime.of(2023, 1, 1, 9, 0))
+            .lastModified(LocalDateTime.of(2023, 1, 1, 9, 30))
+            .data(SscsCaseData.builder().ccdCaseId(String.valueOf(CASE_ID)).build())
+            .build();
+        cache.put(CASE_ID, cache.currentGeneration(), caseDetails);
+
+        assertThat(cache.get(CASE_ID)).hasValueSatisfying(cached ->
+            assertThat(cached).usingRecursiveComparison().isEqualTo(caseDetails));
+    }
+
+    @DisplayName("A case read that started before one of our writes is not cached")
+    @Test
+    void testStaleReadNotCached() {
+        long readGeneration = cache.currentGeneration();
+        long writeGeneration = cache.invalidate(CASE_ID);
+        cache.put(CASE_ID, readGeneration, caseDetails(CASE_ID, "old"));
+
+        assertThat(cache.get(CASE_ID)).isEmpty();
+
+        cache.put(CASE_ID, writeGeneration, caseDetails(CASE_ID, "new"));
+
+        assertThat(cache.get(CASE_ID)).hasValueSatisfying(cached ->
+            assertThat(cached.getData().getCaseReference()).isEqualTo("new"));
+    }
+
+    @DisplayName("A write drops the cached case")
+    @Test
+    void testInvalidate() {
+        cache.put(CASE_ID, cache.currentGeneration(), caseDetails(CASE_ID, "AB1"));
+
+        cache.invalidate(CASE_ID);
+
+        assertThat(cache.get(CASE_ID)).isEmpty();
+    }
+
+    @DisplayName("Cached cases expire after their time to live")
+    @Test
+    void testExpiry() {
+        cache.put(CASE_ID, cache.currentGeneration(), caseDetails(CASE_ID, "AB1"));
+
+        clock.advance(Duration.ofSeconds(30));
+
+        assertThat(cache.get(CASE_ID)).isEmpty();
+    }
+
+    @DisplayName("The least recently used case is evicted once the cache is full")
+    @Test
+    void testEviction() {
+        cache.put(1L, cache.currentGeneration(), caseDetails(1L, "1"));
+        cache.put(2L, cache.currentGeneration(), caseDetails(2L, "2"));
+        cache.get(1L);
+        cache.put(3L, cache.currentGeneration(), caseDetails(3L, "3"));
+
+        assertThat(cache.get(2L)).isEmpty();
+        assertThat(cache.get(1L)).isPresent();
+        assertThat(cache.get(3L)).isPresent();
+        assertThat(meterRegistry.get("cache.evictions").functionCounter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("Nothing is cached when the cache is disabled")
+    @Test
+    void testDisabled() {
+        CaseDetailsCache disabled = new CaseDetailsCache(false, 2, 1_000_000, Duration.ofSeconds(30), clock, meterRegistry);
+        disabled.put(CASE_ID, disabled.currentGeneration(), caseDetails(CASE_ID, "AB1"));
+
+        assertThat(disabled.get(CASE_ID)).isEmpty();
+    }
+
+    private static SscsCaseDetails caseDetails(long caseId, String caseReference) {
+        return SscsCaseDetails.builder()
+            .id(caseId)
+            .state("readyToList")
+            .data(SscsCaseData.builder()
+                .ccdCaseId(String.valueOf(caseId))
+                .caseReference(caseReference)
+                .build())
+            .build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.sscs.service.CaseLockService.CONTENDED_METRIC;
+import static uk.gov.hmcts.reform.sscs.service.CaseLockService.WAIT_METRIC;
+
+class CaseLockServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CaseLockService caseLockService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        caseLockService = new CaseLockService(true, 16, meterRegistry);
+    }
+
+    @DisplayName("A second path waits for the lock on the same case and is counted as contended")
+    @Test
+    void testSameCaseWaits() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch locked = new CountDownLatch(1);
+            Future<?> second;
+            try (CaseLockService.CaseLock lock = caseLockService.lock("1234", "hmc")) {
+                second = executor.submit(() -> {
+                    try (CaseLockService.CaseLock secondLock = caseLockService.lock("1234", "tribunals")) {
+                        locked.countDown();
+                    }
+                });
+
+                assertThat(locked.await(200, TimeUnit.MILLISECONDS)).isFalse();
+            }
+            second.get(5, TimeUnit.SECONDS);
+
+            assertThat(meterRegistry.get(CONTENDED_METRIC).tag("path", "tribunals").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get(WAIT_METRIC).tag("path", "tribunals").timer().count()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @DisplayName("An uncontended lock is not counted or timed")
+    @Test
+    void testUncontended() {
+        try (CaseLockService.CaseLock lock = caseLockService.lock("1234", "hmc")) {
+            assertThat(meterRegistry.find(CONTENDED_METRIC).counter()).isNull();
+        }
+        assertThat(meterRegistry.find(WAIT_METRIC).timer()).isNull();
+    }
+
+    @DisplayName("Cases on different stripes are locked in parallel")
+    @Test
+    void testDifferentStripes() throws Exception {
+        String otherCase = "2";
+        while (caseLockService.stripeIndex(otherCase) == caseLockService.stripeIndex("1")) {
+            otherCase = otherCase + "1";
+        }
+        String otherCaseId = otherCase;
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (CaseLockService.CaseLock lock = caseLockService.lock("1", "hmc")) {
+            CountDownLatch locked = new CountDownLatch(1);
+            executor.submit(() -> {
+                try (CaseLockService.CaseLock otherLock = caseLockService.lock(otherCaseId, "tribunals")) {
+                    locked.countDown();
+                }
+            });
+
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @DisplayName("Nothing is locked when the case lock is disabled")
+    @Test
+    void testDisabled() throws Exception {
+        CaseLockService disabled = new CaseLockService(false, 1, meterRegistry);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (CaseLockService.CaseLock lock = disabled.lock("1234", "hmc")) {
+            Future<?> second = executor.submit(() -> disabled.lock("1234", "tribunals").close());
+
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+import uk.gov.hmcts.reform.sscs.exception.GetCaseException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static uk.gov.hmcts.reform.sscs.service.CaseReadCollapser.COLLAPSED_METRIC;
+
+class CaseReadCollapserTest {
+
+    private static final long CASE_ID = 1234L;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CaseReadCollapser collapser;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        collapser = new CaseReadCollapser(true, meterRegistry);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @DisplayName("A read of a case already being read waits for that read and gets its own copy of the case")
+    @Test
+    void testConcurrentReadsCollapsed() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        SscsCaseDetails read = caseDetails();
+
+        Future<SscsCaseDetails> first = executor.submit(() -> collapser.readCase(CASE_ID, () -> {
+            reads.incrementAndGet();
+            reading.countDown();
+            release.await();
+            return read;
+        }));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ExecutorService joinerExecutor = Executors.newSingleThreadExecutor();
+        try {
+            Future<SscsCaseDetails> second = joinerExecutor.submit(() -> collapser.readCase(CASE_ID, () -> {
+                reads.incrementAndGet();
+                return caseDetails();
+            }));
+            while (meterRegistry.find(COLLAPSED_METRIC).counter() == null) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(read);
+            SscsCaseDetails joined = second.get(5, TimeUnit.SECONDS);
+            assertThat(joined).isNotSameAs(read);
+            assertThat(joined.getData()).isNotSameAs(read.getData());
+            assertThat(joined.getData().getCaseReference()).isEqualTo("AB1");
+        } finally {
+            joinerExecutor.shutdownNow();
+        }
+        assertThat(reads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get(COLLAPSED_METRIC).tag("operation", "case").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("Reads made one after another are not collapsed")
+    @Test
+    void testSequentialReadsNotCollapsed() throws Exception {
+        AtomicInteger reads = new AtomicInteger();
+
+        collapser.readCase(CASE_ID, () -> {
+            reads.incrementAndGet();
+            return caseDetails();
+        });
+        collapser.readCase(CASE_ID, () -> {
+            reads.incrementAndGet();
+            return caseDetails();
+        });
+
+        assertThat(reads.get()).isEqualTo(2);
+        assertThat(meterRegistry.find(COLLAPSED_METRIC).counter()).isNull();
+    }
+
+    @DisplayName("A failed read is thrown to the caller that made it")
+    @Test
+    void testFailureThrown() {
+        assertThatExceptionOfType(GetCaseException.class)
+            .isThrownBy(() -> collapser.readCase(CASE_ID, () -> {
+                throw new GetCaseException("Case not found");
+            }));
+    }
+
+    private static SscsCaseDetails caseDetails() {
+        return SscsCaseDetails.builder()
+            .id(CASE_ID)
+            .data(SscsCaseData.builder()
+                .ccdCaseId(String.valueOf(CASE_ID))
+                .caseReference("AB1")
+                .build())
+            .build();
+    }
+}
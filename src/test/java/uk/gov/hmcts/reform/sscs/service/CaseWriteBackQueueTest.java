@@ -0,0 +1,284 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.UPDATE_CASE_ONLY;
+import static uk.gov.hmcts.reform.sscs.service.CaseWriteBackQueue.AGE_METRIC;
+import static uk.gov.hmcts.reform.sscs.service.CaseWriteBackQueue.COALESCED_METRIC;
+import static uk.gov.hmcts.reform.sscs.service.CaseWriteBackQueue.DEPTH_METRIC;
+import static uk.gov.hmcts.reform.sscs.service.CaseWriteBackQueue.OUTCOME_METRIC;
+
+@ExtendWith(MockitoExtension.class)
+class CaseWriteBackQueueTest {
+
+    private static final long CASE_ID = 1234L;
+
+    private static final String STATE = "readyToList";
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    @Mock
+    private CcdCaseService ccdCaseService;
+
+    @Captor
+    private ArgumentCaptor<UnaryOperator<SscsCaseData>> mutator;
+
+    private final CaseLockService caseLockService = new CaseLockService(false, 1, new SimpleMeterRegistry());
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CaseWriteBackQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queue = new CaseWriteBackQueue(true, ccdCaseService, caseLockService, 2, RETRY_DELAY, 0, clock, meterRegistry);
+    }
+
+    @DisplayName("Changes queued for the same case are combined into one write back, the latest change to a field winning")
+    @Test
+    void testCoalesced() throws Exception {
+        enqueue(caseData -> caseData.setCaseReference("first"));
+        enqueue(caseData -> {
+            caseData.setCaseReference("latest");
+            caseData.setCaseCode("002DD");
+        });
+
+        assertThat(meterRegistry.get(DEPTH_METRIC).gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get(COALESCED_METRIC).counter().count()).isEqualTo(1);
+
+        queue.drain();
+
+        SscsCaseData written = writtenTo(latestCaseData());
+        assertThat(written.getCaseReference()).isEqualTo("latest");
+        assertThat(written.getCaseCode()).isEqualTo("002DD");
+        assertThat(queue.depth()).isZero();
+        assertThat(meterRegistry.get(OUTCOME_METRIC).tag("outcome", "written").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("Only the queued changes are applied to the latest case, keeping changes made since it was read")
+    @Test
+    void testOnlyChangesWritten() throws Exception {
+        enqueue(caseData -> caseData.setCaseReference("queued"));
+
+        queue.drain();
+
+        SscsCaseData written = writtenTo(latestCaseData());
+        assertThat(written.getCaseReference()).isEqualTo("queued");
+        assertThat(written.getUrgentCase()).isEqualTo("Yes");
+        assertThat(written.getCcdCaseId()).isEqualTo(String.valueOf(CASE_ID));
+    }
+
+    @DisplayName("The age of the oldest queued write back is exposed")
+    @Test
+    void testAge() {
+        enqueue(caseData -> caseData.setCaseReference("first"));
+        clock.advance(Duration.ofSeconds(5));
+
+        assertThat(meterRegistry.get(AGE_METRIC).gauge().value()).isEqualTo(5.0);
+    }
+
+    @DisplayName("Queued case details can be read back as a copy with their state")
+    @Test
+    void testGetQueued() {
+        SscsCaseDetails caseDetails = enqueue(caseData -> caseData.setCaseReference("queued"));
+
+        SscsCaseDetails queued = queue.getQueued(CASE_ID).orElseThrow();
+
+        assertThat(queued.getData()).isNotSameAs(caseDetails.getData());
+        assertThat(queued.getData().getCaseReference()).isEqualTo("queued");
+        assertThat(queued.getId()).isEqualTo(CASE_ID);
+        assertThat(queued.getState()).isEqualTo(STATE);
+        assertThat(queue.getQueued(5678L)).isEmpty();
+    }
+
+    @DisplayName("A failed write back is retried after the retry delay and dropped after the last attempt")
+    @Test
+    void testRetried() throws Exception {
+        given(ccdCaseService.updateCaseData(eq(CASE_ID), eq(UPDATE_CASE_ONLY), anyString(), anyString(), any()))
+            .willThrow(new UpdateCaseException("CCD unavailable"));
+        enqueue(caseData -> caseData.setCaseReference("first"));
+
+        queue.drain();
+        assertThat(queue.depth()).isEqualTo(1);
+
+        queue.drain();
+        verify(ccdCaseService, times(1)).updateCaseData(eq(CASE_ID), eq(UPDATE_CASE_ONLY), anyString(), anyString(), any());
+
+        clock.advance(RETRY_DELAY);
+        queue.drain();
+
+        verify(ccdCaseService, times(2)).updateCaseData(eq(CASE_ID), eq(UPDATE_CASE_ONLY), anyString(), anyString(), any());
+        assertThat(queue.depth()).isZero();
+        assertThat(meterRegistry.get(OUTCOME_METRIC).tag("outcome", "retried").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(OUTCOME_METRIC).tag("outcome", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("The changes of a failed write back are combined with a newer write back queued while it was written")
+    @Test
+    void testFailedChangesCombinedWithNewer() throws Exception {
+        given(ccdCaseService.updateCaseData(eq(CASE_ID), eq(UPDATE_CASE_ONLY), anyString(), anyString(), any()))
+            .willAnswer(invocation -> {
+                enqueue(caseData -> caseData.setCaseCode("002DD"));
+                throw new UpdateCaseException("CCD unavailable");
+            })
+            .willReturn(null);
+        enqueue(caseData -> caseData.setCaseReference("first"));
+
+        queue.drain();
+
+        verify(ccdCaseService, times(2)).updateCaseData(eq(CASE_ID), eq(UPDATE_CASE_ONLY), anyString(), anyString(),
+            mutator.capture());
+        SscsCaseData written = mutator.getValue().apply(latestCaseData());
+        assertThat(written.getCaseReference()).isEqualTo("first");
+        assertThat(written.getCaseCode()).isEqualTo("002DD");
+        assertThat(meterRegistry.get(OUTCOME_METRIC).tag("outcome", "superseded").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("Flushing a case writes its queued changes on the caller's thread")
+    @Test
+    void testFlush() throws Exception {
+        enqueue(caseData -> caseData.setCaseReference("first"));
+
+        queue.flush(CASE_ID);
+
+        assertThat(writtenTo(latestCaseData()).getCaseReference()).isEqualTo("first");
+        assertThat(queue.depth()).isZero();
+    }
+
+    @DisplayName("Flushing a case waits for the write back of it the worker is already making")
+    @Test
+    void testFlushWaitsForWorker() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(ccdCaseService.updateCaseData(eq(CASE_ID), eq(UPDATE_CASE_ONLY), anyString(), anyString(), any()))
+            .willAnswer(invocation -> {
+                writing.countDown();
+                release.await();
+                return null;
+            });
+        enqueue(caseData -> caseData.setCaseReference("first"));
+        Thread worker = new Thread(queue::drain);
+        worker.start();
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> flushed = CompletableFuture.runAsync(() -> {
+            try {
+                queue.flush(CASE_ID);
+            } catch (UpdateCaseException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThatExceptionOfType(TimeoutException.class)
+            .isThrownBy(() -> flushed.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        flushed.get(5, TimeUnit.SECONDS);
+        worker.join(5000);
+        verify(ccdCaseService, times(1)).updateCaseData(eq(CASE_ID), eq(UPDATE_CASE_ONLY), anyString(), anyString(), any());
+    }
+
+    @DisplayName("A flush whose write back fails throws, leaving the write back queued to be written before the case is updated")
+    @Test
+    void testFlushFailure() throws Exception {
+        given(ccdCaseService.updateCaseData(eq(CASE_ID), eq(UPDATE_CASE_ONLY), anyString(), anyString(), any()))
+            .willThrow(new UpdateCaseException("CCD unavailable"));
+        enqueue(caseData -> caseData.setCaseReference("first"));
+
+        assertThatExceptionOfType(UpdateCaseException.class)
+            .isThrownBy(() -> queue.flush(CASE_ID));
+
+        assertThat(queue.getQueued(CASE_ID)).isPresent();
+    }
+
+    private SscsCaseDetails enqueue(Consumer<SscsCaseData> change) {
+        SscsCaseData caseData = SscsCaseData.builder()
+            .ccdCaseId(String.valueOf(CASE_ID))
+            .caseReference("read")
+            .build();
+        JsonNode original = CaseDataPatch.snapshot(caseData);
+        change.accept(caseData);
+        SscsCaseDetails caseDetails = SscsCaseDetails.builder()
+            .id(CASE_ID)
+            .state(STATE)
+            .data(caseData)
+            .build();
+        queue.enqueue(caseDetails, original, UPDATE_CASE_ONLY, "summary", "description");
+        return caseDetails;
+    }
+
+    private SscsCaseData writtenTo(SscsCaseData latestCaseData) throws Exception {
+        verify(ccdCaseService).updateCaseData(eq(CASE_ID), eq(UPDATE_CASE_ONLY), anyString(), anyString(),
+            mutator.capture());
+        return mutator.getValue().apply(latestCaseData);
+    }
+
+    private static SscsCaseData latestCaseData() {
+        return SscsCaseData.builder()
+            .ccdCaseId(String.valueOf(CASE_ID))
+            .caseReference("read")
+            .urgentCase("Yes")
+            .build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -3,14 +3,18 @@ package uk.gov.hmcts.reform.sscs.service;
 import feign.FeignException;
 import feign.Request;
 import feign.RequestTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.ccd.client.CoreCaseDataApi;
 import uk.gov.hmcts.reform.ccd.client.model.CaseDetails;
 import uk.gov.hmcts.reform.ccd.client.model.SearchResult;
@@ -21,20 +25,28 @@ import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
 import uk.gov.hmcts.reform.sscs.ccd.service.SscsCcdConvertService;
 import uk.gov.hmcts.reform.sscs.exception.GetCaseException;
 import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
-import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+import uk.gov.hmcts.reform.sscs.model.CaseProjection;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class CcdCaseServiceTest {
@@ -52,17 +64,23 @@ class CcdCaseServiceTest {
     private CcdService ccdService;
 
     @Mock
-    private IdamService idamService;
+    private IdamTokenProvider idamTokenProvider;
 
     @Mock
     private SscsCcdConvertService sscsCcdConvertService;
 
+    @Spy
+    private CaseDetailsCache caseDetailsCache = new CaseDetailsCache(false, 1, 1, Duration.ZERO, Clock.systemUTC(), new SimpleMeterRegistry());
+
+    @Spy
+    private CaseReadCollapser caseReadCollapser = new CaseReadCollapser(false, new SimpleMeterRegistry());
+
     @Mock
     private CoreCaseDataApi coreCaseDataApi;
 
     @Test
     void getByCaseId_shouldReturnCaseDetails() throws GetCaseException {
-        given(idamService.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
 
         SscsCaseDetails expectedCaseDetails =
                 SscsCaseDetails.builder().data(SscsCaseData.builder().build()).build();
@@ -75,7 +93,7 @@ class CcdCaseServiceTest {
 
     @Test
     void getByCaseId_shouldReturnCaseDetailsWithString() throws GetCaseException {
-        given(idamService.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
 
         SscsCaseDetails expectedCaseDetails =
                 SscsCaseDetails.builder().data(SscsCaseData.builder().build()).build();
@@ -88,7 +106,7 @@ class CcdCaseServiceTest {
 
     @Test
     void getByCaseId_shouldThrowGetCaseExceptionWhenNoCaseFound() {
-        given(idamService.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
         given(ccdService.getByCaseId(eq(MISSING_CASE_ID), any(IdamTokens.class))).willReturn(null);
 
         assertThatExceptionOfType(GetCaseException.class).isThrownBy(
@@ -101,9 +119,46 @@ class CcdCaseServiceTest {
                 () -> ccdCaseService.getCaseDetails(INVALID_CASE_ID));
     }
 
+    @Test
+    void getByCaseId_shouldNotUseCachedCaseDetails() throws GetCaseException {
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        CcdCaseService cachingCcdCaseService = givenCachedCase();
+        SscsCaseDetails latestCaseDetails = SscsCaseDetails.builder()
+            .id(CASE_ID)
+            .data(SscsCaseData.builder().ccdCaseId(String.valueOf(CASE_ID)).caseReference("latest").build())
+            .build();
+        given(ccdService.getByCaseId(eq(CASE_ID), any(IdamTokens.class))).willReturn(latestCaseDetails);
+
+        SscsCaseDetails caseDetails = cachingCcdCaseService.getCaseDetails(CASE_ID);
+
+        assertThat(caseDetails).isEqualTo(latestCaseDetails);
+    }
+
+    @Test
+    void getCachedCaseDetails_shouldUseCachedCaseDetails() throws GetCaseException {
+        CcdCaseService cachingCcdCaseService = givenCachedCase();
+
+        SscsCaseDetails caseDetails = cachingCcdCaseService.getCachedCaseDetails(CASE_ID);
+
+        assertThat(caseDetails.getData().getCaseReference()).isEqualTo("cached");
+        verifyNoInteractions(ccdService);
+    }
+
+    @Test
+    void getCachedCaseDetails_shouldReadCaseWhenNotCached() throws GetCaseException {
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        SscsCaseDetails expectedCaseDetails =
+                SscsCaseDetails.builder().data(SscsCaseData.builder().build()).build();
+        given(ccdService.getByCaseId(eq(CASE_ID), any(IdamTokens.class))).willReturn(expectedCaseDetails);
+
+        SscsCaseDetails caseDetails = ccdCaseService.getCachedCaseDetails(CASE_ID);
+
+        assertThat(caseDetails).isEqualTo(expectedCaseDetails);
+    }
+
     @Test
     void updateCase_shouldUpdateCaseDetails() throws UpdateCaseException {
-        given(idamService.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
         SscsCaseDetails expectedCaseDetails =
                 SscsCaseDetails.builder()
                         .data(SscsCaseData.builder()
@@ -118,9 +173,52 @@ class CcdCaseServiceTest {
         assertThat(expectedCaseDetails).isEqualTo(caseDetails);
     }
 
+    @Test
+    void updateCase_shouldSubmitStartedEvent() throws UpdateCaseException {
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        SscsCaseDetails startEventResponse = SscsCaseDetails.builder()
+            .eventId("hearingBooked")
+            .eventToken("token")
+            .data(SscsCaseData.builder()
+                .ccdCaseId(String.valueOf(CASE_ID)).build()).build();
+        given(ccdService.updateCase(any(SscsCaseData.class), eq(CASE_ID), eq("hearingBooked"), eq("token"),
+            eq(EventType.HEARING_BOOKED.getCcdType()), eq(SUMMARY), eq(DESCRIPTION), any(IdamTokens.class)))
+            .willReturn(startEventResponse);
+
+        SscsCaseDetails caseDetails = ccdCaseService.updateCaseData(
+            startEventResponse.getData(), startEventResponse, EventType.HEARING_BOOKED, SUMMARY, DESCRIPTION);
+
+        assertThat(caseDetails).isEqualTo(startEventResponse);
+        verify(ccdService, never()).updateCase(any(SscsCaseData.class), anyLong(), anyString(), anyString(),
+            anyString(), any(IdamTokens.class));
+    }
+
+    @Test
+    void updateCase_shouldSubmitMutatedStartedEventCaseData() throws UpdateCaseException {
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        SscsCaseDetails startEventResponse = SscsCaseDetails.builder()
+            .eventId("updateCaseOnly")
+            .eventToken("token")
+            .data(SscsCaseData.builder()
+                .ccdCaseId(String.valueOf(CASE_ID)).build()).build();
+        given(ccdService.getCaseForModification(eq(CASE_ID), any(IdamTokens.class), eq(EventType.UPDATE_CASE_ONLY.getCcdType())))
+            .willReturn(startEventResponse);
+        ArgumentCaptor<SscsCaseData> submitted = ArgumentCaptor.forClass(SscsCaseData.class);
+        given(ccdService.updateCase(submitted.capture(), eq(CASE_ID), eq("updateCaseOnly"), eq("token"),
+            eq(EventType.UPDATE_CASE_ONLY.getCcdType()), eq(SUMMARY), eq(DESCRIPTION), any(IdamTokens.class)))
+            .willReturn(startEventResponse);
+
+        ccdCaseService.updateCaseData(CASE_ID, EventType.UPDATE_CASE_ONLY, SUMMARY, DESCRIPTION, caseData -> {
+            caseData.setCaseReference("mutated");
+            return caseData;
+        });
+
+        assertThat(submitted.getValue().getCaseReference()).isEqualTo("mutated");
+    }
+
     @Test
     void updateCase_shouldThrowUpdateCaseExceptionWhenCaseUpdateFails() {
-        given(idamService.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
         Request request = Request.create(Request.HttpMethod.GET, "url",
                 new HashMap<>(), null, new RequestTemplate());
 
@@ -139,10 +237,21 @@ class CcdCaseServiceTest {
                         testCaseDetails.getData(), EventType.READY_TO_LIST, SUMMARY, DESCRIPTION));
     }
 
+    private CcdCaseService givenCachedCase() {
+        CaseDetailsCache cache = new CaseDetailsCache(true, 10, 1_000_000, Duration.ofMinutes(1), Clock.systemUTC(),
+            new SimpleMeterRegistry());
+        cache.put(CASE_ID, cache.currentGeneration(), SscsCaseDetails.builder()
+            .id(CASE_ID)
+            .data(SscsCaseData.builder().ccdCaseId(String.valueOf(CASE_ID)).caseReference("cached").build())
+            .build());
+        return new CcdCaseService(ccdService, idamTokenProvider, coreCaseDataApi, sscsCcdConvertService, cache,
+            caseReadCollapser);
+    }
+
     @ParameterizedTest
     @MethodSource("emptyCaseArguments")
     void getCasesViaElastic_noCases(List<CaseDetails> cases) throws UpdateCaseException {
-        given(idamService.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
 
         SearchResult searchResult = SearchResult.builder().cases(cases).total(0).build();
 
@@ -156,7 +265,7 @@ class CcdCaseServiceTest {
 
     @Test
     void getCasesViaElastic_noResult() throws UpdateCaseException {
-        given(idamService.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
 
         List<SscsCaseDetails> result = ccdCaseService.getCasesViaElastic(List.of("1234"));
 
@@ -173,7 +282,7 @@ class CcdCaseServiceTest {
     @Test
     void getCasesViaElastic() throws UpdateCaseException {
         Long id = 1L;
-        given(idamService.getIdamTokens()).willReturn(IdamTokens.builder().build());
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
 
         CaseDetails details = CaseDetails.builder().id(id).build();
 
@@ -195,4 +304,48 @@ class CcdCaseServiceTest {
 
         assertThat(result.get(0)).isEqualTo(sscsCaseDetails);
     }
+
+    @Test
+    void getCasesViaElasticProjected() {
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
+
+        ccdCaseService.getCasesViaElastic(List.of("1234"), CaseProjection.LINKED_CASE_REFERENCES);
+
+        ArgumentCaptor<String> searchCaptor = ArgumentCaptor.forClass(String.class);
+        verify(coreCaseDataApi).searchCases(any(), any(), any(), searchCaptor.capture());
+        assertThat(searchCaptor.getValue())
+            .contains("\"_source\"")
+            .contains("\"data.linkedCase\"");
+    }
+
+    @Test
+    void streamCasesViaElasticPages() {
+        ReflectionTestUtils.setField(ccdCaseService, "searchPageSize", 2);
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
+
+        CaseDetails first = CaseDetails.builder().id(1L).build();
+        CaseDetails second = CaseDetails.builder().id(2L).build();
+        CaseDetails third = CaseDetails.builder().id(3L).build();
+        given(coreCaseDataApi.searchCases(any(), any(), any(), any()))
+            .willReturn(SearchResult.builder().cases(List.of(first, second)).total(3).build())
+            .willReturn(SearchResult.builder().cases(List.of(third)).total(3).build());
+        given(sscsCcdConvertService.getCaseDetails(any(CaseDetails.class)))
+            .willAnswer(invocation -> SscsCaseDetails.builder().id(invocation.<CaseDetails>getArgument(0).getId()).build());
+
+        List<SscsCaseDetails> result = ccdCaseService.streamCasesViaElastic(List.of("1", "2", "3"), CaseProjection.FULL)
+            .collect(Collectors.toList());
+
+        assertThat(result).extracting(SscsCaseDetails::getId).containsExactly(1L, 2L, 3L);
+        ArgumentCaptor<String> searchCaptor = ArgumentCaptor.forClass(String.class);
+        verify(coreCaseDataApi, times(2)).searchCases(any(), any(), any(), searchCaptor.capture());
+        assertThat(searchCaptor.getAllValues().get(0)).doesNotContain("search_after").doesNotContain("_source");
+        assertThat(searchCaptor.getAllValues().get(1)).contains("search_after").contains("\"2\"");
+    }
+
+    @Test
+    void streamCasesViaElasticIsLazy() {
+        ccdCaseService.streamCasesViaElastic(List.of("1"), CaseProjection.FULL);
+
+        verifyNoInteractions(coreCaseDataApi);
+    }
 }
@@ -0,0 +1,41 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class DownstreamExecutorTest {
+
+    private final DownstreamExecutor downstreamExecutor = new DownstreamExecutor("test", 2, 2, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        downstreamExecutor.shutdown();
+    }
+
+    @DisplayName("A task runs on the executor and its result is returned")
+    @Test
+    void testSupply() {
+        CompletableFuture<String> future = downstreamExecutor.supply(() -> Thread.currentThread().getName());
+
+        assertThat(DownstreamExecutor.join(future)).startsWith("test-");
+    }
+
+    @DisplayName("An unchecked exception thrown by a task is rethrown as is")
+    @Test
+    void testJoinUnwrapsException() {
+        CompletableFuture<String> future = downstreamExecutor.supply(() -> {
+            throw new IllegalStateException("failed");
+        });
+
+        assertThatIllegalStateException()
+            .isThrownBy(() -> DownstreamExecutor.join(future))
+            .withMessage("failed");
+    }
+}
@@ -0,0 +1,91 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.sscs.model.single.hearing.CaseDetails;
+import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingDetails;
+import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingRequestPayload;
+import uk.gov.hmcts.reform.sscs.model.single.hearing.RequestDetails;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.sscs.service.HearingPayloadFingerprintService.SKIPPED_METRIC;
+
+class HearingPayloadFingerprintServiceTest {
+
+    private static final String HEARING_ID = "123";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HearingPayloadFingerprintService fingerprintService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fingerprintService = new HearingPayloadFingerprintService(true, 2, meterRegistry);
+    }
+
+    @DisplayName("Payloads differing only in their version number have the same fingerprint")
+    @Test
+    void testVersionNumberIgnored() {
+        assertThat(fingerprintService.fingerprint(payload(1L, 60)))
+            .isNotNull()
+            .isEqualTo(fingerprintService.fingerprint(payload(2L, 60)));
+    }
+
+    @DisplayName("Payloads with different hearing details have different fingerprints")
+    @Test
+    void testChangedPayload() {
+        assertThat(fingerprintService.fingerprint(payload(1L, 60)))
+            .isNotEqualTo(fingerprintService.fingerprint(payload(1L, 90)));
+    }
+
+    @DisplayName("An update is unchanged when the fingerprint and the version held on the case match the last update")
+    @Test
+    void testUnchanged() {
+        String fingerprint = fingerprintService.fingerprint(payload(1L, 60));
+        fingerprintService.record(HEARING_ID, fingerprint, 2L);
+
+        assertThat(fingerprintService.isUnchanged(HEARING_ID, fingerprint, 2L)).isTrue();
+        assertThat(meterRegistry.get(SKIPPED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("An update is sent when the hearing version has moved on since the last update")
+    @Test
+    void testVersionChanged() {
+        String fingerprint = fingerprintService.fingerprint(payload(1L, 60));
+        fingerprintService.record(HEARING_ID, fingerprint, 2L);
+
+        assertThat(fingerprintService.isUnchanged(HEARING_ID, fingerprint, 3L)).isFalse();
+    }
+
+    @DisplayName("The least recently used hearing is forgotten once the store is full")
+    @Test
+    void testBoundedStore() {
+        String fingerprint = fingerprintService.fingerprint(payload(1L, 60));
+        fingerprintService.record("1", fingerprint, 1L);
+        fingerprintService.record("2", fingerprint, 1L);
+        fingerprintService.record("3", fingerprint, 1L);
+
+        assertThat(fingerprintService.isUnchanged("1", fingerprint, 1L)).isFalse();
+        assertThat(fingerprintService.isUnchanged("3", fingerprint, 1L)).isTrue();
+    }
+
+    @DisplayName("Nothing is fingerprinted when the feature is disabled")
+    @Test
+    void testDisabled() {
+        HearingPayloadFingerprintService disabled = new HearingPayloadFingerprintService(false, 2, meterRegistry);
+
+        assertThat(disabled.fingerprint(payload(1L, 60))).isNull();
+        assertThat(disabled.isUnchanged(HEARING_ID, null, 1L)).isFalse();
+    }
+
+    private static HearingRequestPayload payload(Long versionNumber, int duration) {
+        return HearingRequestPayload.builder()
+            .requestDetails(RequestDetails.builder().versionNumber(versionNumber).build())
+            .hearingDetails(HearingDetails.builder().duration(duration).build())
+            .caseDetails(CaseDetails.builder().caseId("1234").build())
+            .build();
+    }
+}
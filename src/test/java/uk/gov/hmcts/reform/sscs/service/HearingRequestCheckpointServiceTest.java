@@ -0,0 +1,115 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.sscs.model.single.hearing.HmcUpdateResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.sscs.service.HearingRequestCheckpointService.RESUMED_METRIC;
+import static uk.gov.hmcts.reform.sscs.service.HearingRequestCheckpointService.Stage.CCD_UPDATED;
+import static uk.gov.hmcts.reform.sscs.service.HearingRequestCheckpointService.Stage.HMC_ACCEPTED;
+
+class HearingRequestCheckpointServiceTest {
+
+    private static final String KEY = "ID:1001";
+    private static final Instant NOW = Instant.parse("2023-01-01T10:00:00Z");
+
+    private final HmcUpdateResponse response = HmcUpdateResponse.builder().hearingRequestId(1L).versionNumber(1L).build();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MutableClock clock;
+
+    private HearingRequestCheckpointService checkpointService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(NOW);
+        checkpointService = new HearingRequestCheckpointService(true, Duration.ofMinutes(10), clock, meterRegistry);
+    }
+
+    @DisplayName("A hearing request accepted by HMC is resumed with its HMC response")
+    @Test
+    void testResumeAfterHmcAccepted() {
+        checkpointService.record(KEY, HMC_ACCEPTED, response);
+
+        assertThat(checkpointService.getAcceptedResponse(KEY)).contains(response);
+        assertThat(meterRegistry.get(RESUMED_METRIC).tag("stage", HMC_ACCEPTED.name()).counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("A different request for the same case does not resume from another request's checkpoint")
+    @Test
+    void testNoResumeForOtherRequest() {
+        checkpointService.record(KEY, HMC_ACCEPTED, response);
+
+        assertThat(checkpointService.getAcceptedResponse("ID:1002")).isEmpty();
+    }
+
+    @DisplayName("A request without a message ID is not checkpointed")
+    @Test
+    void testNoCheckpointWithoutRequestId() {
+        checkpointService.record(null, HMC_ACCEPTED, response);
+
+        assertThat(checkpointService.getAcceptedResponse(null)).isEmpty();
+    }
+
+    @DisplayName("Updating the case completes the hearing request")
+    @Test
+    void testCompletedRequestIsForgotten() {
+        checkpointService.record(KEY, HMC_ACCEPTED, response);
+        checkpointService.record(KEY, CCD_UPDATED, null);
+
+        assertThat(checkpointService.getAcceptedResponse(KEY)).isEmpty();
+    }
+
+    @DisplayName("Checkpoints expire")
+    @Test
+    void testCheckpointExpires() {
+        checkpointService.record(KEY, HMC_ACCEPTED, response);
+        clock.instant = NOW.plus(Duration.ofMinutes(10));
+
+        assertThat(checkpointService.getAcceptedResponse(KEY)).isEmpty();
+    }
+
+    @DisplayName("Nothing is recorded when checkpoints are disabled")
+    @Test
+    void testDisabled() {
+        HearingRequestCheckpointService disabled = new HearingRequestCheckpointService(false, Duration.ofMinutes(10),
+            clock, meterRegistry);
+        disabled.record(KEY, HMC_ACCEPTED, response);
+
+        assertThat(disabled.getAcceptedResponse(KEY)).isEmpty();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package uk.gov.hmcts.reform.sscs.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
@@ -31,7 +32,6 @@ import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
 import uk.gov.hmcts.reform.sscs.ccd.service.UpdateCcdCaseService;
 import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
-import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.model.HearingEvent;
 import uk.gov.hmcts.reform.sscs.model.HearingWrapper;
 import uk.gov.hmcts.reform.sscs.model.hearings.HearingRequest;
@@ -60,7 +60,7 @@ import static uk.gov.hmcts.reform.sscs.ccd.domain.HearingState.CREATE_HEARING;
 
 @EnableRetry
 @RunWith(SpringRunner.class)
-@SpringBootTest(classes = {HearingsService.class})
+@SpringBootTest(classes = {HearingsService.class, SimpleMeterRegistry.class})
 @TestPropertySource(properties = {
     "retry.hearing-response-update.backoff=100",
 })
@@ -92,11 +92,26 @@ class HearingsServiceRetryTest {
     private SessionCategoryMapService sessionCategoryMaps;
 
     @MockBean
-    private IdamService idamService;
+    private IdamTokenProvider idamTokenProvider;
 
     @MockBean
     private UpdateCcdCaseService updateCcdCaseService;
 
+    @MockBean
+    private HearingRequestCheckpointService checkpointService;
+
+    @MockBean
+    private DownstreamExecutor downstreamExecutor;
+
+    @MockBean
+    private HearingPayloadFingerprintService fingerprintService;
+
+    @MockBean
+    private CaseLockService caseLockService;
+
+    @MockBean
+    private CaseWriteBackQueue caseWriteBackQueue;
+
     @MockBean
     private HearingServiceConsumer hearingServiceConsumer;
 
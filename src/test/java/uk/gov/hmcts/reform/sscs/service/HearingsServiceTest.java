@@ -3,6 +3,8 @@ package uk.gov.hmcts.reform.sscs.service;
 import feign.FeignException;
 import feign.Request;
 import feign.RequestTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,6 +18,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.sscs.ccd.domain.*;
@@ -24,7 +27,6 @@ import uk.gov.hmcts.reform.sscs.exception.GetHearingException;
 import uk.gov.hmcts.reform.sscs.exception.ListingException;
 import uk.gov.hmcts.reform.sscs.exception.UnhandleableHearingStateException;
 import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
-import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
 import uk.gov.hmcts.reform.sscs.model.HearingEvent;
 import uk.gov.hmcts.reform.sscs.model.HearingWrapper;
@@ -48,6 +50,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -59,6 +62,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.HearingRoute.LIST_ASSIST;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.HearingState.ADJOURN_CREATE_HEARING;
@@ -103,7 +107,7 @@ class HearingsServiceTest {
     private VenueService venueService;
 
     @Mock
-    private IdamService idamService;
+    private IdamTokenProvider idamTokenProvider;
 
     @Mock
     private UpdateCcdCaseService updateCcdCaseService;
@@ -117,6 +121,24 @@ class HearingsServiceTest {
     @Mock
     private Consumer<SscsCaseData> sscsCaseDataConsumer;
 
+    @Mock
+    private HearingRequestCheckpointService checkpointService;
+
+    @Mock
+    private HearingPayloadFingerprintService fingerprintService;
+
+    @Spy
+    private CaseLockService caseLockService = new CaseLockService(false, 1, new SimpleMeterRegistry());
+
+    @Mock
+    private CaseWriteBackQueue caseWriteBackQueue;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private DownstreamExecutor downstreamExecutor = new DownstreamExecutor("test", 1, 1, new SimpleMeterRegistry());
+
     @Captor
     private ArgumentCaptor<Consumer<SscsCaseDetails>> caseDataConsumerCaptor;
 
@@ -282,7 +304,7 @@ class HearingsServiceTest {
 
     private void mockHearingResponseForAdjournmentCreate(boolean caseUpdateV2Enabled) {
         if (caseUpdateV2Enabled) {
-            given(idamService.getIdamTokens()).willReturn(IdamTokens.builder().build());
+            given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder().build());
         }
         given(sessionCategoryMaps.getSessionCategory(BENEFIT_CODE, ISSUE_CODE, false, false))
             .willReturn(new SessionCategoryMap(BenefitCode.PIP_NEW_CLAIM, Issue.DD,
@@ -328,6 +350,78 @@ class HearingsServiceTest {
             .isThrownBy(() -> hearingsService.processHearingWrapper(wrapper));
     }
 
+    @DisplayName("When concurrent create hearing is enabled the hearing lookup runs alongside the payload build")
+    @Test
+    void processHearingWrapperCreateConcurrently() {
+        ReflectionTestUtils.setField(hearingsService, "concurrentCreateHearingEnabled", true);
+        given(sessionCategoryMaps.getSessionCategory(BENEFIT_CODE,ISSUE_CODE,false,false))
+            .willReturn(new SessionCategoryMap(BenefitCode.PIP_NEW_CLAIM, Issue.DD,
+                false,false,SessionCategory.CATEGORY_03,null));
+
+        given(refData.getHearingDurations()).willReturn(hearingDurations);
+        given(refData.getSessionCategoryMaps()).willReturn(sessionCategoryMaps);
+        given(refData.getVenueService()).willReturn(venueService);
+
+        given(venueService.getEpimsIdForVenue(PROCESSING_VENUE)).willReturn("219164");
+        given(hearingServiceConsumer.getCreateHearingCaseDataConsumer(any(), any())).willReturn(sscsCaseDataConsumer);
+
+        given(hmcHearingApiService.sendCreateHearingRequest(any(HearingRequestPayload.class)))
+            .willReturn(HmcUpdateResponse.builder().build());
+
+        given(hmcHearingsApiService.getHearingsRequest(anyString(),eq(null)))
+            .willReturn(HearingsGetResponse.builder().build());
+
+        wrapper.setHearingState(CREATE_HEARING);
+
+        assertThatNoException()
+            .isThrownBy(() -> hearingsService.processHearingWrapper(wrapper));
+        verify(downstreamExecutor).supply(any());
+        verify(hmcHearingApiService).sendCreateHearingRequest(any(HearingRequestPayload.class));
+    }
+
+    @DisplayName("When concurrent create hearing finds an existing hearing the payload build does not change the case")
+    @Test
+    void processHearingWrapperCreateConcurrentlyExistingHearingKeepsCase() {
+        ReflectionTestUtils.setField(hearingsService, "concurrentCreateHearingEnabled", true);
+        given(sessionCategoryMaps.getSessionCategory(BENEFIT_CODE,ISSUE_CODE,false,false))
+            .willReturn(new SessionCategoryMap(BenefitCode.PIP_NEW_CLAIM, Issue.DD,
+                false,false,SessionCategory.CATEGORY_03,null));
+
+        given(refData.getHearingDurations()).willReturn(hearingDurations);
+        given(refData.getSessionCategoryMaps()).willReturn(sessionCategoryMaps);
+        given(refData.getVenueService()).willReturn(venueService);
+        given(venueService.getEpimsIdForVenue(PROCESSING_VENUE)).willReturn("219164");
+        given(hearingDurations.getHearingDurationBenefitIssueCodes(any())).willReturn(90);
+        given(hearingServiceConsumer.getCreateHearingCaseDataConsumer(any(), any())).willReturn(sscsCaseDataConsumer);
+        given(hmcHearingsApiService.getHearingsRequest(anyString(),eq(null)))
+            .willReturn(HearingsGetResponse.builder()
+                .caseHearings(List.of(CaseHearing.builder()
+                    .hearingId(HEARING_REQUEST_ID)
+                    .hmcStatus(HmcStatus.HEARING_REQUESTED)
+                    .requestVersion(3L)
+                    .build()))
+                .build());
+
+        SscsCaseData caseData = wrapper.getCaseData();
+        caseData.setAdjournment(Adjournment.builder()
+            .adjournmentInProgress(YesNo.YES)
+            .nextHearingListingDurationType(AdjournCaseNextHearingDurationType.STANDARD)
+            .typeOfHearing(AdjournCaseTypeOfHearing.VIDEO)
+            .typeOfNextHearing(AdjournCaseTypeOfHearing.TELEPHONE)
+            .build());
+        caseData.setSchedulingAndListingFields(SchedulingAndListingFields.builder()
+            .defaultListingValues(OverrideFields.builder().duration(60).build())
+            .overrideFields(OverrideFields.builder().duration(30).build())
+            .build());
+        wrapper.setHearingState(CREATE_HEARING);
+
+        assertThatNoException()
+            .isThrownBy(() -> hearingsService.processHearingWrapper(wrapper));
+
+        verifyNoInteractions(hmcHearingApiService);
+        assertThat(caseData.getSchedulingAndListingFields().getOverrideFields().getDuration()).isEqualTo(30);
+    }
+
     @DisplayName("When create Hearing is given and there is already a hearing requested/awaiting listing addHearingResponse should run without error")
     @Test
     void processHearingWrapperCreateExistingHearing() throws GetHearingException {
@@ -352,7 +446,6 @@ class HearingsServiceTest {
             .caseHearings(List.of(CaseHearing.builder()
                 .hearingId(HEARING_REQUEST_ID)
                 .hmcStatus(HmcStatus.HEARING_REQUESTED)
-                .requestVersion(1L)
                 .build()))
             .build();
 
@@ -365,6 +458,68 @@ class HearingsServiceTest {
             .isThrownBy(() -> hearingsService.processHearingWrapper(wrapper));
     }
 
+    @DisplayName("When an existing hearing is found its version is taken from the hearings list without getting the hearing")
+    @Test
+    void processHearingWrapperCreateExistingHearingUsesListVersion() {
+        given(sessionCategoryMaps.getSessionCategory(BENEFIT_CODE,ISSUE_CODE,false,false))
+            .willReturn(new SessionCategoryMap(BenefitCode.PIP_NEW_CLAIM, Issue.DD,
+                                               false,false,SessionCategory.CATEGORY_03,null));
+        given(refData.getVenueService()).willReturn(venueService);
+        given(refData.getHearingDurations()).willReturn(hearingDurations);
+        given(refData.getSessionCategoryMaps()).willReturn(sessionCategoryMaps);
+        given(hearingServiceConsumer.getCreateHearingCaseDataConsumer(any(), any())).willReturn(sscsCaseDataConsumer);
+        HearingsGetResponse hearingsGetResponse = HearingsGetResponse.builder()
+            .caseHearings(List.of(CaseHearing.builder()
+                                      .hearingId(HEARING_REQUEST_ID)
+                                      .hmcStatus(HmcStatus.HEARING_REQUESTED)
+                                      .requestVersion(3L)
+                                      .build()))
+            .build();
+        given(hmcHearingsApiService.getHearingsRequest(anyString(),eq(null)))
+            .willReturn(hearingsGetResponse);
+
+        wrapper.setHearingState(CREATE_HEARING);
+
+        assertThatNoException()
+            .isThrownBy(() -> hearingsService.processHearingWrapper(wrapper));
+
+        verifyNoInteractions(hmcHearingApiService);
+        verify(hearingServiceConsumer).getCreateHearingCaseDataConsumer(
+            HmcUpdateResponse.builder()
+                .hearingRequestId(HEARING_REQUEST_ID)
+                .versionNumber(3L)
+                .status(HmcStatus.HEARING_REQUESTED)
+                .build(),
+            HEARING_REQUEST_ID);
+        assertThat(meterRegistry.get(HearingsService.VERSION_RESOLUTION_METRIC).tag("source", "list").counter().count())
+            .isEqualTo(1);
+    }
+
+    @DisplayName("When HMC has already accepted the create hearing request the case update is resumed without calling HMC")
+    @Test
+    void processHearingWrapperCreateResumesFromCheckpoint() throws Exception {
+        given(sessionCategoryMaps.getSessionCategory(BENEFIT_CODE,ISSUE_CODE,false,false))
+            .willReturn(new SessionCategoryMap(BenefitCode.PIP_NEW_CLAIM, Issue.DD,
+                                               false,false,SessionCategory.CATEGORY_03,null));
+        given(refData.getVenueService()).willReturn(venueService);
+        given(refData.getHearingDurations()).willReturn(hearingDurations);
+        given(refData.getSessionCategoryMaps()).willReturn(sessionCategoryMaps);
+        HmcUpdateResponse acceptedResponse = HmcUpdateResponse.builder().hearingRequestId(HEARING_REQUEST_ID).build();
+        String checkpointKey = "ID:1001";
+        given(checkpointService.getAcceptedResponse(checkpointKey)).willReturn(Optional.of(acceptedResponse));
+        given(hearingServiceConsumer.getCreateHearingCaseDataConsumer(acceptedResponse, HEARING_REQUEST_ID))
+            .willReturn(sscsCaseDataConsumer);
+
+        wrapper.setHearingState(CREATE_HEARING);
+        wrapper.setRequestId(checkpointKey);
+
+        assertThatNoException()
+            .isThrownBy(() -> hearingsService.processHearingWrapper(wrapper));
+
+        verifyNoInteractions(hmcHearingsApiService, hmcHearingApiService);
+        verify(checkpointService).record(checkpointKey, HearingRequestCheckpointService.Stage.CCD_UPDATED, null);
+    }
+
     @Test
     void processHearingWrapperCreateExistingHearingWhenHearingDoesntExists() throws GetHearingException {
         given(sessionCategoryMaps.getSessionCategory(BENEFIT_CODE,ISSUE_CODE,false,false))
@@ -379,7 +534,6 @@ class HearingsServiceTest {
             .caseHearings(List.of(CaseHearing.builder()
                                       .hearingId(HEARING_REQUEST_ID)
                                       .hmcStatus(HmcStatus.HEARING_REQUESTED)
-                                      .requestVersion(1L)
                                       .build()))
             .build();
 
@@ -422,6 +576,39 @@ class HearingsServiceTest {
             .isThrownBy(() -> hearingsService.processHearingWrapper(wrapper));
     }
 
+    @DisplayName("When the update hearing payload is unchanged since the last update no request is sent to HMC or CCD")
+    @Test
+    void processHearingWrapperUpdateUnchanged() throws Exception {
+        given(sessionCategoryMaps.getSessionCategory(BENEFIT_CODE,ISSUE_CODE,false,false))
+            .willReturn(new SessionCategoryMap(BenefitCode.PIP_NEW_CLAIM, Issue.DD,
+                false,false,SessionCategory.CATEGORY_03,null));
+
+        given(refData.getHearingDurations()).willReturn(hearingDurations);
+        given(refData.getSessionCategoryMaps()).willReturn(sessionCategoryMaps);
+
+        given(venueService.getEpimsIdForVenue(PROCESSING_VENUE)).willReturn("219164");
+
+        given(refData.getVenueService()).willReturn(venueService);
+
+        given(fingerprintService.fingerprint(any(HearingRequestPayload.class))).willReturn("fingerprint");
+        given(fingerprintService.isUnchanged(String.valueOf(HEARING_REQUEST_ID), "fingerprint", 2L)).willReturn(true);
+
+        wrapper.setHearingState(UPDATE_HEARING);
+        wrapper.getCaseData()
+            .setHearings(new ArrayList<>(Collections.singletonList(Hearing.builder()
+                .value(HearingDetails.builder()
+                    .hearingId(String.valueOf(HEARING_REQUEST_ID))
+                    .versionNumber(2L)
+                    .build())
+                .build())));
+
+        hearingsService.processHearingWrapper(wrapper);
+
+        verifyNoInteractions(hmcHearingApiService);
+        verifyNoInteractions(ccdCaseService);
+        verifyNoInteractions(updateCcdCaseService);
+    }
+
     @DisplayName("When wrapper with a valid cancel Hearing State is given addHearingResponse should run without error")
     @Test
     void processHearingWrapperCancel() {
@@ -8,7 +8,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.hmcts.reform.sscs.exception.GetHearingException;
-import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
 import uk.gov.hmcts.reform.sscs.model.single.hearing.*;
 
@@ -34,14 +33,14 @@ class HmcHearingApiServiceTest {
     private HmcHearingApi hmcHearingApi;
 
     @Mock
-    private IdamService idamService;
+    private IdamTokenProvider idamTokenProvider;
 
     @InjectMocks
     private HmcHearingApiService hmcHearingsService;
 
     @BeforeEach
     void setUp() {
-        given(idamService.getIdamTokens()).willReturn(IdamTokens.builder()
+        given(idamTokenProvider.getIdamTokens()).willReturn(IdamTokens.builder()
                 .serviceAuthorization(SERVICE_AUTHORIZATION)
                 .idamOauth2Token(IDAM_OAUTH2_TOKEN)
                 .build());
@@ -0,0 +1,184 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.sscs.idam.IdamService;
+import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static uk.gov.hmcts.reform.sscs.service.IdamTokenProvider.FETCH_METRIC;
+import static uk.gov.hmcts.reform.sscs.service.IdamTokenProvider.INVALIDATED_METRIC;
+import static uk.gov.hmcts.reform.sscs.service.IdamTokenProvider.REFRESH_FAILED_METRIC;
+
+@ExtendWith(MockitoExtension.class)
+class IdamTokenProviderTest {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    private static final Duration REFRESH_AHEAD = Duration.ofMinutes(5);
+
+    private static final IdamTokens FIRST_TOKENS = IdamTokens.builder()
+        .idamOauth2Token("first")
+        .serviceAuthorization("first-s2s")
+        .build();
+
+    private static final IdamTokens SECOND_TOKENS = IdamTokens.builder()
+        .idamOauth2Token("second")
+        .serviceAuthorization("second-s2s")
+        .build();
+
+    @Mock
+    private IdamService idamService;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private IdamTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        provider = new IdamTokenProvider(true, idamService, TTL, REFRESH_AHEAD, clock, meterRegistry);
+    }
+
+    @DisplayName("When the cache is disabled, every call fetches tokens from IDAM")
+    @Test
+    void testDisabled() {
+        provider = new IdamTokenProvider(false, idamService, TTL, REFRESH_AHEAD, clock, meterRegistry);
+        given(idamService.getIdamTokens()).willReturn(FIRST_TOKENS);
+
+        provider.getIdamTokens();
+        provider.getIdamTokens();
+
+        verify(idamService, times(2)).getIdamTokens();
+        assertThat(meterRegistry.get(FETCH_METRIC).timer().count()).isEqualTo(2);
+    }
+
+    @DisplayName("Tokens are fetched once and shared until they expire")
+    @Test
+    void testCachedUntilExpiry() {
+        given(idamService.getIdamTokens()).willReturn(FIRST_TOKENS, SECOND_TOKENS);
+
+        assertThat(provider.getIdamTokens()).isSameAs(FIRST_TOKENS);
+        clock.advance(TTL.minusSeconds(1));
+        assertThat(provider.getIdamTokens()).isSameAs(FIRST_TOKENS);
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(provider.getIdamTokens()).isSameAs(SECOND_TOKENS);
+        verify(idamService, times(2)).getIdamTokens();
+    }
+
+    @DisplayName("Tokens are refreshed in the background once they are within the refresh ahead window")
+    @Test
+    void testRefreshedAheadOfExpiry() {
+        given(idamService.getIdamTokens()).willReturn(FIRST_TOKENS, SECOND_TOKENS);
+        provider.getIdamTokens();
+
+        clock.advance(TTL.minus(REFRESH_AHEAD).minusSeconds(1));
+        provider.refreshIfDue();
+        verify(idamService, times(1)).getIdamTokens();
+
+        clock.advance(Duration.ofSeconds(1));
+        provider.refreshIfDue();
+
+        assertThat(provider.getIdamTokens()).isSameAs(SECOND_TOKENS);
+        verify(idamService, times(2)).getIdamTokens();
+    }
+
+    @DisplayName("A failed background refresh is counted and the current tokens are kept until they expire")
+    @Test
+    void testFailedRefreshKeepsTokens() {
+        given(idamService.getIdamTokens())
+            .willReturn(FIRST_TOKENS)
+            .willThrow(new IllegalStateException("IDAM unavailable"));
+        provider.getIdamTokens();
+
+        clock.advance(TTL.minus(REFRESH_AHEAD));
+        provider.refreshIfDue();
+
+        assertThat(provider.getIdamTokens()).isSameAs(FIRST_TOKENS);
+        assertThat(meterRegistry.get(REFRESH_FAILED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("Tokens a downstream service rejects as unauthorised are dropped and fetched again on the next call")
+    @Test
+    void testRejectedTokensInvalidated() {
+        given(idamService.getIdamTokens()).willReturn(FIRST_TOKENS, SECOND_TOKENS);
+        provider.getIdamTokens();
+
+        provider.invalidateIfRejected(unauthorised(FIRST_TOKENS));
+
+        assertThat(provider.getIdamTokens()).isSameAs(SECOND_TOKENS);
+        assertThat(meterRegistry.get(INVALIDATED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("Tokens fetched since a rejected request was sent are kept")
+    @Test
+    void testNewerTokensKept() {
+        given(idamService.getIdamTokens()).willReturn(SECOND_TOKENS);
+        provider.getIdamTokens();
+
+        provider.invalidateIfRejected(unauthorised(FIRST_TOKENS));
+        provider.invalidateIfRejected(new FeignException.Forbidden("Forbidden", request(SECOND_TOKENS), null, null));
+
+        assertThat(provider.getIdamTokens()).isSameAs(SECOND_TOKENS);
+        verify(idamService, times(1)).getIdamTokens();
+    }
+
+    private static FeignException unauthorised(IdamTokens tokens) {
+        return new FeignException.Unauthorized("Unauthorized", request(tokens), null, null);
+    }
+
+    private static Request request(IdamTokens tokens) {
+        return Request.create(Request.HttpMethod.GET, "http://ccd/cases", Map.of(
+            "Authorization", List.of(tokens.getIdamOauth2Token()),
+            "ServiceAuthorization", List.of(tokens.getServiceAuthorization())), null, StandardCharsets.UTF_8, null);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package uk.gov.hmcts.reform.sscs.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -7,12 +9,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.sscs.ccd.domain.*;
 import uk.gov.hmcts.reform.sscs.exception.GetCaseException;
 import uk.gov.hmcts.reform.sscs.exception.ListingException;
+import uk.gov.hmcts.reform.sscs.model.CaseProjection;
 import uk.gov.hmcts.reform.sscs.model.service.ServiceHearingRequest;
 import uk.gov.hmcts.reform.sscs.model.service.hearingvalues.ServiceHearingValues;
 import uk.gov.hmcts.reform.sscs.model.service.linkedcases.ServiceLinkedCases;
@@ -24,12 +31,14 @@ import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
@@ -57,16 +66,33 @@ class ServiceHearingsServiceTest {
     @Mock
     private CcdCaseService ccdCaseService;
 
+    @Spy
+    private CaseLockService caseLockService = new CaseLockService(false, 1, new SimpleMeterRegistry());
+
+    @Mock
+    private CaseWriteBackQueue caseWriteBackQueue;
+
     @InjectMocks
     private ServiceHearingsService serviceHearingsService;
 
+    @Captor
+    private ArgumentCaptor<JsonNode> readCaseData;
+
     private SscsCaseData caseData;
     private SscsCaseDetails caseDetails;
 
 
     @BeforeEach
     void setup() {
-        caseData = SscsCaseData.builder()
+        caseData = buildCaseData();
+
+        caseDetails = SscsCaseDetails.builder()
+            .data(caseData)
+            .build();
+    }
+
+    private static SscsCaseData buildCaseData() {
+        return SscsCaseData.builder()
             .ccdCaseId("1234")
             .benefitCode(BENEFIT_CODE)
             .issueCode(ISSUE_CODE)
@@ -118,10 +144,6 @@ class ServiceHearingsServiceTest {
                 .secondPanelDoctorSpecialism("eyeSurgeon")
                 .build())
             .build();
-
-        caseDetails = SscsCaseDetails.builder()
-            .data(caseData)
-            .build();
     }
 
     @DisplayName("When a case data is retrieved an entity which does not have a Id, that a new Id will be generated and the method updateCaseData will be called once")
@@ -141,7 +163,7 @@ class ServiceHearingsServiceTest {
 
         given(refData.getVenueService()).willReturn(venueService);
 
-        given(ccdCaseService.getCaseDetails(String.valueOf(CASE_ID))).willReturn(caseDetails);
+        given(ccdCaseService.getCaseDetails(CASE_ID)).willReturn(caseDetails);
 
         ServiceHearingValues result = serviceHearingsService.getServiceHearingValues(request);
 
@@ -174,7 +196,7 @@ class ServiceHearingsServiceTest {
 
         given(refData.getVenueService()).willReturn(venueService);
 
-        given(ccdCaseService.getCaseDetails(String.valueOf(CASE_ID))).willReturn(caseDetails);
+        given(ccdCaseService.getCaseDetails(CASE_ID)).willReturn(caseDetails);
 
         ServiceHearingRequest request = ServiceHearingRequest.builder()
             .caseId(String.valueOf(CASE_ID))
@@ -206,7 +228,7 @@ class ServiceHearingsServiceTest {
 
         given(refData.getVenueService()).willReturn(venueService);
 
-        given(ccdCaseService.getCaseDetails(String.valueOf(CASE_ID))).willReturn(caseDetails);
+        given(ccdCaseService.getCaseDetails(CASE_ID)).willReturn(caseDetails);
 
         ServiceHearingValues result = serviceHearingsService.getServiceHearingValues(request);
 
@@ -217,6 +239,91 @@ class ServiceHearingsServiceTest {
         verify(ccdCaseService, never()).updateCaseData(any(SscsCaseData.class), any(EventType.class), anyString(), anyString());
     }
 
+    @DisplayName("With change detection enabled, a case whose entities have no Id is still written back")
+    @Test
+    void testGetServiceHearingValuesChangeDetectionNoIds() throws Exception {
+        ReflectionTestUtils.setField(serviceHearingsService, "changeDetectionEnabled", true);
+        givenServiceHearingValuesReferenceData();
+
+        serviceHearingsService.getServiceHearingValues(ServiceHearingRequest.builder()
+            .caseId(String.valueOf(CASE_ID))
+            .build());
+
+        verify(ccdCaseService, times(1)).updateCaseData(any(SscsCaseData.class), eq(UPDATE_CASE_ONLY), anyString(), anyString());
+    }
+
+    @DisplayName("With change detection enabled, a case the mapping does not change is not written back")
+    @Test
+    void testGetServiceHearingValuesChangeDetectionWithIds() throws Exception {
+        ReflectionTestUtils.setField(serviceHearingsService, "changeDetectionEnabled", true);
+        caseData.getAppeal().getAppellant().setId("87399f1d-fcf9-416f-a3d0-f5ab0eb1109d");
+        caseData.getAppeal().getRep().setId("9f6fe72e-7e6e-4ad5-9a47-e70fc37e9de4");
+        caseData.getJointParty().setId("c11dc4a2-0447-4cd2-80fe-250df5c8d0a9");
+        givenServiceHearingValuesReferenceData();
+
+        serviceHearingsService.getServiceHearingValues(ServiceHearingRequest.builder()
+            .caseId(String.valueOf(CASE_ID))
+            .build());
+
+        verify(ccdCaseService, never()).updateCaseData(any(SscsCaseData.class), any(EventType.class), anyString(), anyString());
+    }
+
+    @DisplayName("With asynchronous write back enabled, changed case data is queued instead of written to CCD")
+    @Test
+    void testGetServiceHearingValuesQueuesWriteBack() throws Exception {
+        given(caseWriteBackQueue.isEnabled()).willReturn(true);
+        givenServiceHearingValuesReferenceData();
+
+        serviceHearingsService.getServiceHearingValues(ServiceHearingRequest.builder()
+            .caseId(String.valueOf(CASE_ID))
+            .build());
+
+        verify(caseWriteBackQueue).enqueue(eq(caseDetails), readCaseData.capture(), eq(UPDATE_CASE_ONLY), anyString(), anyString());
+        assertThat(readCaseData.getValue().at("/appeal/appellant/id").textValue()).isNull();
+        verify(ccdCaseService, never()).getStartEventResponse(anyLong(), any(EventType.class));
+        verify(ccdCaseService, never()).updateCaseData(any(SscsCaseData.class), any(EventType.class), anyString(), anyString());
+    }
+
+    @DisplayName("With asynchronous write back enabled, case data still queued to be written back is used instead of reading CCD")
+    @Test
+    void testGetServiceHearingValuesUsesQueuedCaseData() throws Exception {
+        caseData.getAppeal().getAppellant().setId("87399f1d-fcf9-416f-a3d0-f5ab0eb1109d");
+        caseData.getAppeal().getRep().setId("9f6fe72e-7e6e-4ad5-9a47-e70fc37e9de4");
+        caseData.getJointParty().setId("c11dc4a2-0447-4cd2-80fe-250df5c8d0a9");
+        given(caseWriteBackQueue.isEnabled()).willReturn(true);
+        given(caseWriteBackQueue.getQueued(CASE_ID)).willReturn(Optional.of(caseDetails));
+        given(sessionCategoryMaps.getSessionCategory(BENEFIT_CODE,ISSUE_CODE,true,false))
+            .willReturn(new SessionCategoryMap(BenefitCode.PIP_NEW_CLAIM, Issue.DD,
+                false,false, SessionCategory.CATEGORY_03,null));
+        given(refData.getSessionCategoryMaps()).willReturn(sessionCategoryMaps);
+        given(venueService.getEpimsIdForVenue(caseData.getProcessingVenue())).willReturn("9876");
+        given(refData.getVenueService()).willReturn(venueService);
+
+        ServiceHearingValues result = serviceHearingsService.getServiceHearingValues(ServiceHearingRequest.builder()
+            .caseId(String.valueOf(CASE_ID))
+            .build());
+
+        assertThat(result.getParties())
+            .extracting("partyID")
+            .contains("87399f1d-fcf9-4");
+        verify(ccdCaseService, never()).getCaseDetails(anyLong());
+        verify(caseWriteBackQueue, never()).enqueue(any(), any(), any(), anyString(), anyString());
+    }
+
+    private void givenServiceHearingValuesReferenceData() throws Exception {
+        given(sessionCategoryMaps.getSessionCategory(BENEFIT_CODE,ISSUE_CODE,true,false))
+            .willReturn(new SessionCategoryMap(BenefitCode.PIP_NEW_CLAIM, Issue.DD,
+                false,false, SessionCategory.CATEGORY_03,null));
+
+        given(refData.getSessionCategoryMaps()).willReturn(sessionCategoryMaps);
+
+        given(venueService.getEpimsIdForVenue(caseData.getProcessingVenue())).willReturn("9876");
+
+        given(refData.getVenueService()).willReturn(venueService);
+
+        given(ccdCaseService.getCaseDetails(CASE_ID)).willReturn(caseDetails);
+    }
+
     @ParameterizedTest
     @MethodSource("invalidCasesParameters")
     @DisplayName("One case should be returned when looking up case data for one case")
@@ -281,7 +388,8 @@ class ServiceHearingsServiceTest {
 
         given(ccdCaseService.getCasesViaElastic(List.of(String.valueOf(CASE_ID)))).willReturn(List.of(sscsCaseData));
 
-        given(ccdCaseService.getCasesViaElastic(List.of(linkedCaseReference))).willReturn(List.of(linkedSscsCaseData));
+        given(ccdCaseService.streamCasesViaElastic(List.of(linkedCaseReference), CaseProjection.FULL))
+            .willReturn(Stream.of(linkedSscsCaseData));
 
         List<ServiceLinkedCases> result = serviceHearingsService.getServiceLinkedCases(request);
 
@@ -296,6 +404,48 @@ class ServiceHearingsServiceTest {
         assertThat(result.get(0)).isEqualTo(expected);
     }
 
+    @DisplayName("When projected case search is enabled linked cases are found with only the fields they need")
+    @Test
+    void testGetServiceLinkedCasesProjected() throws Exception {
+        ReflectionTestUtils.setField(serviceHearingsService, "projectedCaseSearchEnabled", true);
+        String linkedCaseReference = "1234";
+
+        ServiceHearingRequest request = ServiceHearingRequest.builder()
+            .caseId(String.valueOf(CASE_ID))
+            .build();
+
+        SscsCaseDetails sscsCaseData = SscsCaseDetails.builder()
+            .id(CASE_ID)
+            .data(SscsCaseData.builder()
+            .linkedCase(List.of(CaseLink.builder()
+                .value(CaseLinkDetails.builder()
+                    .caseReference(linkedCaseReference).build())
+                .build()))
+            .build())
+            .build();
+
+        SscsCaseDetails linkedSscsCaseData = SscsCaseDetails.builder()
+            .id(Long.valueOf(linkedCaseReference))
+            .data(SscsCaseData.builder()
+            .caseAccessManagementFields(CaseAccessManagementFields.builder()
+                .caseNamePublic("Some Name")
+                .build())
+            .build())
+            .build();
+
+        given(ccdCaseService.getCasesViaElastic(List.of(String.valueOf(CASE_ID)), CaseProjection.LINKED_CASE_REFERENCES))
+            .willReturn(List.of(sscsCaseData));
+        given(ccdCaseService.streamCasesViaElastic(List.of(linkedCaseReference), CaseProjection.CASE_NAME))
+            .willReturn(Stream.of(linkedSscsCaseData));
+
+        List<ServiceLinkedCases> result = serviceHearingsService.getServiceLinkedCases(request);
+
+        assertThat(result).singleElement()
+            .extracting(ServiceLinkedCases::getCaseName)
+            .isEqualTo("Some Name");
+        verify(ccdCaseService, never()).getCasesViaElastic(any());
+    }
+
 
 
     private static Stream<Arguments> invalidCasesParameters() {
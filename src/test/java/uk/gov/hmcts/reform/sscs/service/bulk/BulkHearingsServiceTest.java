@@ -0,0 +1,191 @@
+package uk.gov.hmcts.reform.sscs.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+import uk.gov.hmcts.reform.sscs.exception.InvalidHearingDataException;
+import uk.gov.hmcts.reform.sscs.exception.ListingException;
+import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
+import uk.gov.hmcts.reform.sscs.model.bulk.BulkHearingJobStatus;
+import uk.gov.hmcts.reform.sscs.model.bulk.BulkHearingRequest;
+import uk.gov.hmcts.reform.sscs.model.hearings.HearingRequest;
+import uk.gov.hmcts.reform.sscs.service.CcdCaseService;
+import uk.gov.hmcts.reform.sscs.service.HearingsService;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.LISTING_ERROR;
+import static uk.gov.hmcts.reform.sscs.ccd.domain.HearingState.CANCEL_HEARING;
+import static uk.gov.hmcts.reform.sscs.ccd.domain.HearingState.UPDATE_HEARING;
+import static uk.gov.hmcts.reform.sscs.service.bulk.BulkHearingsService.PROCESSED_METRIC;
+
+@ExtendWith(MockitoExtension.class)
+class BulkHearingsServiceTest {
+
+    private static final int CONCURRENCY = 2;
+
+    @Mock
+    private HearingsService hearingsService;
+
+    @Mock
+    private CcdCaseService ccdCaseService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BulkHearingsService bulkHearingsService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bulkHearingsService = new BulkHearingsService(hearingsService, ccdCaseService, CONCURRENCY, 0, 10, Clock.systemUTC(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkHearingsService.shutdown();
+    }
+
+    @DisplayName("Every case is processed and its result streamed as a line of JSON")
+    @Test
+    void testResultsStreamed() throws Exception {
+        BulkHearingJob job = bulkHearingsService.submit(request(List.of("1", "2", "3")));
+
+        ObjectWriter writer = new ObjectMapper().writer();
+        List<String> lines = new CopyOnWriteArrayList<>();
+        bulkHearingsService.streamResults(job, result -> lines.add(writer.writeValueAsString(result)))
+            .get(5, TimeUnit.SECONDS);
+
+        assertThat(lines).hasSize(3).allMatch(line -> line.contains("\"outcome\":\"SUCCEEDED\""));
+        assertThat(job.getStatus().getState()).isEqualTo(BulkHearingJobStatus.State.COMPLETED);
+        assertThat(job.getStatus().getSucceeded()).isEqualTo(3);
+    }
+
+    @DisplayName("Failed cases are reported in the job status without stopping the other cases")
+    @Test
+    void testFailuresReported() throws Exception {
+        doAnswer(invocation -> {
+            HearingRequest hearingRequest = invocation.getArgument(0);
+            if ("2".equals(hearingRequest.getCcdCaseId())) {
+                throw new UpdateCaseException("CCD unavailable");
+            }
+            return null;
+        }).when(hearingsService).processHearingRequestOnce(any(HearingRequest.class), isNull());
+
+        BulkHearingJob job = bulkHearingsService.submit(request(List.of("1", "2", "3")));
+        job.streamResults(result -> { });
+
+        BulkHearingJobStatus status = job.getStatus();
+        assertThat(status.getSucceeded()).isEqualTo(2);
+        assertThat(status.getFailed()).isEqualTo(1);
+        assertThat(status.getFailures()).singleElement()
+            .satisfies(failure -> {
+                assertThat(failure.getCaseId()).isEqualTo("2");
+                assertThat(failure.getError()).isEqualTo("CCD unavailable");
+            });
+        assertThat(meterRegistry.get(PROCESSED_METRIC).tag("outcome", "FAILED").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("A case with a listing error is moved to the listing error state and reported as failed")
+    @Test
+    void testListingErrorRecorded() throws Exception {
+        SscsCaseData caseData = SscsCaseData.builder().ccdCaseId("1").build();
+        doThrow(new ListingException("No venue"))
+            .when(hearingsService).processHearingRequestOnce(any(HearingRequest.class), isNull());
+        given(ccdCaseService.getCaseDetails("1")).willReturn(SscsCaseDetails.builder().data(caseData).build());
+
+        BulkHearingJob job = bulkHearingsService.submit(request(List.of("1")));
+        job.streamResults(result -> { });
+
+        assertThat(job.getStatus().getFailed()).isEqualTo(1);
+        verify(ccdCaseService).updateCaseData(caseData, LISTING_ERROR, "Listing Exception", "No venue");
+    }
+
+    @DisplayName("No more than the configured number of cases are processed at once")
+    @Test
+    void testConcurrencyBounded() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            TimeUnit.MILLISECONDS.sleep(20);
+            running.decrementAndGet();
+            return null;
+        }).when(hearingsService).processHearingRequestOnce(any(HearingRequest.class), isNull());
+
+        BulkHearingJob job = bulkHearingsService.submit(request(List.of("1", "2", "3", "4", "5", "6")));
+        job.streamResults(result -> { });
+
+        assertThat(maxRunning.get()).isBetween(1, CONCURRENCY);
+    }
+
+    @DisplayName("The job carries on and reports its status when the client stops reading its results")
+    @Test
+    void testStreamFailureDoesNotStopJob() throws Exception {
+        BulkHearingJob job = bulkHearingsService.submit(request(List.of("1", "2", "3")));
+
+        assertThatExceptionOfType(IOException.class)
+            .isThrownBy(() -> job.streamResults(result -> {
+                throw new IOException("Client went away");
+            }));
+
+        for (int attempt = 0; attempt < 50 && !job.isFinished(); attempt++) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertThat(job.getStatus().getState()).isEqualTo(BulkHearingJobStatus.State.COMPLETED);
+        assertThat(job.getStatus().getSucceeded()).isEqualTo(3);
+    }
+
+    @DisplayName("Jobs can be looked up by their ID")
+    @Test
+    void testGetJob() throws Exception {
+        BulkHearingJob job = bulkHearingsService.submit(request(List.of("1")));
+
+        assertThat(bulkHearingsService.getJob(job.getId())).contains(job);
+        assertThat(bulkHearingsService.getJob("unknown")).isEmpty();
+    }
+
+    @DisplayName("Jobs without cases, with too many cases or with an unsupported Hearing State are rejected")
+    @Test
+    void testInvalidRequests() {
+        assertThatExceptionOfType(InvalidHearingDataException.class)
+            .isThrownBy(() -> bulkHearingsService.submit(request(List.of())));
+        assertThatExceptionOfType(InvalidHearingDataException.class)
+            .isThrownBy(() -> bulkHearingsService.submit(request(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"))));
+        assertThatExceptionOfType(InvalidHearingDataException.class)
+            .isThrownBy(() -> bulkHearingsService.submit(request(List.of("not-a-case"))));
+        assertThatExceptionOfType(InvalidHearingDataException.class)
+            .isThrownBy(() -> bulkHearingsService.submit(BulkHearingRequest.builder()
+                .caseIds(List.of("1"))
+                .hearingState(CANCEL_HEARING)
+                .build()));
+    }
+
+    private static BulkHearingRequest request(List<String> caseIds) {
+        return BulkHearingRequest.builder()
+            .caseIds(caseIds)
+            .hearingState(UPDATE_HEARING)
+            .build();
+    }
+}
@@ -25,6 +25,7 @@ import uk.gov.hmcts.reform.sscs.model.Message;
 import uk.gov.hmcts.reform.sscs.model.single.hearing.CaseDetails;
 import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingRequestPayload;
 import uk.gov.hmcts.reform.sscs.service.AppInsightsService;
+import uk.gov.hmcts.reform.sscs.service.IdamTokenProvider;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -56,11 +57,13 @@ class FeignClientErrorDecoderTest {
     private ArgumentCaptor<HmcFailureMessage> hmcFailureMessageArgumentCaptor;
     @Mock
     private AppInsightsService appInsightsService;
+    @Mock
+    private IdamTokenProvider idamTokenProvider;
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
-        feignClientErrorDecoder = new FeignClientErrorDecoder(appInsightsService, OBJECT_MAPPER);
+        feignClientErrorDecoder = new FeignClientErrorDecoder(appInsightsService, OBJECT_MAPPER, idamTokenProvider);
         hearingRequestPayload = new HearingRequestPayload();
         hearingRequestPayload.setCaseDetails(new CaseDetails());
         hearingRequestPayload.getCaseDetails().setCaseId(String.valueOf(CASE_ID));
@@ -116,6 +119,18 @@ class FeignClientErrorDecoderTest {
         assertThat(throwable.getMessage()).contains(expected);
     }
 
+    @Test
+    void testUnauthorisedInvalidatesTokens() {
+        Request request =
+            Request.create(Request.HttpMethod.POST, "url",
+                headers, Request.Body.create(toJsonString(hearingRequestPayload)), null);
+
+        feignClientErrorDecoder.decode("someMethod", buildResponse(request, HttpStatus.UNAUTHORIZED.value()));
+        feignClientErrorDecoder.decode("someMethod", buildResponse(request, HttpStatus.FORBIDDEN.value()));
+
+        verify(idamTokenProvider, times(1)).invalidateIfRejected(request);
+    }
+
     @Test
     void testShouldFallbackToStringIfJsonProcessingExceptionOccurs() throws JsonProcessingException {
         Request request =
@@ -1,5 +1,7 @@
 package uk.gov.hmcts.reform.sscs.service.hmc.topic;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,8 +10,11 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import uk.gov.hmcts.reform.sscs.ccd.domain.DwpState;
+import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
 import uk.gov.hmcts.reform.sscs.exception.UpdateCaseException;
@@ -23,6 +28,8 @@ import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingGetResponse;
 import uk.gov.hmcts.reform.sscs.model.single.hearing.HearingResponse;
 import uk.gov.hmcts.reform.sscs.model.single.hearing.RequestDetails;
 import uk.gov.hmcts.reform.sscs.reference.data.model.CancellationReason;
+import uk.gov.hmcts.reform.sscs.service.CaseLockService;
+import uk.gov.hmcts.reform.sscs.service.CaseWriteBackQueue;
 import uk.gov.hmcts.reform.sscs.service.CcdCaseService;
 import uk.gov.hmcts.reform.sscs.service.HmcHearingApiService;
 
@@ -31,18 +38,25 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.HEARING_BOOKED;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.State.UNKNOWN;
 import static uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcStatus.ADJOURNED;
+import static uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcStatus.AWAITING_LISTING;
 import static uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcStatus.CANCELLED;
 import static uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcStatus.EXCEPTION;
 import static uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcStatus.HEARING_REQUESTED;
 import static uk.gov.hmcts.reform.sscs.model.hmc.reference.HmcStatus.LISTED;
 import static uk.gov.hmcts.reform.sscs.model.hmc.reference.ListingStatus.FIXED;
 import static uk.gov.hmcts.reform.sscs.reference.data.model.CancellationReason.WITHDRAWN;
+import static uk.gov.hmcts.reform.sscs.service.hmc.topic.ProcessHmcMessageService.SKIPPED_CASE_UPDATE_METRIC;
+import static uk.gov.hmcts.reform.sscs.service.hmc.topic.ProcessHmcMessageService.SKIPPED_HEARING_REQUEST_METRIC;
 
 @ExtendWith(MockitoExtension.class)
 class ProcessHmcMessageServiceTest {
@@ -59,6 +73,15 @@ class ProcessHmcMessageServiceTest {
     @Mock
     private HearingUpdateService hearingUpdateService;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private CaseLockService caseLockService = new CaseLockService(false, 1, new SimpleMeterRegistry());
+
+    @Mock
+    private CaseWriteBackQueue caseWriteBackQueue;
+
     @InjectMocks
     private ProcessHmcMessageService processHmcMessageService;
 
@@ -390,6 +413,162 @@ class ProcessHmcMessageServiceTest {
         verify(ccdCaseService, never()).updateCaseData(any(),any(),any(),any());
     }
 
+    @DisplayName("When message routing is enabled, statuses that never update the case make no remote calls")
+    @ParameterizedTest
+    @EnumSource(value = HmcStatus.class, names = {"HEARING_REQUESTED", "UPDATE_REQUESTED", "CANCELLATION_REQUESTED",
+        "AWAITING_ACTUALS", "COMPLETED", "ADJOURNED"})
+    void testRoutedStatusWithoutCaseUpdate(HmcStatus value) throws Exception {
+        ReflectionTestUtils.setField(processHmcMessageService, "messageRoutingEnabled", true);
+        hmcMessage.getHearingUpdate().setHmcStatus(value);
+
+        processHmcMessageService.processEventMessage(hmcMessage);
+
+        verifyNoInteractions(hmcHearingApiService, ccdCaseService, hearingUpdateService);
+        assertThat(meterRegistry.get(SKIPPED_HEARING_REQUEST_METRIC).tag("status", value.name()).counter().count())
+            .isEqualTo(1);
+    }
+
+    @DisplayName("When message routing is enabled, an Exception is applied to the case without getting the hearing")
+    @Test
+    void testRoutedExceptionWithoutHearingRequest() throws Exception {
+        ReflectionTestUtils.setField(processHmcMessageService, "messageRoutingEnabled", true);
+        hmcMessage.getHearingUpdate().setHmcStatus(EXCEPTION);
+
+        given(ccdCaseService.getCaseDetails(CASE_ID))
+            .willReturn(sscsCaseDetails);
+
+        processHmcMessageService.processEventMessage(hmcMessage);
+
+        verify(hmcHearingApiService, never()).getHearingRequest(any());
+        verifyUpdateCaseDataCalledCorrectlyForHmcStatus(caseData, EXCEPTION);
+    }
+
+    @DisplayName("When message routing is enabled, a Listed hearing is still read from HMC")
+    @Test
+    void testRoutedListedWithHearingRequest() throws Exception {
+        ReflectionTestUtils.setField(processHmcMessageService, "messageRoutingEnabled", true);
+        hearingGetResponse.getHearingResponse().setListingStatus(FIXED);
+        hmcMessage.getHearingUpdate().setHmcStatus(LISTED);
+
+        given(hmcHearingApiService.getHearingRequest(HEARING_ID))
+            .willReturn(hearingGetResponse);
+        given(ccdCaseService.getCaseDetails(CASE_ID))
+            .willReturn(sscsCaseDetails);
+
+        processHmcMessageService.processEventMessage(hmcMessage);
+
+        verify(hearingUpdateService).updateHearing(hearingGetResponse, caseData);
+        verifyUpdateCaseDataCalledCorrectlyForHmcStatus(caseData, LISTED);
+    }
+
+    @DisplayName("Only statuses that read the hearing from HMC and update the case re-read the hearing")
+    @Test
+    void testRereadsHearing() {
+        assertThat(processHmcMessageService.rereadsHearing(EXCEPTION)).isTrue();
+
+        ReflectionTestUtils.setField(processHmcMessageService, "messageRoutingEnabled", true);
+
+        assertThat(processHmcMessageService.rereadsHearing(LISTED)).isTrue();
+        assertThat(processHmcMessageService.rereadsHearing(EXCEPTION)).isFalse();
+    }
+
+    @DisplayName("With the two call update enabled, a Listed hearing starts the CCD event in place of reading the case")
+    @Test
+    void testTwoCallUpdateListed() throws Exception {
+        ReflectionTestUtils.setField(processHmcMessageService, "twoCallUpdateEnabled", true);
+        hearingGetResponse.getHearingResponse().setListingStatus(FIXED);
+        hmcMessage.getHearingUpdate().setHmcStatus(LISTED);
+
+        given(hmcHearingApiService.getHearingRequest(HEARING_ID))
+            .willReturn(hearingGetResponse);
+        given(ccdCaseService.getStartEventResponse(CASE_ID, HEARING_BOOKED))
+            .willReturn(sscsCaseDetails);
+
+        processHmcMessageService.processEventMessage(hmcMessage);
+
+        verify(hearingUpdateService).updateHearing(hearingGetResponse, caseData);
+        verify(ccdCaseService).updateCaseData(caseData, sscsCaseDetails, HEARING_BOOKED,
+            LISTED.getCcdUpdateSummary(), String.format(LISTED.getCcdUpdateDescription(), HEARING_ID));
+        verify(ccdCaseService, never()).getCaseDetails(CASE_ID);
+        verify(ccdCaseService, never()).updateCaseData(any(SscsCaseData.class), any(EventType.class), any(), any());
+    }
+
+    @DisplayName("With the two call update enabled, a Cancelled hearing still reads the case to resolve its event")
+    @Test
+    void testTwoCallUpdateCancelledFallsBack() throws Exception {
+        ReflectionTestUtils.setField(processHmcMessageService, "twoCallUpdateEnabled", true);
+        hearingGetResponse.getRequestDetails().setStatus(CANCELLED);
+        hearingGetResponse.getRequestDetails().setCancellationReasonCodes(List.of(WITHDRAWN));
+        hmcMessage.getHearingUpdate().setHmcStatus(CANCELLED);
+
+        given(hmcHearingApiService.getHearingRequest(HEARING_ID))
+            .willReturn(hearingGetResponse);
+        given(ccdCaseService.getCaseDetails(CASE_ID))
+            .willReturn(sscsCaseDetails);
+
+        processHmcMessageService.processEventMessage(hmcMessage);
+
+        verifyUpdateCaseDataCalledCorrectlyForHmcStatus(caseData, CANCELLED);
+        verify(ccdCaseService, never()).getStartEventResponse(anyLong(), any());
+    }
+
+    @DisplayName("With no-op suppression enabled, an Update Case Only event that changes nothing is not submitted")
+    @Test
+    void testNoOpUpdateSkipped() throws Exception {
+        ReflectionTestUtils.setField(processHmcMessageService, "noOpUpdateSuppressionEnabled", true);
+        hearingGetResponse.getHearingResponse().setListingStatus(FIXED);
+        hmcMessage.getHearingUpdate().setHmcStatus(AWAITING_LISTING);
+
+        given(hmcHearingApiService.getHearingRequest(HEARING_ID))
+            .willReturn(hearingGetResponse);
+        given(ccdCaseService.getCaseDetails(CASE_ID))
+            .willReturn(sscsCaseDetails);
+
+        processHmcMessageService.processEventMessage(hmcMessage);
+
+        verify(ccdCaseService, never()).updateCaseData(any(SscsCaseData.class), any(EventType.class), any(), any());
+        assertThat(meterRegistry.get(SKIPPED_CASE_UPDATE_METRIC).tag("status", AWAITING_LISTING.name()).counter().count())
+            .isEqualTo(1);
+    }
+
+    @DisplayName("With no-op suppression enabled, an Update Case Only event that changes the case is still submitted")
+    @Test
+    void testChangedUpdateSubmitted() throws Exception {
+        ReflectionTestUtils.setField(processHmcMessageService, "noOpUpdateSuppressionEnabled", true);
+        hearingGetResponse.getHearingResponse().setListingStatus(FIXED);
+        hmcMessage.getHearingUpdate().setHmcStatus(AWAITING_LISTING);
+
+        given(hmcHearingApiService.getHearingRequest(HEARING_ID))
+            .willReturn(hearingGetResponse);
+        given(ccdCaseService.getCaseDetails(CASE_ID))
+            .willReturn(sscsCaseDetails);
+        willAnswer(invocation -> {
+            caseData.setDwpState(DwpState.HEARING_DATE_ISSUED);
+            return null;
+        }).given(hearingUpdateService).setWorkBasketFields(HEARING_ID, caseData, AWAITING_LISTING);
+
+        processHmcMessageService.processEventMessage(hmcMessage);
+
+        verifyUpdateCaseDataCalledCorrectlyForHmcStatus(caseData, AWAITING_LISTING);
+    }
+
+    @DisplayName("With no-op suppression enabled, an event that changes the case state is submitted even if no fields changed")
+    @Test
+    void testStateChangingEventSubmitted() throws Exception {
+        ReflectionTestUtils.setField(processHmcMessageService, "noOpUpdateSuppressionEnabled", true);
+        hearingGetResponse.getHearingResponse().setListingStatus(FIXED);
+        hmcMessage.getHearingUpdate().setHmcStatus(LISTED);
+
+        given(hmcHearingApiService.getHearingRequest(HEARING_ID))
+            .willReturn(hearingGetResponse);
+        given(ccdCaseService.getCaseDetails(CASE_ID))
+            .willReturn(sscsCaseDetails);
+
+        processHmcMessageService.processEventMessage(hmcMessage);
+
+        verifyUpdateCaseDataCalledCorrectlyForHmcStatus(caseData, LISTED);
+    }
+
     private void verifyUpdateCaseDataCalledCorrectlyForHmcStatus(SscsCaseData caseData, HmcStatus hmcStatus) throws UpdateCaseException {
         String ccdUpdateDescription = String.format(hmcStatus.getCcdUpdateDescription(), HEARING_ID);
         verify(ccdCaseService, times(1))